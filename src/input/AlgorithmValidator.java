@@ -0,0 +1,29 @@
+package input;
+
+import java.util.Arrays;
+import java.util.List;
+
+import com.beust.jcommander.IParameterValidator;
+import com.beust.jcommander.ParameterException;
+
+/** Simple validator class to work alongside JCommander tool and JCommanderInput class.
+ * Will ensure that a given value names one of the algorithms known to the Optimizer.
+ * 
+ * @author Michael Camara
+ *
+ */
+public class AlgorithmValidator implements IParameterValidator {
+
+	// The names of all algorithms the Optimizer can be asked to use
+	public static final List<String> ALGORITHMS = Arrays.asList("auto", "dynamic", "bitset", "parallel", "profit", "linear", "disk", "branch", "core", "pareto", "greedy");
+
+	/** Ensures that the given value is the name of a known algorithm
+	 * @param name Name of the object being tested
+	 * @param value Value of the object being tested
+	 */
+	public void validate(String name, String value) throws ParameterException {
+		if(!ALGORITHMS.contains(value)) {
+			throw new ParameterException("Parameter " + name + " should be one of " + ALGORITHMS + " (found \"" + value + "\").");
+		}
+	}
+}
@@ -0,0 +1,238 @@
+package input;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+
+import com.beust.jcommander.ParameterException;
+
+import solver.MappedNames;
+import solver.Requirement;
+import solver.RequirementSet;
+
+/** BinaryRequirementFile reads and writes lists of requirements in a compact binary format, so that a
+ * list which rarely changes does not have to be parsed as text on every run.  The file is laid out in
+ * columns of big-endian ints, followed by the names:
+ *
+ *   magic number ("KNAP"), version, number of requirements n, number of name bytes m
+ *   n costs
+ *   n benefits
+ *   n + 1 name offsets (the name of requirement i is bytes offset[i] to offset[i+1] of the name blob)
+ *   m bytes of UTF-8 encoded names (the name blob)
+ *
+ * Loading maps the file and copies the cost and benefit columns straight into int arrays in bulk, without
+ * any text parsing.  With lazy names (see setLazyNames()), the names are left in the mapped file as
+ * well, and only decoded for the requirements that are output.  Input files are recognized by their magic number (see isBinary()), so binary and
+ * .csv files can be given through the same --input option.  Binary files are created from .csv files by
+ * the RequirementConverter.
+ *
+ * @author Michael Camara
+ *
+ */
+public class BinaryRequirementFile {
+
+	// The first four bytes of every binary requirement file: "KNAP" in ASCII
+	public static final int MAGIC = 0x4B4E4150;
+
+	// The version of the layout written by this class
+	public static final int VERSION = 1;
+
+	// The number of bytes of the header (magic number, version, number of requirements, number of name bytes)
+	public static final int HEADER_SIZE = 16;
+
+	// The largest file that can be loaded, as the whole file is mapped into a single buffer
+	public static final long MAX_FILE_SIZE = Integer.MAX_VALUE;
+
+	private int totalNumRequirements;	// The number of requirements loaded by the last call to load()
+	private boolean lazyNames;			// Whether names are left in the file until they are requested
+
+	/** Determine whether a file starts with the magic number of the binary format
+	 *
+	 * @param file The file to inspect
+	 * @return true if the file is a binary requirement file; false otherwise (including if it cannot be read)
+	 */
+	public static boolean isBinary(File file) {
+		try(FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			ByteBuffer magic = ByteBuffer.allocate(4);
+			while(magic.hasRemaining() && channel.read(magic) >= 0);
+			return !magic.hasRemaining() && magic.getInt(0) == MAGIC;
+		} catch (IOException e) {
+			return false;
+		}
+	}
+
+	/** Compute the size of a binary requirement file
+	 *
+	 * @param numReqs The number of requirements
+	 * @param numNameBytes The number of bytes of their UTF-8 encoded names
+	 * @return The size of the file in bytes: the header, the three columns of ints, and the names
+	 */
+	public static long fileSize(long numReqs, long numNameBytes) {
+		return HEADER_SIZE + 4L * (3L * numReqs + 1) + numNameBytes;
+	}
+
+	/** Check that a file of the given requirements can be loaded again, before any of it is written
+	 *
+	 * @param numReqs The number of requirements
+	 * @param numNameBytes The number of bytes of their UTF-8 encoded names
+	 * @throws IOException if the file would be too large to be loaded
+	 */
+	public static void checkFileSize(long numReqs, long numNameBytes) throws IOException {
+		long size = fileSize(numReqs, numNameBytes);
+		if(size > MAX_FILE_SIZE)
+			throw new IOException("Binary requirement files should be smaller than 2 GB, but " + numReqs + " requirements with "
+					+ numNameBytes + " bytes of names need " + size + " bytes");
+	}
+
+	/** Write a list of requirements to a binary requirement file
+	 *
+	 * @param requirements The requirements to write, including those that do not generate a profit
+	 * @param file The file to create
+	 * @throws IOException if the file cannot be written, or would be too large to be loaded again
+	 */
+	public static void write(RequirementSet requirements, File file) throws IOException {
+		int numReqs = requirements.size();
+
+		// Encode the names first, as the header holds the size of the name blob
+		byte[][] names = new byte[numReqs][];
+		long numNameBytes = 0;
+		for(int i = 0; i < numReqs; i++) {
+			names[i] = requirements.getName(i).getBytes(StandardCharsets.UTF_8);
+			numNameBytes += names[i].length;
+		}
+		checkFileSize(numReqs, numNameBytes);
+
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), 1 << 16));
+		try {
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeInt(numReqs);
+			out.writeInt((int) numNameBytes);
+
+			for(int i = 0; i < numReqs; i++)
+				out.writeInt(requirements.getCost(i));
+			for(int i = 0; i < numReqs; i++)
+				out.writeInt(requirements.getBenefit(i));
+
+			int offset = 0;
+			out.writeInt(offset);
+			for(byte[] name : names) {
+				offset += name.length;
+				out.writeInt(offset);
+			}
+			for(byte[] name : names)
+				out.write(name);
+		} finally {
+			out.close();
+		}
+	}
+
+	/** Load the requirements of a binary requirement file.  As with .csv input, only the requirements that
+	 * generate a profit are returned, while getTotalNumRequirements() counts every requirement.
+	 *
+	 * @param file The binary requirement file
+	 * @return The set of requirements from the file that generate a profit
+	 * @throws ParameterException if the file cannot be found or is not a valid binary requirement file
+	 */
+	public RequirementSet load(File file) {
+		FileChannel channel;
+		try {
+			channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+		} catch (IOException e) {
+			throw new ParameterException("Cannot find the indicated file in the current directory.");
+		}
+
+		try {
+			long size = channel.size();
+			if(size < HEADER_SIZE)
+				throw new ParameterException("Binary requirement file is truncated (found " + size + " bytes).");
+			if(size > MAX_FILE_SIZE)
+				throw new ParameterException("Binary requirement files should be smaller than 2 GB (found " + size + " bytes).");
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+
+			// Validate the header against the size of the file
+			if(buffer.getInt(0) != MAGIC)
+				throw new ParameterException("Input file is not a binary requirement file.");
+			if(buffer.getInt(4) != VERSION)
+				throw new ParameterException("Binary requirement file version should be " + VERSION + " (found \"" + buffer.getInt(4) + "\").");
+			int numReqs = buffer.getInt(8);
+			int numNameBytes = buffer.getInt(12);
+			long expectedSize = fileSize(numReqs, numNameBytes);
+			if(numReqs < 0 || numNameBytes < 0 || expectedSize != size)
+				throw new ParameterException("Binary requirement file is truncated or corrupt (expected " + expectedSize + " bytes, found " + size + ").");
+
+			// Copy the columns into int arrays in bulk
+			int[] costs = new int[numReqs];
+			int[] benefits = new int[numReqs];
+			int[] nameOffsets = new int[numReqs + 1];
+			buffer.position(HEADER_SIZE);
+			buffer.asIntBuffer().get(costs).get(benefits).get(nameOffsets);
+			int blobStart = HEADER_SIZE + 4 * (3 * numReqs + 1);
+
+			// Keep every requirement that generates a profit
+			MappedNames mappedNames = null;
+			if(lazyNames) {
+				mappedNames = new MappedNames(1, StandardCharsets.UTF_8);
+				mappedNames.setBuffer(0, 0, buffer);
+			}
+			RequirementSet requirements = new RequirementSet(16, mappedNames);
+			byte[] name = new byte[64];
+			for(int i = 0; i < numReqs; i++) {
+				int nameStart = nameOffsets[i];
+				int nameLength = nameOffsets[i + 1] - nameStart;
+				if(nameStart < 0 || nameLength <= 0 || nameOffsets[i + 1] > numNameBytes || costs[i] < 0 || benefits[i] < 0)
+					throw new ParameterException("Binary requirement file is corrupt (requirement " + i + " is invalid).");
+
+				char symbol = (char) (buffer.get(blobStart + nameStart) & 0xFF);
+				if(Requirement.perceivedProfit(symbol, benefits[i] - costs[i]) <= 0)
+					continue;
+
+				if(lazyNames)
+					requirements.add(blobStart + nameStart, nameLength, symbol, costs[i], benefits[i]);
+				else {
+					if(name.length < nameLength)
+						name = new byte[Math.max(nameLength, 2 * name.length)];
+					buffer.get(blobStart + nameStart, name, 0, nameLength);
+					requirements.add(new String(name, 0, nameLength, StandardCharsets.UTF_8), costs[i], benefits[i]);
+				}
+			}
+
+			totalNumRequirements = numReqs;
+			return requirements;
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		} finally {
+			try {
+				channel.close();
+			} catch (IOException e) {
+				// Nothing left to read, so the file can be closed silently
+			}
+		}
+	}
+
+	/** Choose whether the names of the requirements returned by load() are decoded while loading, or only
+	 * once they are requested (see RequirementSet.getName()).  Lazy names keep the file mapped for as long
+	 * as the requirements are in use, so the file should not be changed in the meantime.
+	 *
+	 * @param lazyNames true to decode names only when requested; false to decode them while loading
+	 */
+	public void setLazyNames(boolean lazyNames) {
+		this.lazyNames = lazyNames;
+	}
+
+	/** Return the total number of requirements loaded by the last call to load() (regardless of profit)
+	 *
+	 * @return total number of requirements loaded
+	 */
+	public int getTotalNumRequirements() {
+		return totalNumRequirements;
+	}
+}
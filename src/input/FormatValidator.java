@@ -0,0 +1,29 @@
+package input;
+
+import java.util.Arrays;
+import java.util.List;
+
+import com.beust.jcommander.IParameterValidator;
+import com.beust.jcommander.ParameterException;
+
+/** Simple validator class to work alongside JCommander tool and JCommanderInput class.
+ * Will ensure that a given value names one of the formats the Output class can write.
+ *
+ * @author Michael Camara
+ *
+ */
+public class FormatValidator implements IParameterValidator {
+
+	// The names of all formats the chosen requirements can be written in
+	public static final List<String> FORMATS = Arrays.asList("csv", "json", "binary");
+
+	/** Ensures that the given value is the name of a known output format
+	 * @param name Name of the object being tested
+	 * @param value Value of the object being tested
+	 */
+	public void validate(String name, String value) throws ParameterException {
+		if(!FORMATS.contains(value)) {
+			throw new ParameterException("Parameter " + name + " should be one of " + FORMATS + " (found \"" + value + "\").");
+		}
+	}
+}
@@ -0,0 +1,34 @@
+package input;
+
+import com.beust.jcommander.IParameterValidator;
+import com.beust.jcommander.ParameterException;
+
+/** Simple validator class to work alongside JCommander tool and JCommanderInput class.
+ * Will ensure that a given value is a valid number between 0 and 1 (exclusive).
+ * 
+ * @author Michael Camara
+ *
+ */
+public class FractionValidator implements IParameterValidator {
+
+	/** Ensures that the given value is a valid number between 0 and 1 (exclusive)
+	 * @param name Name of the object being tested
+	 * @param value Value of the object being tested
+	 */
+	public void validate(String name, String value) throws ParameterException {
+		double n = 0;
+		
+		// Test if value is a number
+		try {
+			n = Double.parseDouble(value);
+		}
+		catch(NumberFormatException e) {
+			throw new ParameterException("Parameter " + name + " should be a numeric value (found \"" + value + "\").");
+		}
+		
+		// Test if the number is strictly between 0 and 1
+		if(!(n > 0 && n < 1)) {
+			throw new ParameterException("Parameter " + name + " should be between 0 and 1 (found \"" + value +"\").");		
+		}
+	}
+}
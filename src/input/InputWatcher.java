@@ -0,0 +1,74 @@
+package input;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+
+/** InputWatcher blocks until the input file has been changed on disk, so that the requirements can be
+ * parsed again and the selection updated.  It uses a WatchService on the directory containing the file,
+ * which reports changes without polling the file.
+ *
+ * @author Michael Camara
+ *
+ */
+public class InputWatcher {
+
+	// Time in milliseconds to wait after a change, so that an editor can finish writing the file
+	private static final long SETTLE_TIME = 200;
+
+	private Path inputPath;			// The absolute path of the watched file
+	private WatchService watcher;	// The service reporting changes in the file's directory
+
+	/** Start watching the given input file
+	 *
+	 * @param inputFile The file containing the list of requirements
+	 * @throws IOException if the directory of the file cannot be watched
+	 */
+	public InputWatcher(File inputFile) throws IOException {
+		inputPath = inputFile.toPath().toAbsolutePath();
+		watcher = FileSystems.getDefault().newWatchService();
+		inputPath.getParent().register(watcher, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+	}
+
+	/** Wait until the input file has been created or modified.  Changes to other files in the same
+	 * directory are ignored, and several changes in quick succession are reported only once.
+	 *
+	 * @throws InterruptedException if interrupted while waiting
+	 */
+	public void waitForChange() throws InterruptedException {
+		boolean changed = false;
+		while(!changed) {
+			WatchKey key = watcher.take();
+			changed = isInputChanged(key);
+			key.reset();
+		}
+
+		// Let the writer finish, then discard the events caused by the rest of the write
+		Thread.sleep(SETTLE_TIME);
+		WatchKey key;
+		while((key = watcher.poll()) != null) {
+			key.pollEvents();
+			key.reset();
+		}
+	}
+
+	/** Determine whether any event of a key concerns the input file
+	 *
+	 * @param key The key holding the events of the watched directory
+	 * @return true if the input file was created or modified; false otherwise
+	 */
+	private boolean isInputChanged(WatchKey key) {
+		boolean changed = false;
+		for(WatchEvent<?> event : key.pollEvents()) {
+			if(event.kind() == StandardWatchEventKinds.OVERFLOW
+					|| inputPath.getFileName().equals(event.context()))
+				changed = true;
+		}
+		return changed;
+	}
+}
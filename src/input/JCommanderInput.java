@@ -1,14 +1,17 @@
 package input;
 
 import java.io.File;
-import java.io.FileNotFoundException;
+import java.lang.reflect.Field;
 import java.util.ArrayList;
-import java.util.Scanner;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
 
 import com.beust.jcommander.Parameter;
 import com.beust.jcommander.ParameterException;
 
 import solver.Requirement;
+import solver.RequirementSet;
 
 /** JCommanderInput handles all user input via the JCommander tool using command line arguments.
  * Various optional tags are included to give the user control over the desired input and output
@@ -25,12 +28,19 @@ public class JCommanderInput {
 	//		 in the format: "RequirementName,IntegerCost,IntegerBenefit" separated by new lines
 	@Parameter(names = {"-i", "--input"}, description = "Enter the .csv file containing the list of requirements with their associated costs and benefits.  "
 			+ "The format of this file should be \"RequirementName,IntegerCost,IntegerBenefit\" with a unique requirement"
-			+ " on each line.  The first line of this file is assumed to be a header and will not be read.")
+			+ " on each line.  The first line of this file is assumed to be a header and will not be read.  Binary files (see "
+			+ "RequirementConverter) and JSON files in the format of --format json are recognized and read as well.")
 	private File inputFile = new File("input.csv");
 	
 	// Allow the user to specify an output file
 	@Parameter(names = {"-o", "--output"}, description = "Enter the desired file name where output data will be sent.  E.g. \"output.csv\"")
 	private File outputFile = new File("output.csv");
+	
+	// Allow the user to choose the format of the output file
+	@Parameter(names = {"--format"}, description = "Choose the format of the output file: csv (one requirement per line, "
+			+ "like the input file), json (the chosen requirements and their totals), or binary (the chosen requirements in the "
+			+ "binary input format, see RequirementConverter)", validateWith = FormatValidator.class)
+	private String format = "csv";
 
 	// Allow user to enter a single fixed cost (integer)
 	@Parameter(names = {"-f", "--fixed"}, description = "Enter the fixed cost threshold, which should be a positive integer.", 
@@ -42,75 +52,155 @@ public class JCommanderInput {
 			+ "Faster run time, less memory usage, but potentially poorer profit maximization")
 	private boolean forceGreedy = false;
 	
+	// Allow user to choose which selection algorithm is used
+	@Parameter(names = {"-a", "--algorithm"}, description = "Choose the selection algorithm: auto, dynamic, bitset (dynamic "
+			+ "storing one bit per table cell), parallel (bitset evaluated on --threads threads), "
+			+ "profit (dynamic indexed by profit instead of cost), linear (dynamic using memory proportional to the fixed cost only), "
+			+ "disk (bitset writing its table to a temporary file, see --table-dir), "
+			+ "branch (branch-and-bound, independent of the fixed cost), core (dynamic over the requirements near the greedy "
+			+ "break point only), pareto (dynamic over Pareto-optimal cost/profit pairs only), or greedy.  auto estimates the time and memory of each algorithm "
+			+ "and uses the fastest exact one that fits in memory (see --max-memory), and otherwise falls back to approximate results", validateWith = AlgorithmValidator.class)
+	private String algorithm = "auto";
+	
+	// Allow user to limit the memory used by the selection algorithm
+	@Parameter(names = {"--max-memory"}, description = "Memory budget of the selection algorithm, in bytes or with a k, m or g "
+			+ "suffix, e.g. 512m.  The fastest exact algorithm that fits is used, then the approximation algorithm, then greedy.  "
+			+ "Defaults to the free memory of the JVM", validateWith = MemorySizeValidator.class)
+	private String maxMemory = null;
+	
+	// Allow user to choose where the disk-backed dynamic algorithm writes its table
+	@Parameter(names = {"--table-dir"}, description = "Directory the disk algorithm writes its temporary table to.  "
+			+ "Defaults to the temporary directory of the system")
+	private File tableDirectory = null;
+	
+	// Allow user to choose how many threads the input parsing and the parallel algorithms may use
+	@Parameter(names = {"--threads"}, description = "Number of threads used to parse the input file, and by the parallel dynamic and branch-and-bound algorithms. "
+			+ "0 uses all available processors", validateWith = PositiveIntegerValidator.class)
+	private int threads = 1;
+	
+	// Allow user to accept an approximate result within a given error bound
+	@Parameter(names = {"-e", "--epsilon"}, description = "Use an approximation algorithm guaranteeing a profit of at least "
+			+ "(1 - epsilon) times the maximum profit, with run time and memory independent of the fixed cost.  "
+			+ "Should be between 0 and 1, e.g. 0.05", validateWith = FractionValidator.class)
+	private double epsilon = 0;
+	
+	// Allow user to solve every budget up to the fixed cost at once
+	@Parameter(names = {"-s", "--sweep"}, description = "Solve every budget up to the fixed cost in one pass, and write "
+			+ "the budget/profit curve (every budget at which the maximum profit increases) to the given file, e.g. \"sweep.csv\"")
+	private File sweepFile = null;
+	
+	// Allow user to choose the budgets whose requirements are written to the output file in sweep mode
+	@Parameter(names = {"-b", "--budgets"}, description = "Comma separated list of budgets (each at most the fixed cost) whose "
+			+ "chosen requirements are written to the output file in sweep mode.  Defaults to the fixed cost only")
+	private List<Integer> budgets = new ArrayList<Integer>();
+	
+	// Allow user to keep the solver running and re-optimize whenever the input file changes
+	@Parameter(names = {"-w", "--watch"}, description = "Keep running after the first selection, and re-optimize whenever the "
+			+ "input file changes.  Each added requirement costs O(k); removing or editing the requirement at position i of the "
+			+ "list recomputes every requirement after it, i.e. O((n-i)*k)")
+	private boolean watch = false;
+	
+	// Allow user to keep the solver running as a local HTTP server
+	@Parameter(names = {"--serve"}, description = "Keep the solver running as an HTTP server on the given local port, "
+			+ "solving every requirement list POSTed to /solve (see SolverServer).  The fixed cost, algorithm, epsilon "
+			+ "and output format of each request are given as query parameters, and default to the other options", 
+			validateWith = PositiveIntegerValidator.class)
+	private int servePort = 0;
+	
+	// Allow user to solve many input files and fixed costs in a single run
+	@Parameter(names = {"--batch"}, description = "Solve every job of the given manifest .csv file instead of the input file "
+			+ "(see BatchRunner).  After a header line, each line of the manifest should be \"InputFile,FixedCost,OutputFile\"; "
+			+ "an empty fixed cost defaults to -f.  Jobs on the same input file share a single parsed copy of it")
+	private File batchFile = null;
+	
+	// Allow user to choose where the summary of batch mode is written
+	@Parameter(names = {"--summary"}, description = "Enter the file name where batch mode writes the result and timings of every job.")
+	private File summaryFile = new File("summary.csv");
+	
+	// Allow user to limit the number of requests or jobs solved at once
+	@Parameter(names = {"--max-concurrent"}, description = "Number of requests (in server mode) or jobs (in batch mode) solved at "
+			+ "once, each with an equal share of the memory budget.  Further ones wait for their turn.  0 uses all available processors", 
+			validateWith = PositiveIntegerValidator.class)
+	private int maxConcurrent = 0;
+	
+	// Allow user to only show a summary of the chosen requirements on the console
+	@Parameter(names = {"-q", "--quiet"}, description = "Only show a summary of the chosen requirements on the console "
+			+ "instead of every chosen requirement.  The output file still holds every chosen requirement")
+	private boolean quiet = false;
+	
 	// Allow user to toggle verbose mode
 	@Parameter(names = {"-v", "--verbose"}, description = "Show extended statistical information")
 	private boolean verbose = false;
 	
 	// Allow user to toggle timer
-	@Parameter(names = {"-t", "--timer"}, description = "Show performance information")
+	@Parameter(names = {"-t", "--timer"}, description = "Show performance information: the time, allocated bytes and heap used at the "
+			+ "end of every phase (see Metrics)")
 	private boolean showTimer = false;
 	
+	// Allow user to record the cost of the solve in a file
+	@Parameter(names = {"--metrics"}, description = "Enter the file name where the time, allocated bytes and heap used at the "
+			+ "end of every phase of the solve, the row and state counts and the chosen algorithm are written (see Metrics)")
+	private File metricsFile = null;
+	
+	// Allow user to choose the format of the metrics file
+	@Parameter(names = {"--metrics-format"}, description = "Choose the format of the metrics file: json, or prometheus (the text "
+			+ "format of Prometheus)", validateWith = MetricsFormatValidator.class)
+	private String metricsFormat = "json";
+	
 	// Allow user to show help menu with parameter usage information
 	@Parameter(names = {"-h", "--help"}, description = "Shows parameter usage information", help = true)
 	private boolean help = false;
 
-	// Store list of Requirement objects that contain cost and benefit information
-	private ArrayList<Requirement> requirements;
+	// Store set of requirements that contain cost and benefit information
+	private RequirementSet requirements;
 
 	// The total number of requirements identified in the input file (regardless of profit)
 	private int totalNumRequirements;
 
-	/** This method uses a scanner to parse the indicated input file.  The input file needs to be
-	 * in the following format to comply with this parsing:
+	/** This method parses the indicated input file through a MappedRequirementParser, which reads the
+	 * memory-mapped file directly.  Files in the binary format of BinaryRequirementFile (recognized by
+	 * their magic number) are loaded without parsing instead, and files in the format of
+	 * JsonRequirementFile (recognized by their opening brace) are read as JSON.  Otherwise, the input file needs to be in the
+	 * following format to comply with this parsing:
 	 * First line: Header comments (e.g. "Requirements, Costs, Benefits"
 	 * Second and subsequent lines: RequirementName,IntegerCost,IntegerBenefit
 	 * 
 	 * Note the first line (a header) is omitted from parsing.  Further, each line is considered its own
 	 * separate requirement.  Finally, the three comma-separated-values should not have any space between
-	 * them, and the cost and benefit must be valid positive integers.
+	 * them, and the cost and benefit must be valid positive integers (see validateParameters() for the
+	 * rules, which the parser follows).
 	 * 
-	 * After successful parsing, a Requirement object is created for each item on the list that generates
-	 * a profit.  Non-profit generating requirements are excluded, as they will not help maximize profit
-	 * during subsequent selection via the Optimizer class.
+	 * After successful parsing, each item on the list that generates a profit is added to a RequirementSet.
+	 * Non-profit generating requirements are excluded, as they will not help maximize profit during
+	 * subsequent selection via the Optimizer class.
 	 * 
-	 * @return The list of Requirement objects taken from the input file that are valid and generate a profit
+	 * @return The set of requirements taken from the input file that are valid and generate a profit
 	 */
-	public ArrayList<Requirement> getRequirements() {
+	public RequirementSet getRequirements() {
 		
 		// Announce that requirement list is being created
 		System.out.println("Creating list of requirements...");
 	
-		// Create initially empty list to hold parsed requirements
-		requirements = new ArrayList<Requirement>();
-	
-		// Create scanner for reading the input file
-		Scanner scan;
-		try {
-			scan = new Scanner(inputFile);
-		} catch (FileNotFoundException e) {
-			throw new ParameterException("Cannot find the indicated file in the current directory.");
+		// Load binary requirement files directly, and parse all other files as .csv files
+		// NOTE: either way, only the requirements that generate a profit are kept.  Their names are only
+		// decoded for output, except in watch mode, where the file is expected to change after parsing
+		if(BinaryRequirementFile.isBinary(inputFile)) {
+			BinaryRequirementFile binaryFile = new BinaryRequirementFile();
+			binaryFile.setLazyNames(!watch);
+			requirements = binaryFile.load(inputFile);
+			totalNumRequirements = binaryFile.getTotalNumRequirements();
 		}
-	
-		// Do not consider the first line, which should be a descriptive header
-		scan.nextLine();
-	
-		// Otherwise iterate through every subsequent line
-		while(scan.hasNext()) {
-			String reqRaw = scan.nextLine();
-			String[] reqSplit = reqRaw.split(",");			
-	
-			// Validate each part of the requirement to ensure it is correct
-			Requirement req = validateParameters(reqSplit);
-	
-			// Only add this requirement if it generates a profit
-			if(req.getPerceivedProfit() > 0)
-				requirements.add(req);
-	
-			// Increment the total number of requirements (regardless of profit-generating ability)
-			totalNumRequirements++;
+		else if(JsonRequirementFile.isJson(inputFile)) {
+			JsonRequirementFile jsonFile = new JsonRequirementFile();
+			requirements = jsonFile.load(inputFile);
+			totalNumRequirements = jsonFile.getTotalNumRequirements();
+		}
+		else {
+			MappedRequirementParser parser = new MappedRequirementParser(inputFile, getThreads());
+			parser.setLazyNames(!watch);
+			requirements = parser.parse();
+			totalNumRequirements = parser.getTotalNumRequirements();
 		}
-	
-		scan.close();
 	
 		return requirements;
 	}
@@ -209,6 +299,22 @@ public class JCommanderInput {
 		return showTimer;
 	}
 	
+	/** Return the file the metrics of the solve should be written to
+	 * 
+	 * @return the metrics file, or null if no metrics file has been indicated
+	 */
+	public File getMetricsFile() {
+		return metricsFile;
+	}
+	
+	/** Return the format the metrics file should be written in
+	 * 
+	 * @return the name of the metrics format ("json" by default)
+	 */
+	public String getMetricsFormat() {
+		return metricsFormat;
+	}
+	
 	/** Return whether the usage wants parameter usage information displayed
 	 * 
 	 * @return true if the user wants parameter usage information displayed;
@@ -218,6 +324,22 @@ public class JCommanderInput {
 		return help;
 	}
 
+	/** Return the file containing the list of requirements
+	 * 
+	 * @return the input file
+	 */
+	public File getInputFile() {
+		return inputFile;
+	}
+	
+	/** Return whether watch mode has been indicated
+	 * 
+	 * @return true if the input file should be watched for changes; false otherwise
+	 */
+	public boolean isWatch() {
+		return watch;
+	}
+
 	/** Return the user desired output file.
 	 * @return the user desired output file
 	 */
@@ -225,6 +347,56 @@ public class JCommanderInput {
 		return outputFile;
 	}
 	
+	/** Return the format the output file should be written in
+	 * 
+	 * @return the name of the output format ("csv" by default)
+	 */
+	public String getFormat() {
+		return format;
+	}
+	
+	/** Return the local port the solver should serve requests on
+	 * 
+	 * @return the port, or 0 if server mode has not been indicated
+	 */
+	public int getServePort() {
+		return servePort;
+	}
+	
+	/** Return the manifest of jobs to solve in batch mode
+	 * 
+	 * @return the manifest file, or null if batch mode has not been indicated
+	 */
+	public File getBatchFile() {
+		return batchFile;
+	}
+	
+	/** Return the file the summary of batch mode should be written to
+	 * 
+	 * @return the summary file ("summary.csv" by default)
+	 */
+	public File getSummaryFile() {
+		return summaryFile;
+	}
+	
+	/** Return the number of requests or jobs that should be solved at once
+	 * 
+	 * @return the number of concurrent requests or jobs (all available processors if the user entered 0)
+	 */
+	public int getMaxConcurrent() {
+		if(maxConcurrent == 0)
+			return Runtime.getRuntime().availableProcessors();
+		return maxConcurrent;
+	}
+	
+	/** Return whether the user only wants a summary of the chosen requirements on the console
+	 * 
+	 * @return true if quiet mode has been indicated; false otherwise
+	 */
+	public boolean isQuiet() {
+		return quiet;
+	}
+	
 	/** Return whether user wants to force the use of the greedy algorithm
 	 * 
 	 * @return true if the user wants to force the use of the greedy algorithm; false otherwise
@@ -232,4 +404,104 @@ public class JCommanderInput {
 	public boolean getGreedyChoice() {
 		return forceGreedy;
 	}
-}
\ No newline at end of file
+	
+	/** Return the name of the selection algorithm chosen by the user
+	 * 
+	 * @return the name of the selection algorithm chosen by the user ("auto" by default)
+	 */
+	public String getAlgorithm() {
+		return algorithm;
+	}
+	
+	/** Return the maximum relative error the user accepts for the chosen profit
+	 * 
+	 * @return the maximum relative error (0 if an exact result is required)
+	 */
+	public double getEpsilon() {
+		return epsilon;
+	}
+	
+	/** Return the file the budget/profit curve should be written to in sweep mode
+	 * 
+	 * @return the sweep file, or null if sweep mode has not been indicated
+	 */
+	public File getSweepFile() {
+		return sweepFile;
+	}
+	
+	/** Return the budgets whose chosen requirements should be written in sweep mode.  Each budget
+	 * is ensured to be non-negative and at most the fixed cost.
+	 * 
+	 * @return the budgets entered by the user, or only the fixed cost if none were entered
+	 */
+	public List<Integer> getBudgets() {
+		if(budgets.isEmpty())
+			budgets.add(fixed);
+		
+		for(int budget : budgets) {
+			if(budget < 0 || budget > fixed) {
+				throw new ParameterException("Budgets should be between 0 and the fixed cost (found \"" + budget + "\").");
+			}
+		}
+		return budgets;
+	}
+	
+	/** Return the memory budget of the selection algorithm
+	 * 
+	 * @return the memory budget in bytes, or 0 if the user has not given one
+	 */
+	public long getMaxMemory() {
+		if(maxMemory == null)
+			return 0;
+		return MemorySizeValidator.parse(maxMemory);
+	}
+	
+	/** Return the directory the disk-backed dynamic algorithm should write its table to
+	 * 
+	 * @return the table directory, or null if the user has not given one
+	 */
+	public File getTableDirectory() {
+		return tableDirectory;
+	}
+	
+	/** Return the number of threads the user wants the parallel algorithms to use
+	 * 
+	 * @return the number of threads to use (all available processors if the user entered 0)
+	 */
+	public int getThreads() {
+		if(threads == 0)
+			return Runtime.getRuntime().availableProcessors();
+		return threads;
+	}
+	
+	/** Remove some options and their values from a list of command line arguments, e.g. so that they can be
+	 * given again with other values (JCommander only accepts each option once)
+	 * 
+	 * @param args The command line arguments
+	 * @param names The names of the options to remove, including all their aliases
+	 * @return The remaining arguments, in their original order
+	 */
+	public static ArrayList<String> removeOptions(String[] args, Collection<String> names) {
+		
+		// Find which options are flags, i.e. are not followed by a value
+		ArrayList<String> flags = new ArrayList<String>();
+		for(Field field : JCommanderInput.class.getDeclaredFields()) {
+			Parameter parameter = field.getAnnotation(Parameter.class);
+			if(parameter != null && field.getType() == boolean.class)
+				flags.addAll(Arrays.asList(parameter.names()));
+		}
+		
+		ArrayList<String> remaining = new ArrayList<String>();
+		for(int i = 0; i < args.length; i++) {
+			boolean hasValue = args[i].startsWith("-") && !flags.contains(args[i]) && i + 1 < args.length;
+			if(!names.contains(args[i])) {
+				remaining.add(args[i]);
+				if(hasValue)
+					remaining.add(args[i + 1]);
+			}
+			if(hasValue)
+				i++;
+		}
+		return remaining;
+	}
+}
@@ -0,0 +1,281 @@
+package input;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import com.beust.jcommander.ParameterException;
+
+import solver.Requirement;
+import solver.RequirementSet;
+
+/** JsonRequirementFile reads lists of requirements written as JSON, in the same layout as the JSON output
+ * of the Output class:
+ *
+ *   {"requirements": [{"name": "R1", "cost": 10, "benefit": 30}, ...]}
+ *
+ * Any other member of the object or of a requirement (e.g. the totals written by Output) is ignored, so
+ * that the chosen requirements of one run can be read back by another.  Input files are recognized by their
+ * first non-whitespace character (see isJson()), so JSON, binary and .csv files can be given through the
+ * same --input option.  The file is expected to be encoded in UTF-8.
+ *
+ * The costs and benefits are validated with the same rules as JCommanderInput.validateParameters(), and
+ * as with .csv input, only the requirements that generate a profit are returned.
+ *
+ * @author Michael Camara
+ *
+ */
+public class JsonRequirementFile {
+
+	private int totalNumRequirements;	// The number of requirements loaded by the last call to load()
+
+	private String text;				// The text of the file being loaded
+	private int position;				// The position of the next character to read
+
+	/** Determine whether a file starts with a JSON object, i.e. whether its first non-whitespace character
+	 * is an opening brace (which cannot start the header of a .csv file in a useful way)
+	 *
+	 * @param file The file to inspect
+	 * @return true if the file looks like a JSON requirement file; false otherwise (including if it cannot be read)
+	 */
+	public static boolean isJson(File file) {
+		try(InputStream in = Files.newInputStream(file.toPath())) {
+			int c = in.read();
+			while(c == ' ' || c == '\t' || c == '\r' || c == '\n')
+				c = in.read();
+			return c == '{';
+		} catch (IOException e) {
+			return false;
+		}
+	}
+
+	/** Load the requirements of a JSON requirement file
+	 *
+	 * @param file The JSON requirement file
+	 * @return The set of requirements from the file that generate a profit
+	 * @throws ParameterException if the file cannot be found, is not valid JSON, or holds an invalid requirement
+	 */
+	public RequirementSet load(File file) {
+		try {
+			text = new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+		} catch (IOException e) {
+			throw new ParameterException("Cannot find the indicated file in the current directory.");
+		}
+		position = 0;
+		totalNumRequirements = 0;
+
+		RequirementSet requirements = null;
+		expect('{');
+		if(!consume('}')) {
+			do {
+				String key = readString();
+				expect(':');
+				if(key.equals("requirements"))
+					requirements = readRequirements();
+				else
+					skipValue();
+			} while(consume(','));
+			expect('}');
+		}
+		skipWhitespace();
+		if(position < text.length())
+			throw error("end of file");
+		if(requirements == null)
+			throw new ParameterException("JSON requirement file should hold a \"requirements\" array.");
+
+		text = null;
+		return requirements;
+	}
+
+	/** Read the array of requirements, keeping those that generate a profit
+	 *
+	 * @return The set of profit generating requirements
+	 */
+	private RequirementSet readRequirements() {
+		RequirementSet requirements = new RequirementSet();
+		expect('[');
+		if(consume(']'))
+			return requirements;
+
+		do {
+			String name = null;
+			long cost = -1, benefit = -1;
+			expect('{');
+			if(!consume('}')) {
+				do {
+					String key = readString();
+					expect(':');
+					if(key.equals("name"))
+						name = readString();
+					else if(key.equals("cost"))
+						cost = readInteger("Cost");
+					else if(key.equals("benefit"))
+						benefit = readInteger("Benefit");
+					else
+						skipValue();
+				} while(consume(','));
+				expect('}');
+			}
+
+			// Ensure that three components are included in each requirement (name, cost, and benefit)
+			if(name == null || name.isEmpty() || cost < 0 || benefit < 0)
+				throw new ParameterException("Requirement " + totalNumRequirements + " should have a non-empty name, a cost, and a benefit.");
+
+			// Only keep this requirement if it generates a profit
+			if(Requirement.perceivedProfit(name.charAt(0), (int) (benefit - cost)) > 0)
+				requirements.add(name, (int) cost, (int) benefit);
+			totalNumRequirements++;
+		} while(consume(','));
+		expect(']');
+
+		return requirements;
+	}
+
+	/** Read a number that should be a non-negative integer within the range of an int
+	 *
+	 * @param parameter The name of the value, for error messages ("Cost" or "Benefit")
+	 * @return The integer
+	 */
+	private long readInteger(String parameter) {
+		skipWhitespace();
+		int start = position;
+		while(position < text.length() && "+-.0123456789eE".indexOf(text.charAt(position)) >= 0)
+			position++;
+		String number = text.substring(start, position);
+
+		int value;
+		try {
+			value = Integer.parseInt(number);
+		}
+		catch(NumberFormatException e) {
+			throw new ParameterException(parameter + " parameter should be a numeric value (found \"" + number + "\").");
+		}
+		if(value < 0)
+			throw new ParameterException(parameter + " parameter should be non-negative (found \"" + value + "\").");
+		return value;
+	}
+
+	/** Read a string, decoding its escape sequences
+	 *
+	 * @return The decoded string
+	 */
+	private String readString() {
+		expect('"');
+		StringBuilder s = new StringBuilder();
+		while(true) {
+			if(position >= text.length())
+				throw error("closing quote");
+			char c = text.charAt(position++);
+			if(c == '"')
+				return s.toString();
+			if(c != '\\') {
+				s.append(c);
+				continue;
+			}
+			if(position >= text.length())
+				throw error("escape sequence");
+			char escaped = text.charAt(position++);
+			switch(escaped) {
+			case 'b': s.append('\b'); break;
+			case 'f': s.append('\f'); break;
+			case 'n': s.append('\n'); break;
+			case 'r': s.append('\r'); break;
+			case 't': s.append('\t'); break;
+			case 'u':
+				if(position + 4 > text.length())
+					throw error("four hexadecimal digits");
+				try {
+					s.append((char) Integer.parseInt(text.substring(position, position + 4), 16));
+				} catch (NumberFormatException e) {
+					throw error("four hexadecimal digits");
+				}
+				position += 4;
+				break;
+			default:
+				s.append(escaped);
+			}
+		}
+	}
+
+	/** Skip a value of any type, including nested objects and arrays
+	 */
+	private void skipValue() {
+		skipWhitespace();
+		if(position >= text.length())
+			throw error("value");
+
+		char c = text.charAt(position);
+		if(c == '"')
+			readString();
+		else if(c == '{' || c == '[') {
+			char close = c == '{' ? '}' : ']';
+			position++;
+			if(!consume(close)) {
+				do {
+					if(c == '{') {
+						readString();
+						expect(':');
+					}
+					skipValue();
+				} while(consume(','));
+				expect(close);
+			}
+		}
+		else {
+			int start = position;
+			while(position < text.length() && "+-.0123456789eEtruefalsn".indexOf(text.charAt(position)) >= 0)
+				position++;
+			if(position == start)
+				throw error("value");
+		}
+	}
+
+	/** Skip whitespace, then read the given character
+	 *
+	 * @param c The character expected next
+	 */
+	private void expect(char c) {
+		if(!consume(c))
+			throw error("'" + c + "'");
+	}
+
+	/** Skip whitespace, then read the given character if it comes next
+	 *
+	 * @param c The character that may come next
+	 * @return true if the character was read; false otherwise
+	 */
+	private boolean consume(char c) {
+		skipWhitespace();
+		if(position < text.length() && text.charAt(position) == c) {
+			position++;
+			return true;
+		}
+		return false;
+	}
+
+	/** Skip the whitespace before the next token
+	 */
+	private void skipWhitespace() {
+		while(position < text.length() && Character.isWhitespace(text.charAt(position)))
+			position++;
+	}
+
+	/** Create the exception for a syntax error at the current position
+	 *
+	 * @param expected A description of what was expected
+	 * @return The exception to throw
+	 */
+	private ParameterException error(String expected) {
+		return new ParameterException("JSON requirement file is invalid at character " + position + ": expected " + expected + ".");
+	}
+
+	/** Return the total number of requirements loaded by the last call to load() (regardless of profit)
+	 *
+	 * @return total number of requirements loaded
+	 */
+	public int getTotalNumRequirements() {
+		return totalNumRequirements;
+	}
+}
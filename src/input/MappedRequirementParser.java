@@ -0,0 +1,507 @@
+package input;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import com.beust.jcommander.ParameterException;
+
+import solver.MappedNames;
+import solver.Requirement;
+import solver.RequirementSet;
+
+/** MappedRequirementParser reads the list of requirements from the input file without a Scanner.  The
+ * file is memory-mapped, and each line is parsed straight from the mapped bytes: the commas are located
+ * by scanning the bytes, and the cost and benefit are accumulated digit by digit into ints.  No object is
+ * created per line, except for the name of each profit generating requirement; the requirements are
+ * stored in a RequirementSet, and requirements that do not generate a profit are skipped before their
+ * name is decoded.  With lazy names (see setLazyNames()), not even the names are decoded: the set records
+ * the position of each name in the file, and keeps the mapped chunks so that the names can be decoded
+ * later, for the requirements that are output.
+ *
+ * The lines are validated with the same rules and error messages as JCommanderInput.validateParameters(),
+ * including the way String.split() ignores trailing empty values.  Like Scanner.hasNext(), parsing stops
+ * once only whitespace is left in the file.
+ *
+ * The lines after the header are split into chunks, each ending after a newline, which are mapped and
+ * parsed independently.  With more than one thread, the chunks are parsed on a ForkJoinPool (several
+ * chunks per thread, so that threads finishing early can take over the remaining ones), and their
+ * requirements are merged in the original order afterwards.  If several chunks contain an invalid line,
+ * the error of the first one in the file is reported, as it would be by a single thread.  Chunks are
+ * never larger than MAX_CHUNK_SIZE bytes, so that files larger than a single mapping can be read as well.
+ *
+ * @author Michael Camara
+ *
+ */
+public class MappedRequirementParser {
+
+	// The maximum number of bytes mapped at once
+	private static final long MAX_CHUNK_SIZE = 1L << 30;
+
+	// The minimum number of bytes worth handing to another thread
+	private static final long MIN_CHUNK_SIZE = 1L << 20;
+
+	// The number of chunks per thread, so that threads finishing early can take over remaining chunks
+	private static final int CHUNKS_PER_THREAD = 4;
+
+	// Returned by parseInt() when the bytes do not form a valid integer
+	private static final long INVALID = Long.MIN_VALUE;
+
+	private File inputFile;					// The file containing the list of requirements
+	private int threads;					// The number of threads parsing chunks of the file
+	private Charset charset;				// The charset used to decode the names of requirements
+	private int totalNumRequirements;		// The number of requirements parsed (regardless of profit)
+	private boolean keepAll;				// Whether requirements that do not generate a profit are kept
+	private boolean lazyNames;				// Whether names are left in the file until they are requested
+	private MappedNames mappedNames;		// Decodes the lazy names of the last parse (null without lazy names)
+
+	/** Initialize the parser for the given input file, parsing on a single thread
+	 *
+	 * @param inputFile The file containing the list of requirements
+	 */
+	public MappedRequirementParser(File inputFile) {
+		this(inputFile, 1);
+	}
+
+	/** Initialize the parser for the given input file
+	 *
+	 * @param inputFile The file containing the list of requirements
+	 * @param threads The number of threads parsing chunks of the file (1 disables parallelism)
+	 */
+	public MappedRequirementParser(File inputFile, int threads) {
+		this.inputFile = inputFile;
+		this.threads = threads;
+		this.charset = Charset.defaultCharset();
+	}
+
+	/** Parse the input file.  The first line is a header and is skipped; every subsequent line should be
+	 * in the format "RequirementName,IntegerCost,IntegerBenefit".
+	 *
+	 * @return The set of requirements taken from the input file that are valid and generate a profit
+	 * @throws ParameterException if the file cannot be found or a line is not a valid requirement
+	 * @throws NoSuchElementException if the file is empty
+	 */
+	public RequirementSet parse() {
+		totalNumRequirements = 0;
+
+		FileChannel channel;
+		try {
+			channel = FileChannel.open(inputFile.toPath(), StandardOpenOption.READ);
+		} catch (IOException e) {
+			throw new ParameterException("Cannot find the indicated file in the current directory.");
+		}
+
+		Chunk[] chunks;
+		try {
+			long size = channel.size();
+			if(size == 0)
+				throw new NoSuchElementException("No line found");
+
+			// Do not consider the first line, which should be a descriptive header
+			long headerEnd = findLineEnd(channel, 0, size);
+			if(headerEnd < size && readByte(channel, headerEnd) == '\r' && headerEnd + 1 < size && readByte(channel, headerEnd + 1) == '\n')
+				headerEnd += 2;
+			else
+				headerEnd = Math.min(headerEnd + 1, size);
+
+			// Only the lines starting before the last non-whitespace byte contain requirements
+			long dataEnd = findLineEnd(channel, findContentEnd(channel, size), size);
+
+			chunks = splitChunks(channel, headerEnd, Math.max(headerEnd, dataEnd));
+			mappedNames = lazyNames ? new MappedNames(chunks.length, charset) : null;
+			if(chunks.length <= 1 || threads <= 1) {
+				for(Chunk chunk : chunks)
+					chunk.call();
+			}
+			else {
+				ForkJoinPool pool = new ForkJoinPool(threads);
+				try {
+					for(Future<Chunk> result : pool.invokeAll(Arrays.asList(chunks)))
+						result.get();
+				} catch (InterruptedException | ExecutionException e) {
+					throw new IllegalStateException("Parsing of the input file was interrupted", e);
+				} finally {
+					pool.shutdown();
+				}
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		} finally {
+			try {
+				channel.close();
+			} catch (IOException e) {
+				// Nothing left to read, so the file can be closed silently
+			}
+		}
+
+		// Merge the chunks in their original order, reporting the first invalid line of the file
+		int numRequirements = 0;
+		for(Chunk chunk : chunks)
+			numRequirements += chunk.requirements.size();
+
+		RequirementSet requirements = new RequirementSet(numRequirements, mappedNames);
+		for(Chunk chunk : chunks) {
+			if(chunk.error != null) {
+				System.out.print(chunk.errorOutput);
+				throw chunk.error;
+			}
+			requirements.addAll(chunk.requirements);
+			totalNumRequirements += chunk.numParsed;
+		}
+
+		return requirements;
+	}
+
+	/** Split the lines between two positions into chunks ending after a newline.  With one thread, the
+	 * chunks are as large as possible; otherwise there are CHUNKS_PER_THREAD chunks per thread, as long as
+	 * they hold at least MIN_CHUNK_SIZE bytes.
+	 *
+	 * @param channel The open file
+	 * @param from The position of the first line
+	 * @param to The position of the terminator of the last line
+	 * @return The chunks covering every line between from and to, in order
+	 * @throws IOException if the file cannot be read
+	 */
+	private Chunk[] splitChunks(FileChannel channel, long from, long to) throws IOException {
+		long length = to - from;
+		long numChunks = (length + MAX_CHUNK_SIZE - 1) / MAX_CHUNK_SIZE;
+		if(threads > 1)
+			numChunks = Math.max(numChunks, Math.min((long) threads * CHUNKS_PER_THREAD, length / MIN_CHUNK_SIZE));
+		numChunks = Math.max(numChunks, 1);
+
+		ArrayList<Chunk> chunks = new ArrayList<Chunk>();
+		long start = from;
+		for(long c = 1; c <= numChunks && start < to; c++) {
+
+			// End the chunk after the first newline following its share of the bytes
+			long end = to;
+			if(c < numChunks) {
+				long newline = indexOf(channel, (byte) '\n', Math.max(start, from + length * c / numChunks), to);
+				end = newline < 0 ? to : newline + 1;
+			}
+
+			if(end - start > MAX_CHUNK_SIZE)
+				throw new ParameterException("Lines of the input file should be shorter than " + MAX_CHUNK_SIZE + " bytes.");
+
+			chunks.add(new Chunk(chunks.size(), channel, start, end));
+			start = end;
+		}
+		return chunks.toArray(new Chunk[chunks.size()]);
+	}
+
+	/** A range of lines of the input file, parsed independently of the other chunks.  The requirements
+	 * and the first error of the chunk are kept until all chunks have been parsed.
+	 */
+	private class Chunk implements Callable<Chunk> {
+
+		private final int index;					// The position of this chunk among all chunks
+		private final FileChannel channel;			// The open file
+		private final long start;					// The file position of the first line
+		private final long end;						// The file position after the last line
+
+		private RequirementSet requirements;		// The profit generating requirements
+		private int numParsed;						// The number of requirements parsed (regardless of profit)
+		private RuntimeException error;				// The error raised by the first invalid line, if any
+		private String errorOutput = "";			// The console output describing the error
+		private byte[] nameBuffer = new byte[64];	// Holds the bytes of a name while it is decoded
+
+		Chunk(int index, FileChannel channel, long start, long end) {
+			this.index = index;
+			this.channel = channel;
+			this.start = start;
+			this.end = end;
+		}
+
+		/** Map the chunk and parse every line in it, stopping at the first invalid line
+		 *
+		 * @return this chunk
+		 */
+		public Chunk call() throws IOException {
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+			requirements = new RequirementSet(16, mappedNames);
+			if(mappedNames != null)
+				mappedNames.setBuffer(index, start, buffer);
+
+			int to = (int) (end - start);
+			int position = 0;
+			try {
+				while(position < to) {
+					int lineEnd = position;
+					while(lineEnd < to && buffer.get(lineEnd) != '\n' && buffer.get(lineEnd) != '\r')
+						lineEnd++;
+
+					parseLine(buffer, position, lineEnd);
+					position = skipLine(buffer, lineEnd, to);
+				}
+			} catch (RuntimeException e) {
+				error = e;
+			}
+			return this;
+		}
+
+		/** Validate a single line and add it to the requirements if it generates a profit (see
+		 * JCommanderInput.validateParameters() for the rules)
+		 *
+		 * @param buffer The mapped bytes
+		 * @param lineStart The position of the first byte of the line
+		 * @param lineEnd The position of the line terminator
+		 */
+		private void parseLine(ByteBuffer buffer, int lineStart, int lineEnd) {
+
+			// Ignore trailing empty values, as String.split() does
+			int end = lineEnd;
+			while(end > lineStart && buffer.get(end - 1) == ',')
+				end--;
+
+			// Ensure that three components are included (name, cost, and benefit)
+			int firstComma = indexOf(buffer, (byte) ',', lineStart, end);
+			int secondComma = firstComma < 0 ? -1 : indexOf(buffer, (byte) ',', firstComma + 1, end);
+			if(secondComma < 0 || indexOf(buffer, (byte) ',', secondComma + 1, end) >= 0) {
+				String newline = System.lineSeparator();
+				StringBuilder output = new StringBuilder();
+				output.append("Please ensure each requirement has three comma separated values:" + newline);
+				output.append("RequirementName,IntegerCost,IntegerBenefit" + newline);
+				output.append("Found: " + newline);
+				for(String s : decode(buffer, lineStart, lineEnd - lineStart).split(","))
+					output.append(s);
+				errorOutput = output.toString();
+				throw new ParameterException("");
+			}
+
+			// Ensure that both cost and benefit are valid integer values
+			// NOTE: validateParameters() reports the initial value of 0 in these messages, which is kept as is
+			long cost = parseInt(buffer, firstComma + 1, secondComma);
+			if(cost == INVALID)
+				throw new ParameterException("Cost parameter should be a numeric value (found \"0\").");
+
+			long benefit = parseInt(buffer, secondComma + 1, end);
+			if(benefit == INVALID)
+				throw new ParameterException("Benefit parameter should be a numeric value (found \"0\").");
+
+			// Ensure that both cost and benefit are non-negative
+			if(cost < 0)
+				throw new ParameterException("Cost parameter should be non-negative (found \"" + cost +"\").");
+			if(benefit < 0)
+				throw new ParameterException("Benefit parameter should be non-negative (found \"" + benefit +"\").");
+
+			// Only create this requirement if it generates a profit (an empty name is left to fail when added, as in Requirement)
+			int nameLength = firstComma - lineStart;
+			char symbol = nameLength == 0 ? 0 : (char) (buffer.get(lineStart) & 0xFF);
+			if(keepAll || nameLength == 0 || Requirement.perceivedProfit(symbol, (int) (benefit - cost)) > 0) {
+				if(mappedNames == null)
+					requirements.add(decode(buffer, lineStart, nameLength), (int) cost, (int) benefit);
+				else
+					requirements.add(start + lineStart, nameLength, symbol, (int) cost, (int) benefit);
+			}
+
+			// Increment the total number of requirements (regardless of profit-generating ability)
+			numParsed++;
+		}
+
+		/** Decode a range of bytes into a String, using a reusable buffer for the bytes
+		 *
+		 * @param buffer The mapped bytes
+		 * @param from The position of the first byte
+		 * @param length The number of bytes
+		 * @return The decoded String
+		 */
+		private String decode(ByteBuffer buffer, int from, int length) {
+			if(nameBuffer.length < length)
+				nameBuffer = new byte[Math.max(length, 2 * nameBuffer.length)];
+			buffer.get(from, nameBuffer, 0, length);
+			return new String(nameBuffer, 0, length, charset);
+		}
+	}
+
+	/** Parse a range of bytes as a decimal integer, following the rules of Integer.parseInt(): an optional
+	 * sign followed by at least one digit, within the range of an int
+	 *
+	 * @param buffer The mapped bytes
+	 * @param from The position of the first byte
+	 * @param to The position after the last byte
+	 * @return The value of the integer, or INVALID if the bytes do not form a valid integer
+	 */
+	private static long parseInt(ByteBuffer buffer, int from, int to) {
+		int position = from;
+		boolean negative = false;
+		if(position < to && (buffer.get(position) == '-' || buffer.get(position) == '+')) {
+			negative = buffer.get(position) == '-';
+			position++;
+		}
+		if(position == to)
+			return INVALID;
+
+		long limit = negative ? -(long) Integer.MIN_VALUE : Integer.MAX_VALUE;
+		long value = 0;
+		for(; position < to; position++) {
+			int digit = buffer.get(position) - '0';
+			if(digit < 0 || digit > 9)
+				return INVALID;
+			value = value * 10 + digit;
+			if(value > limit)
+				return INVALID;
+		}
+		return negative ? -value : value;
+	}
+
+	/** Return the position after the line terminator ("\n", "\r\n" or "\r") ending the line at a position
+	 *
+	 * @param buffer The mapped bytes
+	 * @param position A position within the line
+	 * @param to The position after the last byte of the range
+	 * @return The position of the next line
+	 */
+	private static int skipLine(ByteBuffer buffer, int position, int to) {
+		while(position < to && buffer.get(position) != '\n' && buffer.get(position) != '\r')
+			position++;
+		if(position < to && buffer.get(position) == '\r') {
+			position++;
+			if(position < to && buffer.get(position) == '\n')
+				position++;
+		}
+		else if(position < to && buffer.get(position) == '\n')
+			position++;
+		return position;
+	}
+
+	/** Return the position of the first occurrence of a byte within a range, or -1 if it does not occur
+	 */
+	private static int indexOf(ByteBuffer buffer, byte b, int from, int to) {
+		for(int i = from; i < to; i++) {
+			if(buffer.get(i) == b)
+				return i;
+		}
+		return -1;
+	}
+
+	/** Find the position after the last non-whitespace byte of the file, reading back from its end
+	 *
+	 * @param channel The open file
+	 * @param size The size of the file
+	 * @return The position after the last non-whitespace byte (0 if the file only contains whitespace)
+	 * @throws IOException if the file cannot be read
+	 */
+	private static long findContentEnd(FileChannel channel, long size) throws IOException {
+		ByteBuffer block = ByteBuffer.allocate(4096);
+		long end = size;
+		while(end > 0) {
+			long start = Math.max(0, end - block.capacity());
+			int length = readBlock(channel, block, start, end);
+			for(int i = length - 1; i >= 0; i--) {
+				if(!Character.isWhitespace(block.get(i)))
+					return start + i + 1;
+			}
+			end = start;
+		}
+		return 0;
+	}
+
+	/** Find the position of the first line terminator ('\n' or '\r') of the file within a range
+	 *
+	 * @param channel The open file
+	 * @param from The first position searched
+	 * @param to The position after the last position searched
+	 * @return The position of the line terminator, or to if there is none
+	 * @throws IOException if the file cannot be read
+	 */
+	private static long findLineEnd(FileChannel channel, long from, long to) throws IOException {
+		ByteBuffer block = ByteBuffer.allocate(4096);
+		for(long start = from; start < to; start += block.capacity()) {
+			int length = readBlock(channel, block, start, Math.min(to, start + block.capacity()));
+			for(int i = 0; i < length; i++) {
+				if(block.get(i) == '\n' || block.get(i) == '\r')
+					return start + i;
+			}
+		}
+		return to;
+	}
+
+	/** Find the position of the first occurrence of a byte of the file within a range
+	 *
+	 * @param channel The open file
+	 * @param b The byte searched
+	 * @param from The first position searched
+	 * @param to The position after the last position searched
+	 * @return The position of the byte, or -1 if it does not occur
+	 * @throws IOException if the file cannot be read
+	 */
+	private static long indexOf(FileChannel channel, byte b, long from, long to) throws IOException {
+		ByteBuffer block = ByteBuffer.allocate(4096);
+		for(long start = from; start < to; start += block.capacity()) {
+			int length = readBlock(channel, block, start, Math.min(to, start + block.capacity()));
+			for(int i = 0; i < length; i++) {
+				if(block.get(i) == b)
+					return start + i;
+			}
+		}
+		return -1;
+	}
+
+	/** Read a single byte of the file
+	 *
+	 * @param channel The open file
+	 * @param position The position of the byte
+	 * @return The byte at the given position
+	 * @throws IOException if the file cannot be read
+	 */
+	private static byte readByte(FileChannel channel, long position) throws IOException {
+		ByteBuffer block = ByteBuffer.allocate(1);
+		readBlock(channel, block, position, position + 1);
+		return block.get(0);
+	}
+
+	/** Read a range of the file (at most the capacity of the buffer) into the start of a buffer
+	 *
+	 * @param channel The open file
+	 * @param block The buffer the bytes are read into
+	 * @param from The position of the first byte
+	 * @param to The position after the last byte
+	 * @return The number of bytes read
+	 * @throws IOException if the file cannot be read
+	 */
+	private static int readBlock(FileChannel channel, ByteBuffer block, long from, long to) throws IOException {
+		block.clear();
+		block.limit((int) (to - from));
+		while(block.hasRemaining() && channel.read(block, from + block.position()) >= 0);
+		return block.position();
+	}
+
+	/** Choose whether requirements that do not generate a profit are returned by parse() as well, e.g. to
+	 * convert the input file to another format
+	 *
+	 * @param keepAll true to return every valid requirement; false to return only profit generating ones
+	 */
+	public void setKeepAll(boolean keepAll) {
+		this.keepAll = keepAll;
+	}
+
+	/** Choose whether the names of the requirements returned by parse() are decoded while parsing, or
+	 * only once they are requested (see RequirementSet.getName()).  Lazy names keep the file mapped for as
+	 * long as the requirements are in use, so the file should not be changed in the meantime.
+	 *
+	 * @param lazyNames true to decode names only when requested; false to decode them while parsing
+	 */
+	public void setLazyNames(boolean lazyNames) {
+		this.lazyNames = lazyNames;
+	}
+
+	/** Return the total number of requirements parsed by the last call to parse() (regardless of profit)
+	 *
+	 * @return total number of requirements parsed
+	 */
+	public int getTotalNumRequirements() {
+		return totalNumRequirements;
+	}
+}
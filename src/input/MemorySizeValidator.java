@@ -0,0 +1,52 @@
+package input;
+
+import com.beust.jcommander.IParameterValidator;
+import com.beust.jcommander.ParameterException;
+
+/** Simple validator class to work alongside JCommander tool and JCommanderInput class.
+ * Will ensure that a given value is a positive amount of memory, given in bytes or with a
+ * k, m or g suffix (as for the -Xmx option of the JVM), e.g. "512m".
+ *
+ * @author Michael Camara
+ *
+ */
+public class MemorySizeValidator implements IParameterValidator {
+
+	/** Ensures that the given value is a positive amount of memory
+	 * @param name Name of the object being tested
+	 * @param value Value of the object being tested
+	 */
+	public void validate(String name, String value) throws ParameterException {
+		if(parse(value) <= 0) {
+			throw new ParameterException("Parameter " + name + " should be a positive amount of memory, e.g. 512m or 2g (found \"" + value + "\").");
+		}
+	}
+
+	/** Convert an amount of memory into a number of bytes
+	 *
+	 * @param value The amount of memory, in bytes or with a k, m or g suffix
+	 * @return The number of bytes, or -1 if the value is not a valid amount of memory
+	 */
+	public static long parse(String value) {
+		String digits = value.trim().toLowerCase();
+		long multiplier = 1;
+		if(digits.endsWith("k"))
+			multiplier = 1L << 10;
+		else if(digits.endsWith("m"))
+			multiplier = 1L << 20;
+		else if(digits.endsWith("g"))
+			multiplier = 1L << 30;
+		if(multiplier > 1)
+			digits = digits.substring(0, digits.length() - 1);
+
+		try {
+			long amount = Long.parseLong(digits);
+			if(amount < 0 || amount > Long.MAX_VALUE / multiplier)
+				return -1;
+			return amount * multiplier;
+		}
+		catch(NumberFormatException e) {
+			return -1;
+		}
+	}
+}
@@ -1,34 +1,45 @@
 package output;
 
+import input.BinaryRequirementFile;
 import input.JCommanderInput;
 import solver.Requirement;
+import solver.RequirementSet;
 
+import java.io.BufferedWriter;
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 
-import util.Timer;
+import solver.BudgetSweep;
+
 
 /** The Output class takes a list of Requirements and then handles how they are displayed to the user.
- * By default they are displayed in both the console and sent an output file ("output.csv").
+ * By default they are displayed in both the console and sent an output file ("output.csv"), which can
+ * also be written as JSON or in the binary format of BinaryRequirementFile for other tools to read.
  * 
  * @author Michael Camara
  *
  */
 public class Output {
 
-	private ArrayList<Requirement> originalReqs;  // The initial list of requirements from JCommanderInput
+	// The size in characters of the buffers for the console and the output file
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	private RequirementSet originalReqs;		  // The initial set of requirements from JCommanderInput
 	private int fixedCost;						  // The fixed cost threshold
 	private JCommanderInput input;				  // The object handling input
 	
 	/** Initialize the original requirements list, the fixed cost, and the JCommanderInput object
 	 * 
-	 * @param originalReqs The list of requirements parsed by JCommanderInput
+	 * @param originalReqs The set of requirements parsed by JCommanderInput
 	 * @param fixedCost The fixed cost threshold
 	 * @param input The JCommanderInput object handling user input
 	 */
-	public Output(ArrayList<Requirement> originalReqs, int fixedCost, JCommanderInput input) {
+	public Output(RequirementSet originalReqs, int fixedCost, JCommanderInput input) {
 		this.originalReqs = originalReqs;
 		this.fixedCost = fixedCost;
 		this.input = input;
@@ -36,40 +47,79 @@ public class Output {
 	
 	/** This method will display selected output based on options entered by the user and parsed via
 	 * JCommanderInput.  By default, all chosen requirements will be shown on the console and printed
-	 * to an output file, "output.csv" unless otherwise stated.
+	 * to an output file, "output.csv" unless otherwise stated.  In quiet mode, only a summary is shown
+	 * on the console.  The output file is written in the format chosen by the user (see writeCsv(),
+	 * writeJson() and BinaryRequirementFile.write()).
+	 * 
+	 * Both the console and the output file are written through large buffers, so that selections of
+	 * many requirements are not slowed down by writing each line separately.
 	 * 
 	 * @param chosenReqs The chosen list of profit-maximizing requirements
 	 * @param chosenAlgorithm The algorithm that was selected to find chosenReqs
+	 * @param guarantee A description of how close the chosen profit is guaranteed to be to the maximum
 	 * @throws IOException if unable to create output file ("output.csv" by default)
 	 */
-	public void output(ArrayList<Requirement> chosenReqs, String chosenAlgorithm) throws IOException {
-		
-		// Create FileWriter for output file and create same header as input file
-		File outputFile = input.getOutputFile();
-		FileWriter writer = new FileWriter(outputFile);
-		String header = "Requirement,Cost,Benefit";
-		writer.write(header);
+	public void output(ArrayList<Requirement> chosenReqs, String chosenAlgorithm, String guarantee) throws IOException {
+		output(chosenReqs, chosenAlgorithm, guarantee, new ArrayList<String>());
+	}
+	
+	/** Display the chosen requirements as output() does, and in verbose mode also show the plan that led
+	 * to the chosen algorithm (see AlgorithmPlanner)
+	 * 
+	 * @param chosenReqs The chosen list of profit-maximizing requirements
+	 * @param chosenAlgorithm The algorithm that was selected to find chosenReqs
+	 * @param guarantee A description of how close the chosen profit is guaranteed to be to the maximum
+	 * @param plan The reasoning behind the chosen algorithm, one line per step
+	 * @throws IOException if unable to create output file ("output.csv" by default)
+	 */
+	public void output(ArrayList<Requirement> chosenReqs, String chosenAlgorithm, String guarantee, ArrayList<String> plan) throws IOException {
 		
-		// Print all chosen requirements to console and to output file
-		int totalPerceivedProfit = 0, totalActualProfit = 0, totalCost = 0, totalBenefit = 0;
-		for(int i = 0; i < chosenReqs.size(); i++) {
-			Requirement r = chosenReqs.get(i);
-			
+		// Tally the totals of all chosen requirements
+		long totalPerceivedProfit = 0, totalActualProfit = 0, totalCost = 0, totalBenefit = 0;
+		for(Requirement r : chosenReqs) {
 			totalPerceivedProfit += r.getPerceivedProfit();
 			totalActualProfit += r.getActualProfit();
 			totalCost += r.getCost();
 			totalBenefit += r.getBenefit();
-			
-			// Print requirement to console
-			System.out.println(r);
+		}
 		
-			// Print requirement to output file
-			writer.write(System.lineSeparator() + r);
+		// Print all chosen requirements to console, or only a summary in quiet mode
+		// NOTE: System.out is flushed but not closed, as later messages still use it
+		if(input.isQuiet()) {
+			System.out.println("Chose " + chosenReqs.size() + " requirements, total cost = $" + totalCost
+					+ ", total perceived profit = $" + totalPerceivedProfit);
+		}
+		else {
+			BufferedWriter console = new BufferedWriter(new OutputStreamWriter(System.out), BUFFER_SIZE);
+			for(Requirement r : chosenReqs) {
+				console.write(r.toString());
+				console.newLine();
+			}
+			console.flush();
+		}
+		
+		// Print all chosen requirements to output file
+		File outputFile = input.getOutputFile();
+		switch(input.getFormat()) {
+		case "json":
+			writeJson(chosenReqs, outputFile, chosenAlgorithm, guarantee, totalCost, totalBenefit, totalActualProfit, totalPerceivedProfit);
+			break;
+		case "binary":
+			BinaryRequirementFile.write(new RequirementSet(chosenReqs), outputFile);
+			break;
+		default:
+			writeCsv(chosenReqs, outputFile);
 		}
 		
 		// Output overall statistics if verbose mode has been selected at startup
 		if(input.isVerbose()) {
 			System.out.println("\nAlgorithm chosen: " + chosenAlgorithm);
+			System.out.println("Guaranteed profit: " + guarantee);
+			if(!plan.isEmpty()) {
+				System.out.println("\nAlgorithm plan:");
+				for(String step : plan)
+					System.out.println("  " + step);
+			}
 			System.out.println("\nNumber of original requirements: " + input.getTotalNumRequirements());
 			System.out.println("Number of profit generating requirements: " + originalReqs.size());
 			System.out.println("Number of non profit generating requirements: " + (input.getTotalNumRequirements() - originalReqs.size()));
@@ -81,12 +131,137 @@ public class Output {
 			System.out.println("Total actual profit of chosen requirements = $" + totalActualProfit);
 			System.out.println("Total perceived profit of chosen requirements = $" + totalPerceivedProfit);
 		}
+	}
+	
+	/** Write the chosen requirements to a .csv file, with the same header and line format as the input file
+	 * 
+	 * @param chosenReqs The chosen list of profit-maximizing requirements
+	 * @param outputFile The file to create
+	 * @throws IOException if unable to create the output file
+	 */
+	private void writeCsv(ArrayList<Requirement> chosenReqs, File outputFile) throws IOException {
+		BufferedWriter writer = new BufferedWriter(new FileWriter(outputFile), BUFFER_SIZE);
+		try {
+			writer.write("Requirement,Cost,Benefit");
+			for(Requirement r : chosenReqs) {
+				writer.write(System.lineSeparator());
+				writer.write(r.toString());
+			}
+		} finally {
+			writer.close();
+		}
+	}
+	
+	/** Write the chosen requirements to a JSON file, as an object holding the algorithm, the fixed cost and
+	 * the totals of the selection, and an array with the name, cost and benefit of every chosen requirement
+	 * 
+	 * @param chosenReqs The chosen list of profit-maximizing requirements
+	 * @param outputFile The file to create
+	 * @param chosenAlgorithm The algorithm that was selected to find chosenReqs
+	 * @param guarantee A description of how close the chosen profit is guaranteed to be to the maximum
+	 * @param totalCost The total cost of the chosen requirements
+	 * @param totalBenefit The total benefit of the chosen requirements
+	 * @param totalActualProfit The total actual profit of the chosen requirements
+	 * @param totalPerceivedProfit The total perceived profit of the chosen requirements
+	 * @throws IOException if unable to create the output file
+	 */
+	private void writeJson(ArrayList<Requirement> chosenReqs, File outputFile, String chosenAlgorithm, String guarantee,
+			long totalCost, long totalBenefit, long totalActualProfit, long totalPerceivedProfit) throws IOException {
+		
+		String newline = System.lineSeparator();
+		BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(outputFile), StandardCharsets.UTF_8), BUFFER_SIZE);
+		try {
+			writer.write("{" + newline);
+			writer.write("  \"algorithm\": " + jsonString(chosenAlgorithm) + "," + newline);
+			writer.write("  \"guarantee\": " + jsonString(guarantee) + "," + newline);
+			writer.write("  \"fixedCost\": " + fixedCost + "," + newline);
+			writer.write("  \"totalCost\": " + totalCost + "," + newline);
+			writer.write("  \"totalBenefit\": " + totalBenefit + "," + newline);
+			writer.write("  \"totalActualProfit\": " + totalActualProfit + "," + newline);
+			writer.write("  \"totalPerceivedProfit\": " + totalPerceivedProfit + "," + newline);
+			writer.write("  \"requirements\": [");
 			
-		// Print performance times if timer mode has been selected at startup
-		if(input.getTimerInfo()) {
-			Timer.printTimes();
+			for(int i = 0; i < chosenReqs.size(); i++) {
+				Requirement r = chosenReqs.get(i);
+				writer.write((i == 0 ? "" : ",") + newline);
+				writer.write("    {\"name\": " + jsonString(r.getName()) + ", \"cost\": " + r.getCost() + ", \"benefit\": " + r.getBenefit() + "}");
+			}
+			
+			writer.write((chosenReqs.isEmpty() ? "" : newline + "  ") + "]" + newline);
+			writer.write("}" + newline);
+		} finally {
+			writer.close();
+		}
+	}
+	
+	/** Quote a String as a JSON string, escaping quotes, backslashes and control characters.  Also used
+	 * for the JSON export of Metrics.
+	 * 
+	 * @param s The String to quote
+	 * @return The quoted and escaped String
+	 */
+	public static String jsonString(String s) {
+		StringBuilder quoted = new StringBuilder(s.length() + 2);
+		quoted.append('"');
+		for(int i = 0; i < s.length(); i++) {
+			char c = s.charAt(i);
+			if(c == '"' || c == '\\')
+				quoted.append('\\').append(c);
+			else if(c < 0x20)
+				quoted.append(String.format("\\u%04x", (int) c));
+			else
+				quoted.append(c);
+		}
+		return quoted.append('"').toString();
+	}
+
+	/** This method displays the results of sweep mode.  The budget/profit curve is written to the sweep
+	 * file as one line per breakpoint (every budget at which the maximum profit increases, which fully
+	 * describes the curve).  The chosen requirements of every budget requested by the user are then
+	 * rebuilt and written to the output file, preceded by the budget they belong to, and a summary of
+	 * each budget is shown on the console.
+	 * 
+	 * @param sweep The budget sweep holding the maximum profit of every budget up to the fixed cost
+	 * @throws IOException if unable to create the sweep file or the output file
+	 */
+	public void outputSweep(BudgetSweep sweep) throws IOException {
+		
+		// Write every breakpoint of the budget/profit curve to the sweep file
+		ArrayList<Integer> breakpoints = sweep.getBreakpoints();
+		BufferedWriter curveWriter = new BufferedWriter(new FileWriter(input.getSweepFile()));
+		curveWriter.write("Budget,Profit");
+		for(int budget : breakpoints) {
+			curveWriter.write(System.lineSeparator() + budget + "," + sweep.getMaxProfit(budget));
 		}
+		curveWriter.close();
+		
+		System.out.println("Budget/profit curve with " + breakpoints.size() + " breakpoints written to " + input.getSweepFile() + "\n");
+		
+		// Write the chosen requirements of each requested budget to the output file
+		BufferedWriter writer = new BufferedWriter(new FileWriter(input.getOutputFile()));
+		writer.write("Budget,Requirement,Cost,Benefit");
 		
+		for(int budget : input.getBudgets()) {
+			ArrayList<Requirement> chosenReqs = sweep.getChosenRequirements(budget);
+			
+			long totalCost = 0;
+			for(Requirement r : chosenReqs) {
+				totalCost += r.getCost();
+				writer.write(System.lineSeparator() + budget + "," + r);
+			}
+			
+			System.out.println("Budget = $" + budget + ": " + chosenReqs.size() + " requirements, total cost = $" + totalCost
+					+ ", total perceived profit = $" + sweep.getMaxProfit(budget));
+		}
 		writer.close();
+		
+		// Output overall statistics if verbose mode has been selected at startup
+		if(input.isVerbose()) {
+			System.out.println("\nAlgorithm chosen: Budget Sweep");
+			System.out.println("Guaranteed profit: Maximum profit");
+			System.out.println("\nNumber of original requirements: " + input.getTotalNumRequirements());
+			System.out.println("Number of profit generating requirements: " + originalReqs.size());
+			System.out.println("\nFixed cost = $" + fixedCost);
+		}
 	}
 }
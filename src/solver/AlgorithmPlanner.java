@@ -0,0 +1,451 @@
+package solver;
+
+import java.io.File;
+import java.util.ArrayList;
+
+import com.beust.jcommander.ParameterException;
+
+/** The AlgorithmPlanner decides which algorithm the Optimizer runs, before any memory is allocated.  It
+ * estimates the run time (as a number of table cell updates) and the memory of every algorithm from the
+ * size of the instance: the number of requirements n, the fixed cost k (in units of the cost divisor), and
+ * the total perceived profit P of all requirements.  It then chooses:
+ *
+ *   1. the algorithm requested by the user, if its estimate fits in the memory budget;
+ *   2. otherwise the fastest exact algorithm that fits (profit, full, bitset, parallel, disk-backed or
+ *      linear dynamic; the disk-backed table also has to fit on the disk);
+ *   3. otherwise the approximation algorithm with the smallest error bound that fits;
+ *   4. otherwise the greedy algorithm, which only needs O(n) memory.
+ *
+ * The full dynamic table is sized for the total perceived profit (see DynamicAlgorithm), while the other
+ * exact dynamic algorithms keep int profits, so they are passed over when P does not fit in an int.
+ *
+ * If the user asked for an approximate result (epsilon > 0), only the approximation algorithm with that
+ * error bound or a larger one is considered before the greedy algorithm.  The branch-and-bound, core and
+ * Pareto algorithms depend too much on the instance to be estimated in advance, so they are only used when
+ * requested, and are always run as requested.
+ *
+ * The memory budget is either given by the user (see setMaxMemory()) or taken from the free heap of the
+ * JVM, keeping the same reserve of 2% of the maximum heap that Optimizer used to keep.  Each step of the
+ * decision is recorded, so that the plan can be shown in verbose mode (see getReasoning()).
+ *
+ * @author Michael Camara
+ *
+ */
+public class AlgorithmPlanner {
+
+	// The number of table cell updates assumed per second, only used to present the estimates
+	private static final double CELLS_PER_SECOND = 1e9;
+
+	// The time of writing one byte to disk, in table cell updates (i.e. a disk writing 500 MB per second)
+	private static final double CELLS_PER_DISK_BYTE = CELLS_PER_SECOND / 500e6;
+
+	// The share of the maximum heap that is always kept free
+	private static final double HEAP_RESERVE = 0.02;
+
+	// The error bounds the approximation algorithm is tried with when no exact algorithm fits
+	private static final double[] EPSILONS = {0.01, 0.05, 0.1, 0.25, 0.5};
+
+	// The exact dynamic algorithms whose time and memory can be estimated in advance
+	private static final String[] EXACT_ALGORITHMS = {"profit", "dynamic", "bitset", "parallel", "disk", "linear"};
+
+	private int numReqs;				// The number of requirements n
+	private int capacity;				// The fixed cost in units of the cost divisor k
+	private long totalProfit;			// The total perceived profit of all requirements P
+	private int threads;				// The number of threads the parallel algorithms may use
+	private long maxMemory;				// The memory budget requested by the user (0 uses the free heap)
+	private File tableDirectory;		// The directory of the disk-backed table (null for the temporary directory)
+
+	private double epsilon;				// The error bound of the chosen approximation (0 if exact)
+	private ArrayList<String> reasoning = new ArrayList<String>();	// The steps of the last plan
+
+	/** Initialize the planner with the size of the instance
+	 *
+	 * @param numReqs The number of requirements
+	 * @param capacity The fixed cost, divided by the common divisor of all costs
+	 * @param totalProfit The total perceived profit of all requirements
+	 * @param threads The number of threads the parallel algorithms may use
+	 */
+	public AlgorithmPlanner(int numReqs, int capacity, long totalProfit, int threads) {
+		this.numReqs = numReqs;
+		this.capacity = capacity;
+		this.totalProfit = totalProfit;
+		this.threads = threads;
+	}
+
+	/** Choose the algorithm to run (see the class description for the order in which they are considered)
+	 *
+	 * @param requested The algorithm requested by the user (see AlgorithmValidator; "auto" lets the planner decide)
+	 * @param requestedEpsilon The error bound requested by the user (0 requires an exact result)
+	 * @return The name of the chosen algorithm, as in AlgorithmValidator, or "approximation"
+	 */
+	public String plan(String requested, double requestedEpsilon) {
+		reasoning.clear();
+		epsilon = 0;
+
+		reasoning.add("Instance: n = " + numReqs + ", k = " + capacity + ", P = " + totalProfit + ", threads = " + threads);
+		double budget = getMemoryBudget();
+
+		// The greedy algorithm always fits, and the user has asked for it
+		if(requested.equals("greedy")) {
+			reasoning.add("Greedy: requested");
+			return "greedy";
+		}
+
+		// Approximate results were requested, so only try error bounds at least as large as requested
+		if(requestedEpsilon > 0)
+			return planApproximation(requestedEpsilon, budget);
+
+		// Algorithms that cannot be estimated in advance are run as requested
+		if(requested.equals("branch") || requested.equals("core") || requested.equals("pareto")) {
+			reasoning.add(getName(requested) + ": requested (time and memory depend on the instance)");
+			return requested;
+		}
+
+		// Use the requested exact algorithm if it fits
+		if(!requested.equals("auto")) {
+			if(fits(requested, budget)) {
+				reasoning.add(describe(requested, 0) + " - requested, fits");
+				return requested;
+			}
+			if(!isApplicable(requested))
+				reasoning.add(describe(requested, 0) + " - requested, cannot hold the total profit; planning automatically");
+			else
+				reasoning.add(describe(requested, 0) + " - requested, does not fit; planning automatically");
+		}
+
+		// Otherwise use the fastest exact algorithm that fits (the parallel one only with several threads)
+		ArrayList<String> candidates = new ArrayList<String>();
+		for(String algorithm : EXACT_ALGORITHMS) {
+			if(!isApplicable(algorithm))
+				reasoning.add(getName(algorithm) + ": cannot hold the total profit");
+			else if(threads > 1 || !algorithm.equals("parallel"))
+				candidates.add(algorithm);
+		}
+		candidates.sort((a1, a2) -> Double.compare(expectedTime(a1, 0), expectedTime(a2, 0)));
+
+		for(String algorithm : candidates) {
+			if(fits(algorithm, budget)) {
+				reasoning.add(describe(algorithm, 0) + " - chosen, fastest exact algorithm that fits");
+				return algorithm;
+			}
+			reasoning.add(describe(algorithm, 0) + " - does not fit");
+		}
+
+		// Then degrade to approximate results before the greedy algorithm
+		return planApproximation(EPSILONS[0], budget);
+	}
+
+	/** Check that a single algorithm can solve this instance within the memory budget, for the modes that
+	 * run it without a plan and cannot fall back to another algorithm (see BudgetSweep)
+	 *
+	 * @param algorithm The name of the algorithm, as in AlgorithmValidator
+	 * @throws ParameterException if the algorithm cannot hold the total profit, or does not fit in the memory budget
+	 */
+	public void require(String algorithm) {
+		reasoning.clear();
+		requireProfitBound(algorithm, totalProfit);
+
+		double budget = getMemoryBudget();
+		if(!fits(algorithm, budget))
+			throw new ParameterException(describe(algorithm, 0) + " - does not fit in the memory budget of " + formatBytes(budget)
+					+ " (see --max-memory).");
+	}
+
+	/** Determine whether an algorithm that is not planned fits in the memory budget (see Menu.watch())
+	 *
+	 * @param bytes The number of bytes the algorithm is expected to allocate
+	 * @return true if the bytes fit in the memory budget; false otherwise
+	 */
+	public boolean fitsMemory(double bytes) {
+		reasoning.clear();
+		return bytes <= getMemoryBudget();
+	}
+
+	/** Choose the approximation algorithm with the smallest error bound (at least the given one) that fits,
+	 * or the greedy algorithm if none fits
+	 *
+	 * @param minEpsilon The smallest error bound to try
+	 * @param budget The memory budget in bytes
+	 * @return "approximation" or "greedy"
+	 */
+	private String planApproximation(double minEpsilon, double budget) {
+		ArrayList<Double> epsilons = new ArrayList<Double>();
+		epsilons.add(minEpsilon);
+		for(double e : EPSILONS) {
+			if(e > minEpsilon)
+				epsilons.add(e);
+		}
+
+		for(double e : epsilons) {
+			if(expectedMemory("approximation", e) <= budget) {
+				epsilon = e;
+				reasoning.add(describe("approximation", e) + " - chosen, smallest error bound that fits");
+				return "approximation";
+			}
+			reasoning.add(describe("approximation", e) + " - does not fit");
+		}
+
+		reasoning.add(describe("greedy", 0) + " - chosen, no other algorithm fits");
+		return "greedy";
+	}
+
+	/** Check that the values of an algorithm can hold a total profit.  Every path that runs an algorithm with
+	 * int profits without a plan (e.g. Optimizer.useBitsetDynamic() or BudgetSweep) goes through this check.
+	 *
+	 * @param algorithm The name of the algorithm, as in AlgorithmValidator
+	 * @param totalProfit The total perceived profit of all requirements
+	 * @throws ParameterException if the int profits of the algorithm could overflow
+	 */
+	public static void requireProfitBound(String algorithm, long totalProfit) {
+		if(!isApplicable(algorithm, totalProfit))
+			throw new ParameterException(getName(algorithm) + " algorithm cannot hold a total perceived profit of " + totalProfit
+					+ " (at most " + Integer.MAX_VALUE + ").");
+	}
+
+	/** Determine whether an algorithm can solve this instance at all
+	 *
+	 * @param algorithm The name of the algorithm
+	 * @return false if the profit table cannot be indexed, or if the int profits of the algorithm could
+	 * overflow; true otherwise
+	 */
+	private boolean isApplicable(String algorithm) {
+		return isApplicable(algorithm, totalProfit);
+	}
+
+	/** Determine whether an algorithm can hold a total profit
+	 *
+	 * @param algorithm The name of the algorithm
+	 * @param totalProfit The total perceived profit of all requirements
+	 * @return false if the profit table cannot be indexed, or if the int profits of the algorithm could
+	 * overflow; true otherwise
+	 */
+	private static boolean isApplicable(String algorithm, long totalProfit) {
+		switch(algorithm) {
+		case "profit":
+			return totalProfit < Integer.MAX_VALUE;
+		case "bitset":
+		case "parallel":
+		case "disk":
+		case "linear":
+			return totalProfit <= Integer.MAX_VALUE;
+		default:
+			return true;
+		}
+	}
+
+	/** Determine whether the expected memory of an exact algorithm fits in the budget
+	 *
+	 * @param algorithm The name of the algorithm
+	 * @param budget The memory budget in bytes
+	 * @return true if the algorithm can be used and fits; false otherwise
+	 */
+	private boolean fits(String algorithm, double budget) {
+		if(algorithm.equals("disk") && DiskDynamicAlgorithm.expectedDiskSpace(numReqs, capacity) > getTableDirectory().getUsableSpace())
+			return false;
+		return isApplicable(algorithm) && expectedMemory(algorithm, 0) <= budget;
+	}
+
+	/** Estimate the number of table cell updates an algorithm performs, weighted by their relative cost
+	 *
+	 * @param algorithm The name of the algorithm
+	 * @param epsilon The error bound of the approximation algorithm
+	 * @return The estimated number of cell updates
+	 */
+	double expectedTime(String algorithm, double epsilon) {
+		double n = numReqs, k = capacity + 1.0;
+		switch(algorithm) {
+		case "dynamic":
+			return n * k;
+		case "bitset":
+			return 1.25 * n * k;
+		case "parallel":
+			return 1.25 * n * k / threads;
+		case "disk":
+			return 1.25 * n * k + CELLS_PER_DISK_BYTE * DiskDynamicAlgorithm.expectedDiskSpace(numReqs, capacity);
+		case "profit":
+			return 1.25 * n * (totalProfit + 1.0);
+		case "linear":
+			return 2.0 * n * k;
+		case "approximation":
+			return 1.25 * n * (2.0 * n / epsilon + 1);
+		default:
+			return n * Math.max(1, Math.log(n) / Math.log(2));
+		}
+	}
+
+	/** Estimate the number of bytes an algorithm allocates, including the copies of the costs and profits
+	 *
+	 * @param algorithm The name of the algorithm
+	 * @param epsilon The error bound of the approximation algorithm
+	 * @return The estimated number of bytes
+	 */
+	double expectedMemory(String algorithm, double epsilon) {
+		double arrays = 9.0 * numReqs;
+		switch(algorithm) {
+		case "dynamic":
+			return arrays + DynamicAlgorithm.expectedMemory(numReqs, capacity, totalProfit);
+		case "bitset":
+			return arrays + BitsetDynamicAlgorithm.expectedMemory(numReqs, capacity);
+		case "parallel":
+			return arrays + ParallelDynamicAlgorithm.expectedMemory(numReqs, capacity);
+		case "disk":
+			return arrays + DiskDynamicAlgorithm.expectedMemory(capacity);
+		case "profit":
+			return arrays + ProfitDynamicAlgorithm.expectedMemory(numReqs, totalProfit);
+		case "linear":
+			return arrays + 12.0 * (capacity + 1.0);
+		case "approximation":
+			return 2 * arrays + ApproximationAlgorithm.expectedMemory(numReqs, epsilon);
+		default:
+			return 2 * arrays;
+		}
+	}
+
+	/** Describe the estimates of an algorithm, e.g. "Bitset Dynamic: ~1.2 s, 35.0 MB"
+	 *
+	 * @param algorithm The name of the algorithm
+	 * @param epsilon The error bound of the approximation algorithm
+	 * @return The description of the estimates
+	 */
+	private String describe(String algorithm, double epsilon) {
+		String name = getName(algorithm) + (epsilon > 0 ? " (epsilon = " + epsilon + ")" : "");
+		if(algorithm.equals("dynamic"))
+			name += " (" + getValueType() + " values)";
+		String description = name + ": ~" + formatTime(expectedTime(algorithm, epsilon)) + ", " + formatBytes(expectedMemory(algorithm, epsilon));
+		if(algorithm.equals("disk")) {
+			description += " + " + formatBytes(DiskDynamicAlgorithm.expectedDiskSpace(numReqs, capacity)) + " on disk ("
+					+ formatBytes(getTableDirectory().getUsableSpace()) + " free in " + getTableDirectory() + ")";
+		}
+		return description;
+	}
+
+	/** Return the type of the values of the full dynamic table, which depends on the total profit
+	 *
+	 * @return "short", "int" or "long"
+	 */
+	private String getValueType() {
+		switch(DynamicAlgorithm.valueBytes(totalProfit)) {
+		case 2:
+			return "short";
+		case 4:
+			return "int";
+		default:
+			return "long";
+		}
+	}
+
+	/** Return the directory the disk-backed table is written to
+	 *
+	 * @return The directory chosen through setTableDirectory(), or the default temporary directory
+	 */
+	private File getTableDirectory() {
+		if(tableDirectory == null)
+			return new File(System.getProperty("java.io.tmpdir"));
+		return tableDirectory;
+	}
+
+	/** Determine the memory available to the algorithm: the budget requested by the user, but never more
+	 * than the free heap of the JVM minus its reserve
+	 *
+	 * @return The memory budget in bytes
+	 */
+	private double getMemoryBudget() {
+		Runtime runtime = Runtime.getRuntime();
+		double maxMem = runtime.maxMemory();
+		double usedMem = runtime.totalMemory() - runtime.freeMemory();
+		double freeMem = Math.max(0, maxMem - usedMem - HEAP_RESERVE * maxMem);
+
+		if(maxMemory > 0 && maxMemory <= freeMem) {
+			reasoning.add("Memory budget: " + formatBytes(maxMemory) + " (--max-memory)");
+			return maxMemory;
+		}
+		if(maxMemory > 0)
+			reasoning.add("Memory budget: " + formatBytes(freeMem) + " (free heap, smaller than --max-memory of " + formatBytes(maxMemory) + ")");
+		else
+			reasoning.add("Memory budget: " + formatBytes(freeMem) + " (free heap)");
+		return freeMem;
+	}
+
+	/** Return the name of an algorithm as reported by Optimizer.getChosenAlgorithm()
+	 *
+	 * @param algorithm The name of the algorithm, as in AlgorithmValidator, or "approximation"
+	 * @return The name shown to the user
+	 */
+	public static String getName(String algorithm) {
+		switch(algorithm) {
+		case "dynamic":
+			return "Dynamic";
+		case "bitset":
+			return "Bitset Dynamic";
+		case "parallel":
+			return "Parallel Dynamic";
+		case "profit":
+			return "Profit Dynamic";
+		case "linear":
+			return "Linear Dynamic";
+		case "disk":
+			return "Disk Dynamic";
+		case "branch":
+			return "Branch and Bound";
+		case "core":
+			return "Core";
+		case "pareto":
+			return "Pareto";
+		case "approximation":
+			return "Approximation";
+		default:
+			return "Greedy";
+		}
+	}
+
+	/** Format a number of bytes, e.g. "35.0 MB"
+	 */
+	private static String formatBytes(double bytes) {
+		String[] units = {"B", "KB", "MB", "GB", "TB"};
+		int unit = 0;
+		while(bytes >= 1024 && unit < units.length - 1) {
+			bytes /= 1024;
+			unit++;
+		}
+		return String.format("%.1f %s", bytes, units[unit]);
+	}
+
+	/** Format a number of cell updates as an estimated number of seconds, e.g. "1.2 s"
+	 */
+	private static String formatTime(double cells) {
+		return String.format("%.3g s", cells / CELLS_PER_SECOND);
+	}
+
+	/** Set the memory budget of the algorithms.  The free heap of the JVM is used if it is smaller.
+	 *
+	 * @param maxMemory The memory budget in bytes (0 uses the free heap)
+	 */
+	public void setMaxMemory(long maxMemory) {
+		this.maxMemory = maxMemory;
+	}
+
+	/** Set the directory the disk-backed table is written to
+	 *
+	 * @param tableDirectory The directory (null for the default temporary directory)
+	 */
+	public void setTableDirectory(File tableDirectory) {
+		this.tableDirectory = tableDirectory;
+	}
+
+	/** Return the error bound the approximation algorithm should use, if the last plan chose it
+	 *
+	 * @return The error bound of the chosen approximation (0 if another algorithm was chosen)
+	 */
+	public double getEpsilon() {
+		return epsilon;
+	}
+
+	/** Return the steps of the last plan: the memory budget, and the estimates of every algorithm that was
+	 * considered with the reason it was chosen or passed over
+	 *
+	 * @return The reasoning of the last plan, one line per step
+	 */
+	public ArrayList<String> getReasoning() {
+		return reasoning;
+	}
+}
@@ -0,0 +1,111 @@
+package solver;
+
+import java.util.Arrays;
+
+/** The ApproximationAlgorithm is a fully polynomial time approximation scheme (FPTAS) for the 0-1 knapsack
+ * problem.  Given some error bound epsilon between 0 and 1, it guarantees a list of requirements whose
+ * profit is at least (1 - epsilon) times the optimal profit, in time and space that depend on the number
+ * of requirements and on epsilon, but not on the fixed cost or on the size of the profits.
+ *
+ * Every perceived profit is divided by a scaling factor K = epsilon * LB / m and rounded down, where LB is
+ * a lower bound on the optimal profit and m is the largest number of requirements that can fit within the
+ * fixed cost together.  The scaled instance is then solved exactly with the ProfitDynamicAlgorithm.
+ * Rounding loses less than K per chosen requirement, so at most m * K = epsilon * LB <= epsilon * OPT in
+ * total.
+ *
+ * The requirements must be given in descending order of profit/cost ratio (see RequirementComparator), so
+ * that the greedy break solution gives both the lower bound LB (the better of the break solution and the
+ * most profitable single requirement) and an upper bound UB = LB + profit of the break requirement, which
+ * is at most 2 * LB.  The scaled table therefore never needs more than about 2m / epsilon profit values.
+ *
+ * @author Michael Camara
+ *
+ */
+public class ApproximationAlgorithm {
+
+	private int[] costs;		// The cost of each requirement, in descending order of profit/cost ratio
+	private int[] profits;		// The perceived profit of each requirement
+	private int fixedCost;		// The fixedCost threshold the chosen requirements cannot cumulatively exceed
+	private double epsilon;		// The maximum relative error of the chosen profit
+
+	/** Initialize the algorithm using the cost and perceived profit of each requirement
+	 *
+	 * @param costs The cost of each requirement, in descending order of profit/cost ratio
+	 * @param profits The perceived profit of each requirement, in the same order as costs
+	 * @param fixedCost The fixed cost threshold
+	 * @param epsilon The maximum relative error of the chosen profit (between 0 and 1)
+	 */
+	public ApproximationAlgorithm(int[] costs, int[] profits, int fixedCost, double epsilon) {
+		this.costs = costs;
+		this.profits = profits;
+		this.fixedCost = fixedCost;
+		this.epsilon = epsilon;
+	}
+
+	/** Estimate the number of bytes used by this algorithm, which is dominated by the decision bits of the
+	 * scaled profit table (about 2n / epsilon profit values per requirement)
+	 *
+	 * @param numReqs The number of requirements
+	 * @param epsilon The maximum relative error of the chosen profit
+	 * @return The expected number of bytes used by the algorithm
+	 */
+	public static double expectedMemory(int numReqs, double epsilon) {
+		return ProfitDynamicAlgorithm.expectedMemory(numReqs, (long) (2.0 * numReqs / epsilon) + 1);
+	}
+
+	/** Determine a list of requirements whose profit is within (1 - epsilon) of the maximum profit while
+	 * staying within the fixed cost.
+	 *
+	 * @return An array indicating for each requirement whether it has been chosen
+	 */
+	public boolean[] solve() {
+		int numReqs = costs.length;
+
+		// Find the break solution and the most profitable single requirement that fits
+		long breakProfit = 0, breakCost = 0;
+		int breakReq = 0;
+		while(breakReq < numReqs && breakCost + costs[breakReq] <= fixedCost) {
+			breakCost += costs[breakReq];
+			breakProfit += profits[breakReq];
+			breakReq++;
+		}
+
+		int numFitting = 0;
+		long maxSingleProfit = 0;
+		int[] fittingCosts = new int[numReqs];
+		for(int i = 0; i < numReqs; i++) {
+			if(costs[i] <= fixedCost) {
+				fittingCosts[numFitting++] = costs[i];
+				maxSingleProfit = Math.max(maxSingleProfit, profits[i]);
+			}
+		}
+
+		// The largest number of requirements that fit together is found by taking the cheapest ones first
+		Arrays.sort(fittingCosts, 0, numFitting);
+		int maxChosen = 0;
+		for(long totalCost = 0; maxChosen < numFitting && totalCost + fittingCosts[maxChosen] <= fixedCost; maxChosen++)
+			totalCost += fittingCosts[maxChosen];
+
+		// If every requirement fits together, the break solution is already optimal
+		boolean[] chosen = new boolean[numReqs];
+		if(breakReq == numReqs || maxChosen == 0) {
+			for(int i = 0; i < breakReq; i++)
+				chosen[i] = true;
+			return chosen;
+		}
+
+		long lowerBound = Math.max(breakProfit, maxSingleProfit);
+		long upperBound = breakProfit + profits[breakReq];
+
+		// Scale the profits; a factor below 1 would only enlarge the table, so the instance is then solved exactly
+		double scale = Math.max(1.0, epsilon * lowerBound / maxChosen);
+		int[] scaledProfits = new int[numReqs];
+		for(int i = 0; i < numReqs; i++) {
+			if(costs[i] <= fixedCost)
+				scaledProfits[i] = (int) (profits[i] / scale);
+		}
+		int maxScaledProfit = (int) Math.min(upperBound / scale, Integer.MAX_VALUE - 1);
+
+		return new ProfitDynamicAlgorithm(costs, scaledProfits, fixedCost, maxScaledProfit).solve();
+	}
+}
@@ -0,0 +1,272 @@
+package solver;
+
+import input.JCommanderInput;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+
+import com.beust.jcommander.JCommander;
+import com.beust.jcommander.ParameterException;
+
+/** The BatchRunner solves many jobs, each an input file with a fixed cost, in a single JVM.  The jobs are
+ * listed in a manifest .csv file: after a header line, each line should be "InputFile,FixedCost,OutputFile".
+ * An empty fixed cost defaults to the -f option of the command line.
+ *
+ * Each job is solved exactly as Menu solves an input file: the options of the command line are kept
+ * (e.g. the algorithm or the output format), and the input file, fixed cost and output file of the job
+ * replace the matching options.  Each job writes its own output file, and the result and timings of every
+ * job are written to a summary .csv file once all jobs are done.  A job that fails (e.g. because of an
+ * invalid input file) is reported in the summary without stopping the other jobs.
+ *
+ * The jobs are solved on a fixed pool of maxConcurrent threads, each with an equal share of the memory
+ * budget.  Every input file is parsed only once: the first job needing it parses it while the other jobs
+ * on the same file wait for the result, and the parsed requirements are shared between them (they are
+ * only ever read).  Once the last job on an input file is done, its requirements are released.
+ *
+ * @author Michael Camara
+ *
+ */
+public class BatchRunner {
+
+	// The options set by the runner for every job, which are removed from the options of the command line
+	private static final List<String> BATCH_OPTIONS = Arrays.asList("-i", "--input", "-o", "--output", "-f", "--fixed",
+			"-q", "--quiet", "-v", "--verbose", "-t", "--timer", "--max-memory", "-w", "--watch", "-s", "--sweep",
+			"-b", "--budgets", "--batch", "--summary", "--serve", "--max-concurrent", "--metrics");
+
+	private String[] args;				// The options of the command line
+	private int maxConcurrent;			// The number of jobs solved at once
+	private long memoryShare;			// The memory budget of each job, in bytes
+	private String defaultFixedCost;	// The fixed cost of jobs that do not give one
+
+	private ArrayList<Job> jobs = new ArrayList<Job>();						// The jobs, in the order of the manifest
+	private Map<String, SharedInput> inputs = new HashMap<String, SharedInput>();	// The input files, by canonical path
+
+	/** Read the jobs of a manifest
+	 *
+	 * @param manifest The manifest .csv file listing the jobs
+	 * @param maxConcurrent The number of jobs solved at once
+	 * @param args The command line arguments, whose options apply to every job
+	 * @throws ParameterException if the manifest cannot be read or holds an invalid line
+	 */
+	public BatchRunner(File manifest, int maxConcurrent, String[] args) {
+		this.args = args;
+		this.maxConcurrent = maxConcurrent;
+
+		// Share the memory budget of the command line (or the whole heap) between the concurrent jobs
+		JCommanderInput options = new JCommanderInput();
+		new JCommander(options, args);
+		long budget = options.getMaxMemory() > 0 ? options.getMaxMemory() : Runtime.getRuntime().maxMemory();
+		this.memoryShare = Math.max(1, budget / maxConcurrent);
+		this.defaultFixedCost = Integer.toString(options.getFixedCost());
+
+		List<String> lines;
+		try {
+			lines = Files.readAllLines(manifest.toPath(), Charset.defaultCharset());
+		} catch (IOException e) {
+			throw new ParameterException("Cannot find the indicated batch manifest in the current directory.");
+		}
+
+		// Do not consider the first line, which should be a descriptive header
+		HashSet<String> outputFiles = new HashSet<String>();
+		for(int i = 1; i < lines.size(); i++) {
+			String line = lines.get(i);
+			if(line.trim().isEmpty())
+				continue;
+
+			String[] values = line.split(",", -1);
+			if(values.length != 3 || values[0].isEmpty() || values[2].isEmpty())
+				throw new ParameterException("Line " + (i + 1) + " of the batch manifest should be \"InputFile,FixedCost,OutputFile\" (found \"" + line + "\").");
+
+			Job job = new Job(jobs.size() + 1, new File(values[0]), values[1].isEmpty() ? defaultFixedCost : values[1], new File(values[2]));
+			if(!outputFiles.add(canonicalPath(job.outputFile)))
+				throw new ParameterException("Jobs of the batch manifest should have different output files (found \"" + values[2] + "\" twice).");
+
+			// Count the jobs of each input file, so that its requirements can be released after the last one
+			String inputPath = canonicalPath(job.inputFile);
+			if(!inputs.containsKey(inputPath))
+				inputs.put(inputPath, new SharedInput());
+			job.input = inputs.get(inputPath);
+			job.input.remainingJobs++;
+			jobs.add(job);
+		}
+	}
+
+	/** Solve every job, then write the summary
+	 *
+	 * @param summaryFile The file the result and timings of every job are written to
+	 * @throws IOException if unable to create the summary file
+	 */
+	public void run(File summaryFile) throws IOException {
+		System.out.println("Solving " + jobs.size() + " jobs on " + inputs.size() + " input files, " + maxConcurrent + " at a time...\n");
+		long start = System.nanoTime();
+
+		ExecutorService pool = Executors.newFixedThreadPool(maxConcurrent);
+		try {
+			pool.invokeAll(jobs);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} finally {
+			pool.shutdown();
+		}
+		long totalMillis = (System.nanoTime() - start) / 1000000;
+
+		int numFailed = 0;
+		BufferedWriter writer = new BufferedWriter(new FileWriter(summaryFile));
+		try {
+			writer.write("Job,InputFile,FixedCost,OutputFile,Status,NumChosen,TotalCost,TotalPerceivedProfit,ParseMillis,SolveMillis");
+			for(Job job : jobs) {
+				writer.write(System.lineSeparator() + job.number + "," + job.inputFile + "," + job.fixedCost + "," + job.outputFile + ","
+						+ csvField(job.status) + "," + job.numChosen + "," + job.totalCost + "," + job.totalPerceivedProfit + ","
+						+ job.parseMillis + "," + job.solveMillis);
+				if(!job.status.equals("ok"))
+					numFailed++;
+			}
+		} finally {
+			writer.close();
+		}
+
+		System.out.println("\nSolved " + (jobs.size() - numFailed) + " of " + jobs.size() + " jobs in " + totalMillis
+				+ " ms, summary written to " + summaryFile);
+	}
+
+	/** Return the canonical path of a file, so that different paths to the same file are recognized
+	 */
+	private static String canonicalPath(File file) {
+		try {
+			return file.getCanonicalPath();
+		} catch (IOException e) {
+			return file.getAbsolutePath();
+		}
+	}
+
+	/** Quote a value of the summary if it holds a comma or a quote
+	 */
+	private static String csvField(String value) {
+		if(value.indexOf(',') < 0 && value.indexOf('"') < 0)
+			return value;
+		return "\"" + value.replace("\"", "\"\"") + "\"";
+	}
+
+	/** The requirements of an input file, parsed by the first job needing them and shared by all its jobs
+	 */
+	private static class SharedInput {
+		private FutureTask<RequirementSet> parse;	// Parses the file once (null before the first job or after the last)
+		private int remainingJobs;					// The number of jobs on this file that are not done yet
+
+		/** Return the requirements of the file, parsing it if no other job has
+		 *
+		 * @param input The options of the job asking for the requirements
+		 * @param job The job asking for the requirements, which is given the parse time if it parses the file
+		 * @return The requirements of the file
+		 */
+		RequirementSet get(JCommanderInput input, Job job) {
+			boolean parser = false;
+			FutureTask<RequirementSet> task;
+			synchronized(this) {
+				if(parse == null) {
+					parse = new FutureTask<RequirementSet>(input::getRequirements);
+					parser = true;
+				}
+				task = parse;
+			}
+			if(parser) {
+				long start = System.nanoTime();
+				task.run();
+				job.parseMillis = (System.nanoTime() - start) / 1000000;
+			}
+
+			try {
+				return task.get();
+			} catch (ExecutionException e) {
+				if(e.getCause() instanceof RuntimeException)
+					throw (RuntimeException) e.getCause();
+				throw new IllegalStateException(e.getCause());
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException("Parsing of the input file was interrupted", e);
+			}
+		}
+
+		/** Record that a job on this file is done, releasing the requirements after the last one
+		 */
+		synchronized void release() {
+			if(--remainingJobs == 0)
+				parse = null;
+		}
+	}
+
+	/** A single input file and fixed cost to solve, with its result once solved
+	 */
+	private class Job implements Callable<Job> {
+
+		private final int number;				// The position of the job in the manifest, starting at 1
+		private final File inputFile;			// The file containing the list of requirements
+		private final String fixedCost;			// The fixed cost threshold, validated as the -f option
+		private final File outputFile;			// The file the chosen requirements are written to
+		private SharedInput input;				// The parsed requirements of the input file
+
+		private String status = "not run";		// "ok", or the reason the job failed
+		private int numChosen;					// The number of chosen requirements
+		private long totalCost;					// The total cost of the chosen requirements
+		private long totalPerceivedProfit;		// The total perceived profit of the chosen requirements
+		private long parseMillis;				// The time spent parsing the input file (0 if parsed by another job)
+		private long solveMillis;				// The time spent selecting and writing the chosen requirements
+
+		Job(int number, File inputFile, String fixedCost, File outputFile) {
+			this.number = number;
+			this.inputFile = inputFile;
+			this.fixedCost = fixedCost;
+			this.outputFile = outputFile;
+		}
+
+		/** Solve the job as Menu would, recording its result instead of stopping the batch if it fails
+		 *
+		 * @return this job
+		 */
+		public Job call() {
+			try {
+				ArrayList<String> jobArgs = JCommanderInput.removeOptions(args, BATCH_OPTIONS);
+				jobArgs.addAll(Arrays.asList("-i", inputFile.getPath(), "-o", outputFile.getPath(), "-f", fixedCost,
+						"-q", "--max-memory", Long.toString(memoryShare)));
+				JCommanderInput jobInput = new JCommanderInput();
+				new JCommander(jobInput, jobArgs.toArray(new String[jobArgs.size()]));
+
+				RequirementSet requirements = input.get(jobInput, this);
+
+				long start = System.nanoTime();
+				ArrayList<Requirement> chosenReqs = Menu.solve(jobInput, requirements);
+				solveMillis = (System.nanoTime() - start) / 1000000;
+
+				for(Requirement r : chosenReqs) {
+					totalCost += r.getCost();
+					totalPerceivedProfit += r.getPerceivedProfit();
+				}
+				numChosen = chosenReqs.size();
+				status = "ok";
+			} catch (ParameterException | NoSuchElementException | IOException e) {
+				status = "failed: " + (e.getMessage() == null || e.getMessage().isEmpty() ? "invalid input file" : e.getMessage());
+			} catch (RuntimeException e) {
+				status = "failed: " + e;
+			} finally {
+				input.release();
+			}
+			return this;
+		}
+	}
+}
@@ -0,0 +1,117 @@
+package solver;
+
+/** The BitsetDynamicAlgorithm solves the same 0-1 knapsack problem as the dynamic algorithm in Optimizer,
+ * but without storing the full n*k table of profit values.  The backtrack of the dynamic algorithm only
+ * needs to know whether maxValues[i][k] differs from maxValues[i-1][k], i.e. whether requirement i was
+ * taken at capacity k.  That is a single bit per cell, so this algorithm keeps one rolling row of profit
+ * values, and records the take/skip decision of every cell in a bitmap packed into a long[] per
+ * requirement.  This reduces the memory of the table by about 32 times, while keeping the O(n*k) time
+ * and the simple backtrack of the original algorithm.
+ *
+ * @author Michael Camara
+ *
+ */
+public class BitsetDynamicAlgorithm {
+
+	private int[] costs;		// The cost of each requirement
+	private int[] profits;		// The perceived profit of each requirement
+	private int fixedCost;		// The fixedCost threshold the chosen requirements cannot cumulatively exceed
+
+	private int[] maxValues;	// The max profit for each possible cost constraint
+	private long[][] decisions;	// Bit j of decisions[i] is set if requirement i is taken at cost constraint j
+
+	/** Initialize the algorithm using the cost and perceived profit of each requirement
+	 *
+	 * @param costs The cost of each requirement
+	 * @param profits The perceived profit of each requirement
+	 * @param fixedCost The fixed cost threshold
+	 */
+	public BitsetDynamicAlgorithm(int[] costs, int[] profits, int fixedCost) {
+		this.costs = costs;
+		this.profits = profits;
+		this.fixedCost = fixedCost;
+	}
+
+	/** Estimate the number of bytes used by this algorithm, which is dominated by the decision bits
+	 *
+	 * @param numReqs The number of requirements
+	 * @param fixedCost The fixed cost threshold
+	 * @return The expected number of bytes used by the rolling row and the decision bits
+	 */
+	public static double expectedMemory(int numReqs, int fixedCost) {
+		double wordsPerRow = (fixedCost >> 6) + 1;
+		return 4.0 * (fixedCost + 1) + 8.0 * wordsPerRow * numReqs;
+	}
+
+	/** Determine which requirements yield the maximum profit while staying within the fixed cost.
+	 *
+	 * @return An array indicating for each requirement whether it has been chosen
+	 */
+	public boolean[] solve() {
+		fillTable();
+		boolean[] chosen = backtrack(fixedCost);
+
+		// Release the table once the requirements have been selected
+		maxValues = null;
+		decisions = null;
+
+		return chosen;
+	}
+
+	/** Compute the row of max profits and the decision bits for every requirement and cost constraint
+	 * up to the fixed cost.  Afterwards, the max profit of every cost constraint can be read through
+	 * getMaxValues(), and the requirements chosen for it through backtrack().
+	 */
+	public void fillTable() {
+		int numReqs = costs.length;
+		int wordsPerRow = (fixedCost >> 6) + 1;
+
+		// The max profit for each possible cost constraint, using the requirements seen so far
+		maxValues = new int[fixedCost + 1];
+
+		// Bit j of decisions[i] is set if requirement i improves the max profit at cost constraint j
+		decisions = new long[numReqs][wordsPerRow];
+
+		for(int i = 0; i < numReqs; i++) {
+			int cost = costs[i];
+			int profit = profits[i];
+			long[] taken = decisions[i];
+
+			// Iterate from high to low cost constraints, so that maxValues[j - cost] still holds the
+			// value from the previous requirement (i.e. maxValues[i-1][j-cost] in the full table)
+			for(int j = fixedCost; j >= cost; j--) {
+				int otherMax = maxValues[j - cost] + profit;
+				if(otherMax > maxValues[j]) {
+					maxValues[j] = otherMax;
+					taken[j >> 6] |= 1L << j;
+				}
+			}
+		}
+	}
+
+	/** Return the max profit for every cost constraint from 0 to the fixed cost (see fillTable())
+	 *
+	 * @return The max profit for every cost constraint
+	 */
+	public int[] getMaxValues() {
+		return maxValues;
+	}
+
+	/** Select the requirements that yield the max profit for a given cost constraint, by following the
+	 * decision bits computed by fillTable() back from the last requirement.
+	 *
+	 * @param capacity The cost constraint, between 0 and the fixed cost
+	 * @return An array indicating for each requirement whether it has been chosen
+	 */
+	public boolean[] backtrack(int capacity) {
+		int numReqs = costs.length;
+		boolean[] chosen = new boolean[numReqs];
+		for(int i = numReqs - 1, k = capacity; i >= 0; i--) {
+			if((decisions[i][k >> 6] & (1L << k)) != 0) {
+				chosen[i] = true;
+				k = k - costs[i];
+			}
+		}
+		return chosen;
+	}
+}
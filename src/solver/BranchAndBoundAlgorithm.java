@@ -0,0 +1,273 @@
+package solver;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicReference;
+
+/** The BranchAndBoundAlgorithm finds the optimal list of requirements through a depth-first search over
+ * include/exclude decisions (in the style of Horowitz and Sahni, as described by Martello and Toth),
+ * rather than through a table indexed by cost.  Its run time and memory therefore depend on how hard
+ * the instance is, not on the size of the fixed cost.
+ *
+ * The requirements must be given in descending order of profit/cost ratio (see RequirementComparator).
+ * The search always tries to include the next requirement before excluding it, and prunes every branch
+ * whose Dantzig upper bound cannot beat the best solution found so far.  The Dantzig bound is the value
+ * of the linear relaxation: the remaining requirements are taken in ratio order until the next one no
+ * longer fits, and a fraction of that "break" requirement fills the remaining capacity.
+ *
+ * The first levels of the search tree are split into tasks on a work-stealing ForkJoinPool, so that idle
+ * threads take over unexplored subtrees.  The best solution found so far (the incumbent) is shared
+ * between all threads through a lock-free AtomicReference, so that a good solution found by one thread
+ * immediately tightens the pruning of all others.
+ *
+ * @author Michael Camara
+ *
+ */
+public class BranchAndBoundAlgorithm {
+
+	private int[] costs;		// The cost of each requirement, in descending order of profit/cost ratio
+	private int[] profits;		// The perceived profit of each requirement
+	private int fixedCost;		// The fixedCost threshold the chosen requirements cannot cumulatively exceed
+	private int threads;		// The number of threads used to explore the search tree
+	private int splitDepth;		// The number of decisions after which a task no longer forks subtasks
+
+	private long[] costSums;	// costSums[i] = total cost of requirements 0..i-1
+	private long[] profitSums;	// profitSums[i] = total profit of requirements 0..i-1
+
+	// The best solution found so far, shared between all threads
+	private AtomicReference<Incumbent> incumbent;
+
+	/** Initialize the algorithm using the cost and perceived profit of each requirement
+	 *
+	 * @param costs The cost of each requirement, in descending order of profit/cost ratio
+	 * @param profits The perceived profit of each requirement, in the same order as costs
+	 * @param fixedCost The fixed cost threshold
+	 * @param threads The number of threads used to explore the search tree
+	 */
+	public BranchAndBoundAlgorithm(int[] costs, int[] profits, int fixedCost, int threads) {
+		this.costs = costs;
+		this.profits = profits;
+		this.fixedCost = fixedCost;
+		this.threads = threads;
+	}
+
+	/** Determine which requirements yield the maximum profit while staying within the fixed cost.
+	 *
+	 * @return An array indicating for each requirement whether it has been chosen
+	 */
+	public boolean[] solve() {
+		int numReqs = costs.length;
+
+		// Prefix sums allow the Dantzig bound to be found through a binary search
+		costSums = new long[numReqs + 1];
+		profitSums = new long[numReqs + 1];
+		for(int i = 0; i < numReqs; i++) {
+			costSums[i + 1] = costSums[i] + costs[i];
+			profitSums[i + 1] = profitSums[i] + profits[i];
+		}
+
+		// Start with the greedy solution as the incumbent, so that pruning is effective right away
+		boolean[] greedy = new boolean[numReqs];
+		long greedyProfit = 0;
+		for(int i = 0, capacity = fixedCost; i < numReqs; i++) {
+			if(costs[i] <= capacity) {
+				greedy[i] = true;
+				capacity -= costs[i];
+				greedyProfit += profits[i];
+			}
+		}
+		incumbent = new AtomicReference<Incumbent>(new Incumbent(greedyProfit, greedy));
+
+		// Explore the search tree, splitting its first levels across threads if more than one is available
+		if(threads <= 1) {
+			search(0, fixedCost, 0, new boolean[numReqs]);
+		}
+		else {
+			splitDepth = 32 - Integer.numberOfLeadingZeros(threads) + 4;
+			ForkJoinPool pool = new ForkJoinPool(threads);
+			try {
+				pool.invoke(new SearchTask(0, fixedCost, 0, new boolean[numReqs], 0));
+			}
+			finally {
+				pool.shutdown();
+			}
+		}
+
+		return incumbent.get().chosen;
+	}
+
+	/** Compute the Dantzig upper bound on the profit that can still be gained from requirements
+	 * first..n-1 given some remaining capacity, i.e. the value of the linear relaxation.
+	 *
+	 * @param first The first requirement not yet decided
+	 * @param capacity The remaining capacity
+	 * @return An upper bound on the profit of any completion of the current partial solution
+	 */
+	private long upperBound(int first, int capacity) {
+
+		// Find the break requirement: the first one that no longer fits when taking all before it
+		int low = first, high = costs.length;
+		long limit = costSums[first] + capacity;
+		while(low < high) {
+			int mid = (low + high) >>> 1;
+			if(costSums[mid + 1] <= limit)
+				low = mid + 1;
+			else
+				high = mid;
+		}
+		int breakReq = low;
+
+		long bound = profitSums[breakReq] - profitSums[first];
+		if(breakReq < costs.length) {
+			long residual = limit - costSums[breakReq];
+			bound += residual * profits[breakReq] / costs[breakReq];
+		}
+		return bound;
+	}
+
+	/** Offer a complete solution as the new incumbent, replacing the current one only if it is better
+	 *
+	 * @param profit The total profit of the solution
+	 * @param chosen The choices made for every requirement (copied if accepted)
+	 */
+	private void offer(long profit, boolean[] chosen) {
+		Incumbent current = incumbent.get();
+		if(profit <= current.profit)
+			return;
+
+		Incumbent better = new Incumbent(profit, chosen.clone());
+		while(profit > current.profit) {
+			if(incumbent.compareAndSet(current, better))
+				return;
+			current = incumbent.get();
+		}
+	}
+
+	/** Sequential, non-recursive depth-first search over every decision from the first requirement on.
+	 * The search always tries to include a requirement before excluding it; when a branch is pruned,
+	 * it backtracks to the most recently included requirement and excludes it instead.
+	 *
+	 * @param first The first requirement not yet decided
+	 * @param capacity The remaining capacity
+	 * @param profit The profit of the decisions made so far
+	 * @param chosen The decisions made so far (modified during the search)
+	 */
+	private void search(int first, int capacity, long profit, boolean[] chosen) {
+		int numReqs = costs.length;
+
+		// The requirements included along the current path, most recent on top
+		int[] path = new int[numReqs - first];
+		int pathSize = 0;
+
+		int i = first;
+		while(true) {
+			boolean backtrack;
+
+			// Prune this branch if it cannot beat the incumbent
+			if(profit + upperBound(i, capacity) <= incumbent.get().profit) {
+				backtrack = true;
+			}
+
+			// A complete solution which beats the incumbent has been found
+			else if(i == numReqs) {
+				offer(profit, chosen);
+				backtrack = true;
+			}
+
+			// Include the next requirement if it fits, otherwise exclude it
+			else {
+				if(costs[i] <= capacity) {
+					chosen[i] = true;
+					capacity -= costs[i];
+					profit += profits[i];
+					path[pathSize++] = i;
+				}
+				else {
+					chosen[i] = false;
+				}
+				i++;
+				backtrack = false;
+			}
+
+			if(backtrack) {
+
+				// The whole subtree has been explored once no included requirement is left to exclude
+				if(pathSize == 0)
+					return;
+
+				// Exclude the most recently included requirement and continue after it
+				int last = path[--pathSize];
+				chosen[last] = false;
+				capacity += costs[last];
+				profit -= profits[last];
+				i = last + 1;
+			}
+		}
+	}
+
+	/** The best solution found so far.  Instances are never modified, so that they can be safely
+	 * shared between threads through an AtomicReference.
+	 */
+	private static class Incumbent {
+
+		private final long profit;			// The total profit of the solution
+		private final boolean[] chosen;		// The choices made for every requirement
+
+		Incumbent(long profit, boolean[] chosen) {
+			this.profit = profit;
+			this.chosen = chosen;
+		}
+	}
+
+	/** A task exploring the subtree below some partial solution.  Within the first splitDepth decisions
+	 * the include and exclude branches are forked as separate tasks, so idle threads can steal them;
+	 * deeper subtrees are searched sequentially.
+	 */
+	private class SearchTask extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private int first;			// The first requirement not yet decided
+		private int capacity;		// The remaining capacity
+		private long profit;		// The profit of the decisions made so far
+		private boolean[] chosen;	// The decisions made so far (owned by this task)
+		private int depth;			// The number of branching decisions above this task
+
+		SearchTask(int first, int capacity, long profit, boolean[] chosen, int depth) {
+			this.first = first;
+			this.capacity = capacity;
+			this.profit = profit;
+			this.chosen = chosen;
+			this.depth = depth;
+		}
+
+		protected void compute() {
+			if(depth >= splitDepth) {
+				search(first, capacity, profit, chosen);
+				return;
+			}
+
+			// Requirements that do not fit can only be excluded, so skip ahead to the next real branch
+			int i = first;
+			while(i < costs.length && costs[i] > capacity) {
+				chosen[i] = false;
+				i++;
+			}
+
+			if(profit + upperBound(i, capacity) <= incumbent.get().profit)
+				return;
+
+			if(i == costs.length) {
+				offer(profit, chosen);
+				return;
+			}
+
+			boolean[] included = chosen.clone();
+			included[i] = true;
+			chosen[i] = false;
+
+			invokeAll(new SearchTask(i + 1, capacity - costs[i], profit + profits[i], included, depth + 1),
+					new SearchTask(i + 1, capacity, profit, chosen, depth + 1));
+		}
+	}
+}
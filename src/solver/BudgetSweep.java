@@ -0,0 +1,122 @@
+package solver;
+
+import java.util.ArrayList;
+
+import com.beust.jcommander.ParameterException;
+
+/** The BudgetSweep solves the selection problem for every budget from 0 up to the fixed cost in a single
+ * pass.  The last row of the dynamic algorithm already holds the maximum profit for every cost constraint,
+ * so one run of the dynamic algorithm gives the whole budget/profit curve.  The requirements are first
+ * reduced by the Preprocessor (which is valid for every budget up to the fixed cost), and the decision
+ * bits of the BitsetDynamicAlgorithm are kept so that the chosen requirements of any budget can be
+ * rebuilt on demand.
+ *
+ * The curve is a step function, which is fully described by its breakpoints: the budgets at which the
+ * maximum profit increases.  These are exactly the Pareto-optimal (cost, profit) pairs of the instance.
+ *
+ * The sweep has no other algorithm to fall back to, so the AlgorithmPlanner checks before the table is
+ * filled that the decision bits fit in the memory budget, and that the int profits of the table cannot
+ * overflow.
+ *
+ * @author Michael Camara
+ *
+ */
+public class BudgetSweep {
+
+	private int fixedCost;						// The largest budget considered
+	private RequirementSet reducedReqs;			// The requirements left after preprocessing
+	private RequirementSet fixedReqs;			// The requirements chosen for every budget during preprocessing
+	private long fixedProfit;					// The total perceived profit of fixedReqs
+	private int costDivisor;					// The common divisor of the costs of reducedReqs
+	private BitsetDynamicAlgorithm table;		// The dynamic algorithm holding the decision bits
+	private int[] maxValues;					// The max profit of reducedReqs for every budget / costDivisor
+
+	/** Solve the selection problem for every budget from 0 up to the fixed cost
+	 *
+	 * @param requirements The list of requirements (not modified)
+	 * @param fixedCost The largest budget considered
+	 * @throws ParameterException if the decision bits do not fit in the free heap, or the profits could overflow
+	 */
+	public BudgetSweep(ArrayList<Requirement> requirements, int fixedCost) {
+		this(new RequirementSet(requirements), fixedCost, 0);
+	}
+
+	/** Solve the selection problem for every budget from 0 up to the fixed cost
+	 *
+	 * @param requirements The set of requirements (not modified)
+	 * @param fixedCost The largest budget considered
+	 * @param maxMemory The memory budget of the decision bits in bytes (0 uses the free heap)
+	 * @throws ParameterException if the decision bits do not fit in the memory budget, or the profits could overflow
+	 */
+	public BudgetSweep(RequirementSet requirements, int fixedCost, long maxMemory) {
+		this.fixedCost = fixedCost;
+
+		// Announce that selection process has begun
+		System.out.println("Selecting profit maximizing requirements for every budget up to fixed cost of " + fixedCost + "...\n");
+
+		Preprocessor preprocessor = new Preprocessor(requirements, fixedCost);
+		reducedReqs = preprocessor.getReducedRequirements();
+		fixedReqs = preprocessor.getFixedRequirements();
+		costDivisor = preprocessor.getCostDivisor();
+		fixedProfit = fixedReqs.getTotalProfit();
+
+		// Check the table before allocating it, since the sweep cannot use another algorithm
+		AlgorithmPlanner planner = new AlgorithmPlanner(reducedReqs.size(), fixedCost / costDivisor, reducedReqs.getTotalProfit(), 1);
+		planner.setMaxMemory(maxMemory);
+		planner.require("bitset");
+
+		table = new BitsetDynamicAlgorithm(reducedReqs.getCosts(costDivisor), reducedReqs.getProfits(), fixedCost / costDivisor);
+		table.fillTable();
+		maxValues = table.getMaxValues();
+	}
+
+	/** Return the maximum profit that can be reached within a given budget
+	 *
+	 * @param budget The budget, between 0 and the fixed cost
+	 * @return The maximum total perceived profit within the budget
+	 */
+	public long getMaxProfit(int budget) {
+		return maxValues[budget / costDivisor] + fixedProfit;
+	}
+
+	/** Return the breakpoints of the budget/profit curve: budget 0, followed by every budget at which the
+	 * maximum profit is higher than for any smaller budget
+	 *
+	 * @return The budgets at which the maximum profit increases, in ascending order
+	 */
+	public ArrayList<Integer> getBreakpoints() {
+		ArrayList<Integer> breakpoints = new ArrayList<Integer>();
+		breakpoints.add(0);
+		for(int j = 1; j < maxValues.length; j++) {
+			if(maxValues[j] > maxValues[j - 1])
+				breakpoints.add(j * costDivisor);
+		}
+		return breakpoints;
+	}
+
+	/** Rebuild the list of requirements that yields the maximum profit within a given budget
+	 *
+	 * @param budget The budget, between 0 and the fixed cost
+	 * @return The combination of requirements yielding getMaxProfit(budget)
+	 */
+	public ArrayList<Requirement> getChosenRequirements(int budget) {
+		boolean[] chosen = table.backtrack(budget / costDivisor);
+
+		ArrayList<Requirement> chosenReqs = new ArrayList<Requirement>();
+		for(int i = chosen.length - 1; i >= 0; i--) {
+			if(chosen[i])
+				chosenReqs.add(reducedReqs.getRequirement(i));
+		}
+		chosenReqs.addAll(fixedReqs.toList());
+
+		return chosenReqs;
+	}
+
+	/** Return the largest budget considered
+	 *
+	 * @return the fixed cost
+	 */
+	public int getFixedCost() {
+		return fixedCost;
+	}
+}
@@ -0,0 +1,265 @@
+package solver;
+
+/** The CoreAlgorithm finds the optimal list of requirements by only running the dynamic algorithm over a
+ * small "core" of requirements around the greedy break requirement, following Pisinger's minknap
+ * algorithm.  In typical instances, requirements with a much higher profit/cost ratio than the break
+ * requirement are always chosen, and those with a much lower ratio are never chosen, so only the
+ * requirements close to the break requirement actually need to be decided.
+ *
+ * The requirements must be given in descending order of profit/cost ratio (see RequirementComparator).
+ * The break requirement b is the first one that no longer fits when taking all requirements before it,
+ * and the break solution takes exactly requirements 0..b-1.  The algorithm keeps a list of states, each
+ * describing one way of deciding the requirements in the core [s, t) while all requirements before s are
+ * taken and all requirements from t on are left out.  Only states that are not dominated (i.e. no other
+ * state has a lower or equal cost and a higher or equal profit) are kept, and states may exceed the fixed
+ * cost, since removing a requirement before s later on can make them feasible again.
+ *
+ * The core is expanded alternately by one requirement on each side: adding requirement t lets each state
+ * also take it, and adding requirement s-1 lets each state also drop it.  After each expansion, every
+ * state whose upper bound cannot beat the best feasible solution found so far is removed.  Since the
+ * requirements outside the core are sorted by ratio, a state with remaining capacity can at best gain the
+ * ratio of requirement t per unit of cost, and a state over the fixed cost must at least lose the ratio of
+ * requirement s-1 per unit of cost it drops.  Once no state is left, no solution can beat the best one
+ * found, which proves its optimality.
+ *
+ * Requirements without any cost are decided before the core is built: they are taken if they have a
+ * positive profit and left out otherwise.  RequirementComparator ranks them by an arbitrary ratio, so
+ * they can fall between requirements with a cost, where they would invalidate the bounds above.
+ *
+ * @author Michael Camara
+ *
+ */
+public class CoreAlgorithm {
+
+	private int[] costs;		// The cost of each requirement, in descending order of profit/cost ratio
+	private int[] profits;		// The perceived profit of each requirement
+	private int fixedCost;		// The fixedCost threshold the chosen requirements cannot cumulatively exceed
+
+	private int breakReq;		// The first requirement that does not fit in the break solution
+	private int first;			// The first requirement in the core (s)
+	private int last;			// The first requirement after the core (t)
+
+	// The states of the current core, sorted by increasing cost (and therefore increasing profit)
+	private long[] stateCosts;
+	private long[] stateProfits;
+	private Change[] stateChanges;
+	private int numStates;
+
+	// The best feasible solution found so far
+	private long bestProfit;
+	private Change bestChanges;
+
+	/** Initialize the algorithm using the cost and perceived profit of each requirement
+	 *
+	 * @param costs The cost of each requirement, in descending order of profit/cost ratio
+	 * @param profits The perceived profit of each requirement, in the same order as costs
+	 * @param fixedCost The fixed cost threshold
+	 */
+	public CoreAlgorithm(int[] costs, int[] profits, int fixedCost) {
+		this.costs = costs;
+		this.profits = profits;
+		this.fixedCost = fixedCost;
+	}
+
+	/** Determine which requirements yield the maximum profit while staying within the fixed cost.
+	 *
+	 * @return An array indicating for each requirement whether it has been chosen
+	 */
+	public boolean[] solve() {
+		int[] allCosts = costs, allProfits = profits;
+
+		// Keep only the requirements with a cost, in the same order, for the core
+		int[] index = new int[allCosts.length];
+		int numReqs = 0;
+		for(int i = 0; i < allCosts.length; i++) {
+			if(allCosts[i] != 0)
+				index[numReqs++] = i;
+		}
+		costs = new int[numReqs];
+		profits = new int[numReqs];
+		for(int i = 0; i < numReqs; i++) {
+			costs[i] = allCosts[index[i]];
+			profits[i] = allProfits[index[i]];
+		}
+
+		// Find the break requirement and the break solution
+		long breakCost = 0, breakProfit = 0;
+		breakReq = 0;
+		while(breakReq < numReqs && breakCost + costs[breakReq] <= fixedCost) {
+			breakCost += costs[breakReq];
+			breakProfit += profits[breakReq];
+			breakReq++;
+		}
+
+		// Start with the greedy solution (break solution plus any later requirement that still fits)
+		bestProfit = breakProfit;
+		bestChanges = null;
+		for(int i = breakReq, capacity = (int) (fixedCost - breakCost); i < numReqs; i++) {
+			if(costs[i] <= capacity) {
+				capacity -= costs[i];
+				bestProfit += profits[i];
+				bestChanges = new Change(i, bestChanges);
+			}
+		}
+
+		// The initial core is empty, with the break solution as its only state
+		first = breakReq;
+		last = breakReq;
+		stateCosts = new long[] {breakCost};
+		stateProfits = new long[] {breakProfit};
+		stateChanges = new Change[] {null};
+		numStates = 1;
+		removeUnpromising();
+
+		// Expand the core on alternating sides until no state can beat the best solution
+		while(numStates > 0 && (last < numReqs || first > 0)) {
+			if(last < numReqs) {
+				expand(last, costs[last], profits[last]);
+				last++;
+				removeUnpromising();
+			}
+			if(numStates > 0 && first > 0) {
+				first--;
+				expand(first, -costs[first], -profits[first]);
+				removeUnpromising();
+			}
+		}
+
+		// Rebuild the best solution from the break solution and its list of changes
+		boolean[] coreChosen = new boolean[numReqs];
+		for(int i = 0; i < breakReq; i++)
+			coreChosen[i] = true;
+		for(Change c = bestChanges; c != null; c = c.previous)
+			coreChosen[c.requirement] = !coreChosen[c.requirement];
+
+		// Map the decisions back to every requirement, taking the profitable ones without a cost
+		boolean[] chosen = new boolean[allCosts.length];
+		for(int i = 0; i < allCosts.length; i++)
+			chosen[i] = allCosts[i] == 0 && allProfits[i] > 0;
+		for(int i = 0; i < numReqs; i++)
+			chosen[index[i]] = coreChosen[i];
+
+		costs = allCosts;
+		profits = allProfits;
+		return chosen;
+	}
+
+	/** Add a requirement to the core: every state may either keep its current decision for it, or
+	 * change it (take a requirement after the break, or drop one before it).  Both lists of states are
+	 * already sorted by cost, so they are merged in linear time while removing dominated states.
+	 *
+	 * @param requirement The requirement being added to the core
+	 * @param deltaCost The change in cost if the decision is changed
+	 * @param deltaProfit The change in profit if the decision is changed
+	 */
+	private void expand(int requirement, long deltaCost, long deltaProfit) {
+		long[] newCosts = new long[2 * numStates];
+		long[] newProfits = new long[2 * numStates];
+		Change[] newChanges = new Change[2 * numStates];
+		int newSize = 0;
+
+		int i = 0, j = 0;
+		while(i < numStates || j < numStates) {
+			long cost, profit;
+			Change changes;
+
+			// Take the state with the lowest cost next from either the unchanged or the changed list
+			if(j == numStates || (i < numStates && stateCosts[i] <= stateCosts[j] + deltaCost)) {
+				cost = stateCosts[i];
+				profit = stateProfits[i];
+				changes = stateChanges[i];
+				i++;
+			}
+			else {
+				cost = stateCosts[j] + deltaCost;
+				profit = stateProfits[j] + deltaProfit;
+				changes = new Change(requirement, stateChanges[j]);
+				j++;
+			}
+
+			// Only keep the state if it has a higher profit than every cheaper state
+			if(newSize > 0 && profit <= newProfits[newSize - 1])
+				continue;
+
+			// A state with equal cost but higher profit replaces the previous one
+			if(newSize > 0 && cost == newCosts[newSize - 1])
+				newSize--;
+
+			newCosts[newSize] = cost;
+			newProfits[newSize] = profit;
+			newChanges[newSize] = changes;
+			newSize++;
+
+			// Record any feasible state that beats the best solution so far
+			if(cost <= fixedCost && profit > bestProfit) {
+				bestProfit = profit;
+				bestChanges = changes;
+			}
+		}
+
+		stateCosts = newCosts;
+		stateProfits = newProfits;
+		stateChanges = newChanges;
+		numStates = newSize;
+	}
+
+	/** Remove every state whose upper bound cannot beat the best solution found so far
+	 */
+	private void removeUnpromising() {
+		int kept = 0;
+		for(int i = 0; i < numStates; i++) {
+			if(upperBound(stateCosts[i], stateProfits[i]) > bestProfit) {
+				stateCosts[kept] = stateCosts[i];
+				stateProfits[kept] = stateProfits[i];
+				stateChanges[kept] = stateChanges[i];
+				kept++;
+			}
+		}
+
+		// Release the changes of removed states
+		for(int i = kept; i < numStates; i++)
+			stateChanges[i] = null;
+
+		numStates = kept;
+	}
+
+	/** Compute an upper bound on the profit of any solution that extends a state of the current core.
+	 * A state within the fixed cost can at best fill its remaining capacity at the ratio of the next
+	 * requirement after the core; a state over the fixed cost must at least lose the ratio of the next
+	 * requirement before the core for every unit of cost it drops.
+	 *
+	 * @param cost The total cost of the state
+	 * @param profit The total profit of the state
+	 * @return An upper bound on the profit of any solution extending the state
+	 */
+	private long upperBound(long cost, long profit) {
+		if(cost <= fixedCost) {
+			// Requirements without a positive profit cannot improve the state
+			if(last == costs.length || profits[last] <= 0)
+				return profit;
+			return profit + (fixedCost - cost) * profits[last] / costs[last];
+		}
+		else {
+			// No remaining requirement can be dropped to make this state feasible
+			if(first == 0)
+				return Long.MIN_VALUE;
+			long excess = cost - fixedCost;
+			long lost = (excess * profits[first - 1] + costs[first - 1] - 1) / costs[first - 1];
+			return profit - lost;
+		}
+	}
+
+	/** A single change to the decision of one requirement relative to the break solution.  Changes are
+	 * shared between states as a linked list, so that each new state only costs one object.
+	 */
+	private static class Change {
+
+		private final int requirement;		// The requirement whose decision has been changed
+		private final Change previous;		// The changes made before this one
+
+		Change(int requirement, Change previous) {
+			this.requirement = requirement;
+			this.previous = previous;
+		}
+	}
+}
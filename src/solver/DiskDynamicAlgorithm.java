@@ -0,0 +1,201 @@
+package solver;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/** The DiskDynamicAlgorithm solves the same 0-1 knapsack problem as BitsetDynamicAlgorithm, but writes the
+ * decision bits to a temporary file instead of keeping them on the heap, so that the size of the table is
+ * limited by the disk rather than by the heap.  Only the rolling row of max profits and a single row of
+ * decision bits stay in memory.
+ *
+ * The rows of decision bits are written sequentially, one requirement after the other, through a large
+ * direct buffer.  The backtrack then reads the rows back in reverse: it only needs one word of each row
+ * (the one holding the bit of the current cost constraint), which it reads from memory-mapped segments of
+ * the file, so the file is never loaded as a whole.  The file is deleted once the requirements have been
+ * selected.  Some platforms refuse to delete a file while segments of it are still mapped (they are only
+ * unmapped once collected), so if the deletion fails, the file is deleted when the JVM exits instead, and its
+ * path is shown so that it can be removed by hand if even that fails.
+ *
+ * This runs in O(n*k) time plus the time to write n*k/8 bytes to disk, and uses O(k) memory.
+ *
+ * @author Michael Camara
+ *
+ */
+public class DiskDynamicAlgorithm {
+
+	// The size in bytes of the buffer through which rows are written
+	private static final int WRITE_BUFFER_SIZE = 8 << 20;
+
+	// The maximum size in bytes of each segment of the file mapped by the backtrack
+	private static final long SEGMENT_SIZE = 1L << 30;
+
+	private int[] costs;		// The cost of each requirement
+	private int[] profits;		// The perceived profit of each requirement
+	private int fixedCost;		// The fixedCost threshold the chosen requirements cannot cumulatively exceed
+	private File directory;		// The directory of the temporary file (null for the default temporary directory)
+
+	/** Initialize the algorithm using the cost and perceived profit of each requirement
+	 *
+	 * @param costs The cost of each requirement
+	 * @param profits The perceived profit of each requirement
+	 * @param fixedCost The fixed cost threshold
+	 * @param directory The directory of the temporary file (null for the default temporary directory)
+	 */
+	public DiskDynamicAlgorithm(int[] costs, int[] profits, int fixedCost, File directory) {
+		this.costs = costs;
+		this.profits = profits;
+		this.fixedCost = fixedCost;
+		this.directory = directory;
+	}
+
+	/** Estimate the number of bytes of heap and direct memory used by this algorithm: the rolling row of
+	 * max profits, one row of decision bits, and the write buffer
+	 *
+	 * @param fixedCost The fixed cost threshold
+	 * @return The expected number of bytes used in memory
+	 */
+	public static double expectedMemory(int fixedCost) {
+		double rowBytes = 8.0 * ((fixedCost >> 6) + 1);
+		return 4.0 * (fixedCost + 1) + rowBytes + Math.max(rowBytes, WRITE_BUFFER_SIZE);
+	}
+
+	/** Estimate the number of bytes written to disk by this algorithm
+	 *
+	 * @param numReqs The number of requirements
+	 * @param fixedCost The fixed cost threshold
+	 * @return The size of the file of decision bits
+	 */
+	public static double expectedDiskSpace(int numReqs, int fixedCost) {
+		return 8.0 * ((fixedCost >> 6) + 1) * numReqs;
+	}
+
+	/** Determine which requirements yield the maximum profit while staying within the fixed cost.
+	 *
+	 * @return An array indicating for each requirement whether it has been chosen
+	 * @throws UncheckedIOException if the temporary file cannot be written or read
+	 */
+	public boolean[] solve() {
+		File tableFile = null;
+		try {
+			tableFile = File.createTempFile("knapsack", ".table", directory);
+			try(FileChannel channel = FileChannel.open(tableFile.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+				fillTable(channel);
+				return backtrack(channel);
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		} finally {
+			if(tableFile != null)
+				deleteTable(tableFile);
+		}
+	}
+
+	/** Delete the temporary file, or have it deleted when the JVM exits if it cannot be deleted yet
+	 *
+	 * @param tableFile The temporary file
+	 */
+	private static void deleteTable(File tableFile) {
+		if(tableFile.delete() || !tableFile.exists())
+			return;
+		tableFile.deleteOnExit();
+		System.out.println("Could not delete the table file " + tableFile.getAbsolutePath() + " (" + tableFile.length()
+				+ " bytes) while it is mapped; it will be deleted when the program exits");
+	}
+
+	/** Compute the max profits row by row as in BitsetDynamicAlgorithm, writing the decision bits of each
+	 * requirement to the file in order
+	 *
+	 * @param channel The temporary file
+	 * @throws IOException if the file cannot be written
+	 */
+	private void fillTable(FileChannel channel) throws IOException {
+		int numReqs = costs.length;
+		int wordsPerRow = (fixedCost >> 6) + 1;
+
+		// The max profit for each possible cost constraint, using the requirements seen so far
+		int[] maxValues = new int[fixedCost + 1];
+
+		// Bit j of taken is set if the current requirement improves the max profit at cost constraint j
+		long[] taken = new long[wordsPerRow];
+
+		ByteBuffer buffer = ByteBuffer.allocateDirect(Math.max(8 * wordsPerRow, WRITE_BUFFER_SIZE)).order(ByteOrder.nativeOrder());
+		LongBuffer words = buffer.asLongBuffer();
+
+		for(int i = 0; i < numReqs; i++) {
+			int cost = costs[i];
+			int profit = profits[i];
+			Arrays.fill(taken, 0);
+
+			for(int j = fixedCost; j >= cost; j--) {
+				int otherMax = maxValues[j - cost] + profit;
+				if(otherMax > maxValues[j]) {
+					maxValues[j] = otherMax;
+					taken[j >> 6] |= 1L << j;
+				}
+			}
+
+			// Write out the buffered rows once the next row no longer fits
+			if(words.remaining() < wordsPerRow)
+				words = flush(channel, buffer, words);
+			words.put(taken);
+		}
+		flush(channel, buffer, words);
+	}
+
+	/** Write the rows held by the buffer to the end of the file, and empty the buffer
+	 *
+	 * @param channel The temporary file
+	 * @param buffer The direct buffer holding the rows
+	 * @param words The view of the buffer through which the rows were added
+	 * @return A new, empty view of the buffer
+	 * @throws IOException if the file cannot be written
+	 */
+	private LongBuffer flush(FileChannel channel, ByteBuffer buffer, LongBuffer words) throws IOException {
+		buffer.clear();
+		buffer.limit(8 * words.position());
+		while(buffer.hasRemaining())
+			channel.write(buffer);
+		buffer.clear();
+		return buffer.asLongBuffer();
+	}
+
+	/** Select the requirements that yield the max profit, by following the decision bits back from the
+	 * last requirement.  The file is mapped in segments of whole rows, starting from its end.
+	 *
+	 * @param channel The temporary file holding the decision bits
+	 * @return An array indicating for each requirement whether it has been chosen
+	 * @throws IOException if the file cannot be read
+	 */
+	private boolean[] backtrack(FileChannel channel) throws IOException {
+		int numReqs = costs.length;
+		long rowBytes = 8L * ((fixedCost >> 6) + 1);
+		int rowsPerSegment = (int) Math.max(1, SEGMENT_SIZE / rowBytes);
+		boolean[] chosen = new boolean[numReqs];
+
+		ByteBuffer segment = null;
+		int segmentStart = numReqs;
+		for(int i = numReqs - 1, k = fixedCost; i >= 0; i--) {
+
+			// Map the segment of rows ending with row i
+			if(i < segmentStart) {
+				segmentStart = Math.max(0, i + 1 - rowsPerSegment);
+				segment = channel.map(FileChannel.MapMode.READ_ONLY, segmentStart * rowBytes, (i + 1 - segmentStart) * rowBytes)
+						.order(ByteOrder.nativeOrder());
+			}
+
+			long word = segment.getLong((int) ((i - segmentStart) * rowBytes + 8L * (k >> 6)));
+			if((word & (1L << k)) != 0) {
+				chosen[i] = true;
+				k = k - costs[i];
+			}
+		}
+		return chosen;
+	}
+}
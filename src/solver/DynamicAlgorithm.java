@@ -0,0 +1,191 @@
+package solver;
+
+/** The DynamicAlgorithm is the original dynamic algorithm of the Optimizer, which keeps the max profit of
+ * every requirement and every cost constraint in a full table.  No max profit can exceed the total perceived
+ * profit of all requirements, so the table is stored with the narrowest type that can hold that total:
+ *
+ *   - short values if it is at most Short.MAX_VALUE, halving the memory and cache traffic of int values;
+ *   - int values if it is at most Integer.MAX_VALUE;
+ *   - long values otherwise, where int values would overflow.
+ *
+ * Java generics do not cover primitive types, so each width has its own copy of the loops.  All copies make
+ * the same decisions, so the chosen requirements do not depend on the width.
+ *
+ * This runs in O(n*k) time and uses O(n*k) values of 2, 4 or 8 bytes.
+ *
+ * @author Original algorithm taken from Hans Kellerer, Ulrich Pferschy, and David Pisinger in
+ * their book, Knapsack Problems (2004).  Interpreted into Java by Michael Camara.
+ *
+ */
+public class DynamicAlgorithm {
+
+	private int[] costs;		// The cost of each requirement
+	private int[] profits;		// The perceived profit of each requirement
+	private int fixedCost;		// The fixedCost threshold the chosen requirements cannot cumulatively exceed
+	private int valueBytes;		// The number of bytes of each value of the table (2, 4 or 8)
+
+	/** Initialize the algorithm using the cost and perceived profit of each requirement
+	 *
+	 * @param costs The cost of each requirement
+	 * @param profits The perceived profit of each requirement
+	 * @param fixedCost The fixed cost threshold
+	 */
+	public DynamicAlgorithm(int[] costs, int[] profits, int fixedCost) {
+		this.costs = costs;
+		this.profits = profits;
+		this.fixedCost = fixedCost;
+
+		// Only positive profits can add up in the table
+		long profitBound = 0;
+		for(int profit : profits)
+			profitBound += Math.max(0, profit);
+		this.valueBytes = valueBytes(profitBound);
+	}
+
+	/** Determine the narrowest width of the values that can hold any max profit
+	 *
+	 * @param profitBound The upper bound on the max profits, i.e. the total perceived profit
+	 * @return The number of bytes of each value: 2 (short), 4 (int) or 8 (long)
+	 */
+	public static int valueBytes(long profitBound) {
+		if(profitBound <= Short.MAX_VALUE)
+			return 2;
+		if(profitBound <= Integer.MAX_VALUE)
+			return 4;
+		return 8;
+	}
+
+	/** Estimate the number of bytes used by the table of this algorithm
+	 *
+	 * @param numReqs The number of requirements
+	 * @param fixedCost The fixed cost threshold
+	 * @param profitBound The upper bound on the max profits, i.e. the total perceived profit
+	 * @return The expected number of bytes used
+	 */
+	public static double expectedMemory(int numReqs, int fixedCost, long profitBound) {
+		return (double) valueBytes(profitBound) * (numReqs + 1) * (fixedCost + 1.0);
+	}
+
+	/** Return the number of bytes of each value of the table
+	 *
+	 * @return 2 for a short table, 4 for an int table or 8 for a long table
+	 */
+	public int getValueBytes() {
+		return valueBytes;
+	}
+
+	/** Determine which requirements yield the maximum profit while staying within the fixed cost.
+	 *
+	 * @return An array indicating for each requirement whether it has been chosen
+	 */
+	public boolean[] solve() {
+		switch(valueBytes) {
+		case 2:
+			return solveShort();
+		case 4:
+			return solveInt();
+		default:
+			return solveLong();
+		}
+	}
+
+	/** Fill and backtrack a table of short values
+	 *
+	 * @return An array indicating for each requirement whether it has been chosen
+	 */
+	private boolean[] solveShort() {
+
+		// Contain the max profits for each requirement and each possible cost constraint
+		// NOTE: all values initialized to zero; row i holds the max profits using the first i requirements
+		int numReqs = costs.length;
+		short[][] maxValues = new short[numReqs + 1][fixedCost + 1];
+
+		for(int i = 1; i <= numReqs; i++) {
+			int cost = costs[i-1];
+			int profit = profits[i-1];
+
+			for(int j = 0; j < cost && j <= fixedCost; j++) {
+				maxValues[i][j] = maxValues[i-1][j];
+			}
+			for(int j = cost; j <= fixedCost; j++) {
+				short prevMax = maxValues[i-1][j];
+				short otherMax = (short) (maxValues[i-1][j-cost] + profit);
+				maxValues[i][j] = prevMax >= otherMax ? prevMax : otherMax;
+			}
+		}
+
+		// Select the requirements that yield the maximum profit as calculated above
+		boolean[] chosen = new boolean[numReqs];
+		for(int i = numReqs, k = fixedCost; i > 0; i--) {
+			if(maxValues[i][k] != maxValues[i-1][k]) {
+				chosen[i-1] = true;
+				k = k - costs[i-1];
+			}
+		}
+		return chosen;
+	}
+
+	/** Fill and backtrack a table of int values
+	 *
+	 * @return An array indicating for each requirement whether it has been chosen
+	 */
+	private boolean[] solveInt() {
+		int numReqs = costs.length;
+		int[][] maxValues = new int[numReqs + 1][fixedCost + 1];
+
+		for(int i = 1; i <= numReqs; i++) {
+			int cost = costs[i-1];
+			int profit = profits[i-1];
+
+			for(int j = 0; j < cost && j <= fixedCost; j++) {
+				maxValues[i][j] = maxValues[i-1][j];
+			}
+			for(int j = cost; j <= fixedCost; j++) {
+				int prevMax = maxValues[i-1][j];
+				int otherMax = maxValues[i-1][j-cost] + profit;
+				maxValues[i][j] = Math.max(prevMax, otherMax);
+			}
+		}
+
+		boolean[] chosen = new boolean[numReqs];
+		for(int i = numReqs, k = fixedCost; i > 0; i--) {
+			if(maxValues[i][k] != maxValues[i-1][k]) {
+				chosen[i-1] = true;
+				k = k - costs[i-1];
+			}
+		}
+		return chosen;
+	}
+
+	/** Fill and backtrack a table of long values
+	 *
+	 * @return An array indicating for each requirement whether it has been chosen
+	 */
+	private boolean[] solveLong() {
+		int numReqs = costs.length;
+		long[][] maxValues = new long[numReqs + 1][fixedCost + 1];
+
+		for(int i = 1; i <= numReqs; i++) {
+			int cost = costs[i-1];
+			int profit = profits[i-1];
+
+			for(int j = 0; j < cost && j <= fixedCost; j++) {
+				maxValues[i][j] = maxValues[i-1][j];
+			}
+			for(int j = cost; j <= fixedCost; j++) {
+				long prevMax = maxValues[i-1][j];
+				long otherMax = maxValues[i-1][j-cost] + profit;
+				maxValues[i][j] = Math.max(prevMax, otherMax);
+			}
+		}
+
+		boolean[] chosen = new boolean[numReqs];
+		for(int i = numReqs, k = fixedCost; i > 0; i--) {
+			if(maxValues[i][k] != maxValues[i-1][k]) {
+				chosen[i-1] = true;
+				k = k - costs[i-1];
+			}
+		}
+		return chosen;
+	}
+}
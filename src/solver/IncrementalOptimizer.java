@@ -0,0 +1,241 @@
+package solver;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+/** The IncrementalOptimizer keeps the state of the dynamic algorithm between runs, so that the list of
+ * requirements can be changed a few requirements at a time (added, removed, or updated) without solving
+ * the whole problem again.
+ *
+ * The requirements are kept in a fixed order, and the dynamic algorithm is stored as layers: one take/skip
+ * decision bit per requirement and cost constraint (as in BitsetDynamicAlgorithm), plus a checkpoint of the
+ * full row of max profits before every CHECKPOINT_INTERVAL requirements.  Layers only depend on the
+ * requirements before them, so a change at position p only invalidates the layers from p on; re-solving
+ * restarts from the last checkpoint before the earliest change.  The chosen requirements are then rebuilt by
+ * following the decision bits back from the last requirement, in O(n) time.
+ *
+ * New and updated requirements are always placed at the end of the order, so that requirements which
+ * change often collect at the tail, while rarely changed ones settle at the front.  Adding a requirement
+ * costs O(k).  Removing the requirement at position i, or editing it (a removal followed by an addition),
+ * recomputes every layer from the last checkpoint before i, i.e. costs O((n-i)*k): a random edit costs
+ * about half a full solve, and an edit near the front is a full O(n*k) solve.  Only changes to recently
+ * added or edited requirements are cheap.
+ *
+ * The rows of max profits hold long values, so that the profits of any list of requirements can be added up
+ * without overflowing, however the list changes between runs.  The layers and checkpoints grow with the list,
+ * so getMissingMemory() estimates what the next run allocates before it is started (see Menu.watch()).
+ *
+ * @author Michael Camara
+ *
+ */
+public class IncrementalOptimizer {
+
+	// The number of requirements between two checkpoints of the row of max profits
+	private static final int CHECKPOINT_INTERVAL = 256;
+
+	private int fixedCost;							// The fixedCost threshold
+	private ArrayList<Requirement> requirements;	// The current requirements, in the order of the layers
+	private ArrayList<long[]> decisions;			// The decision bits of each requirement
+	private ArrayList<long[]> checkpoints;			// The row of max profits before every CHECKPOINT_INTERVAL requirements
+	private long[] maxValues;						// The row of max profits after the last valid layer
+	private int validLayers;						// The number of requirements whose layer is up to date
+
+	/** Initialize the optimizer with a starting list of requirements.  The layers are computed by the
+	 * first call to optimize().
+	 *
+	 * @param requirements The starting list of requirements (not modified)
+	 * @param fixedCost The fixed cost threshold
+	 */
+	public IncrementalOptimizer(ArrayList<Requirement> requirements, int fixedCost) {
+		this.fixedCost = fixedCost;
+		this.requirements = new ArrayList<Requirement>(requirements);
+		this.decisions = new ArrayList<long[]>();
+		this.checkpoints = new ArrayList<long[]>();
+		this.validLayers = 0;
+	}
+
+	/** Estimate the number of bytes of the decision bits and checkpoints of a number of requirements
+	 *
+	 * @param numReqs The number of requirements
+	 * @param fixedCost The fixed cost threshold
+	 * @return The expected number of bytes of their layers
+	 */
+	public static double expectedMemory(int numReqs, int fixedCost) {
+		double wordsPerRow = (fixedCost >> 6) + 1;
+		double numCheckpoints = (numReqs + CHECKPOINT_INTERVAL - 1) / CHECKPOINT_INTERVAL;
+		return 8.0 * wordsPerRow * numReqs + 8.0 * (fixedCost + 1) * numCheckpoints;
+	}
+
+	/** Estimate the number of bytes the next call to optimize() allocates: the layers and checkpoints that are
+	 * out of date, plus the row it restarts from
+	 *
+	 * @return The expected number of bytes
+	 */
+	public double getMissingMemory() {
+		if(maxValues != null)
+			return expectedMemory(requirements.size(), fixedCost) - expectedMemory(validLayers, fixedCost);
+		int restart = validLayers / CHECKPOINT_INTERVAL * CHECKPOINT_INTERVAL;
+		return expectedMemory(requirements.size(), fixedCost) - expectedMemory(restart, fixedCost) + 8.0 * (fixedCost + 1);
+	}
+
+	/** Drop every layer and checkpoint (e.g. when they no longer fit in memory).  The requirements are kept,
+	 * and the next call to optimize() computes all layers again.
+	 */
+	public void clear() {
+		decisions.clear();
+		checkpoints.clear();
+		maxValues = null;
+		validLayers = 0;
+	}
+
+	/** Add a requirement.  It is placed at the end of the order, so only its own layer needs computing.
+	 *
+	 * @param requirement The requirement to add
+	 */
+	public void add(Requirement requirement) {
+		requirements.add(requirement);
+	}
+
+	/** Remove a requirement, invalidating every layer from its position on
+	 *
+	 * @param requirement The requirement to remove (the same object that was added)
+	 * @throws IllegalArgumentException if the requirement is not part of this optimizer
+	 */
+	public void remove(Requirement requirement) {
+		int position = requirements.indexOf(requirement);
+		if(position < 0)
+			throw new IllegalArgumentException("Requirement " + requirement + " is not part of this optimizer");
+
+		requirements.remove(position);
+		invalidateFrom(position);
+	}
+
+	/** Replace a requirement with an updated version (e.g. with a new cost or benefit).  The updated
+	 * requirement is placed at the end of the order.
+	 *
+	 * @param oldRequirement The requirement to replace (the same object that was added)
+	 * @param newRequirement The updated requirement
+	 * @throws IllegalArgumentException if oldRequirement is not part of this optimizer
+	 */
+	public void update(Requirement oldRequirement, Requirement newRequirement) {
+		remove(oldRequirement);
+		add(newRequirement);
+	}
+
+	/** Bring this optimizer in line with a complete new list of requirements, by only applying the
+	 * differences: requirements that no longer appear (with the same name, cost and benefit) are removed,
+	 * and requirements that did not appear before are added.  An updated requirement therefore counts as
+	 * one removal and one addition.
+	 *
+	 * @param newRequirements The complete new list of requirements
+	 * @return The number of requirements added or removed
+	 */
+	public int synchronize(ArrayList<Requirement> newRequirements) {
+
+		// Count how many times each requirement appears in the new list
+		HashMap<String, Integer> newCounts = new HashMap<String, Integer>();
+		for(Requirement r : newRequirements)
+			newCounts.merge(r.toString(), 1, Integer::sum);
+
+		// Remove current requirements that are not matched by one in the new list
+		ArrayList<Requirement> removed = new ArrayList<Requirement>();
+		for(Requirement r : requirements) {
+			Integer count = newCounts.get(r.toString());
+			if(count == null || count == 0)
+				removed.add(r);
+			else
+				newCounts.put(r.toString(), count - 1);
+		}
+		for(Requirement r : removed)
+			remove(r);
+
+		// Add new requirements that were not matched by a current one
+		int numAdded = 0;
+		for(Requirement r : newRequirements) {
+			Integer count = newCounts.get(r.toString());
+			if(count != null && count > 0) {
+				add(r);
+				newCounts.put(r.toString(), count - 1);
+				numAdded++;
+			}
+		}
+
+		return removed.size() + numAdded;
+	}
+
+	/** Mark every layer from some position on as out of date
+	 *
+	 * @param position The position of the first changed requirement
+	 */
+	private void invalidateFrom(int position) {
+		if(position < validLayers) {
+			validLayers = position;
+			maxValues = null;
+		}
+	}
+
+	/** Determine which requirements yield the maximum profit while staying within the fixed cost,
+	 * recomputing only the layers that have been invalidated since the last call.
+	 *
+	 * @return The combination of requirements determined to yield to maximum possible profit while
+	 * staying within fixed cost
+	 */
+	public ArrayList<Requirement> optimize() {
+		int numReqs = requirements.size();
+		int wordsPerRow = (fixedCost >> 6) + 1;
+
+		// Restart from the last checkpoint at or before the first out of date layer
+		if(maxValues == null) {
+			int checkpoint = validLayers / CHECKPOINT_INTERVAL;
+			validLayers = checkpoint * CHECKPOINT_INTERVAL;
+			maxValues = checkpoint == 0 ? new long[fixedCost + 1] : checkpoints.get(checkpoint).clone();
+		}
+
+		// Drop the layers and checkpoints that are out of date
+		while(decisions.size() > validLayers)
+			decisions.remove(decisions.size() - 1);
+		while(checkpoints.size() > (validLayers + CHECKPOINT_INTERVAL - 1) / CHECKPOINT_INTERVAL)
+			checkpoints.remove(checkpoints.size() - 1);
+
+		// Compute the missing layers, storing a checkpoint before every CHECKPOINT_INTERVAL requirements
+		for(int i = validLayers; i < numReqs; i++) {
+			if(i % CHECKPOINT_INTERVAL == 0)
+				checkpoints.add(maxValues.clone());
+
+			Requirement req = requirements.get(i);
+			int cost = req.getCost();
+			int profit = req.getPerceivedProfit();
+			long[] taken = new long[wordsPerRow];
+
+			for(int j = fixedCost; j >= cost; j--) {
+				long otherMax = maxValues[j - cost] + profit;
+				if(otherMax > maxValues[j]) {
+					maxValues[j] = otherMax;
+					taken[j >> 6] |= 1L << j;
+				}
+			}
+			decisions.add(taken);
+		}
+		validLayers = numReqs;
+
+		// Select the requirements that yield the maximum profit by following the decision bits back
+		ArrayList<Requirement> chosenReqs = new ArrayList<Requirement>();
+		for(int i = numReqs - 1, k = fixedCost; i >= 0; i--) {
+			if((decisions.get(i)[k >> 6] & (1L << k)) != 0) {
+				Requirement chosenReq = requirements.get(i);
+				chosenReqs.add(chosenReq);
+				k = k - chosenReq.getCost();
+			}
+		}
+
+		return chosenReqs;
+	}
+
+	/** Return the current list of requirements, in the order of the layers
+	 *
+	 * @return the current list of requirements
+	 */
+	public ArrayList<Requirement> getRequirements() {
+		return requirements;
+	}
+}
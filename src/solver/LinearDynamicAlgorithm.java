@@ -0,0 +1,113 @@
+package solver;
+
+/** The LinearDynamicAlgorithm solves the same 0-1 knapsack problem as the dynamic algorithm in Optimizer,
+ * but only ever keeps O(k) profit values in memory, where k is the fixed cost.  Instead of storing the
+ * full n*k table and backtracking through it, the chosen requirements are rebuilt through recursive
+ * splitting (in the style of Hirschberg's algorithm):
+ *
+ * The requirements are divided into a left and a right half.  A single forward pass over the left half
+ * gives the best profit for every capacity 0..k, and a single pass over the right half gives the same
+ * for the right half.  The capacity split s which maximizes left[s] + right[k - s] tells how much of the
+ * fixed cost the optimal solution spends on each half, so both halves can then be solved independently
+ * with their share of the capacity.  The recursion continues until a single requirement remains.
+ *
+ * This runs in O(n*k*log n) time in the worst case (and usually close to 2*n*k, since the capacity of
+ * each sub-problem shrinks), but only uses O(n + k) space.
+ *
+ * @author Michael Camara
+ *
+ */
+public class LinearDynamicAlgorithm {
+
+	private int[] costs;		// The cost of each requirement
+	private int[] profits;		// The perceived profit of each requirement
+	private int fixedCost;		// The fixedCost threshold the chosen requirements cannot cumulatively exceed
+	private boolean[] chosen;	// Indicate which requirements have been chosen
+
+	/** Initialize the algorithm using the cost and perceived profit of each requirement
+	 *
+	 * @param costs The cost of each requirement
+	 * @param profits The perceived profit of each requirement
+	 * @param fixedCost The fixed cost threshold
+	 */
+	public LinearDynamicAlgorithm(int[] costs, int[] profits, int fixedCost) {
+		this.costs = costs;
+		this.profits = profits;
+		this.fixedCost = fixedCost;
+	}
+
+	/** Determine which requirements yield the maximum profit while staying within the fixed cost.
+	 *
+	 * @return An array indicating for each requirement whether it has been chosen
+	 */
+	public boolean[] solve() {
+		chosen = new boolean[costs.length];
+		if(costs.length > 0)
+			select(0, costs.length, fixedCost);
+		return chosen;
+	}
+
+	/** Recursively choose the optimal requirements from the range [from, to) given some capacity.
+	 *
+	 * @param from The first requirement in the range (inclusive)
+	 * @param to The last requirement in the range (exclusive)
+	 * @param capacity The amount of the fixed cost available to this range
+	 */
+	private void select(int from, int to, int capacity) {
+
+		// A single requirement is chosen whenever it fits and generates a profit
+		if(to - from == 1) {
+			chosen[from] = costs[from] <= capacity && profits[from] > 0;
+			return;
+		}
+
+		int mid = (from + to) >>> 1;
+
+		// Find the best profit for every capacity using only the left or only the right half
+		int[] left = maxProfits(from, mid, capacity);
+		int[] right = maxProfits(mid, to, capacity);
+
+		// Find how much capacity the optimal solution should give to the left half
+		int split = 0;
+		int best = -1;
+		for(int s = 0; s <= capacity; s++) {
+			int profit = left[s] + right[capacity - s];
+			if(profit > best) {
+				best = profit;
+				split = s;
+			}
+		}
+
+		// Release both rows before recursing so that only O(k) values are ever kept at once
+		left = null;
+		right = null;
+
+		select(from, mid, split);
+		select(mid, to, capacity - split);
+	}
+
+	/** Compute the maximum profit for every capacity 0..capacity using only the requirements in the
+	 * range [from, to).  A single row is updated in place, iterating over capacities from high to low
+	 * so that each requirement is counted at most once.
+	 *
+	 * @param from The first requirement in the range (inclusive)
+	 * @param to The last requirement in the range (exclusive)
+	 * @param capacity The largest capacity to consider
+	 * @return The maximum profit for every capacity 0..capacity
+	 */
+	private int[] maxProfits(int from, int to, int capacity) {
+		int[] row = new int[capacity + 1];
+
+		for(int i = from; i < to; i++) {
+			int cost = costs[i];
+			int profit = profits[i];
+			for(int j = capacity; j >= cost; j--) {
+				int otherMax = row[j - cost] + profit;
+				if(otherMax > row[j])
+					row[j] = otherMax;
+			}
+		}
+
+		return row;
+	}
+}
@@ -0,0 +1,70 @@
+package solver;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+
+/** MappedNames resolves the names of requirements that are still held in the memory-mapped input file.
+ * Rather than decoding every name into a String while loading, a RequirementSet can record where each name
+ * is stored (its offset in the file and its length in bytes), and decode it through this class only when
+ * the name is actually needed, i.e. for the requirements that are output.
+ *
+ * The file may be mapped as several buffers (e.g. one per chunk parsed by MappedRequirementParser), each
+ * covering a range of the file starting at a known position.  A name never spans two buffers.  The buffers
+ * stay valid after their file channel is closed, but the file should not be changed while its names are
+ * still resolved.
+ *
+ * @author Michael Camara
+ *
+ */
+public class MappedNames {
+
+	private long[] starts;			// The file position of the first byte of each buffer
+	private ByteBuffer[] buffers;	// The mapped buffers, in ascending order of their start
+	private Charset charset;		// The charset used to decode the names
+
+	/** Create an empty table of buffers, to be filled in through setBuffer()
+	 *
+	 * @param numBuffers The number of buffers covering the file
+	 * @param charset The charset used to decode the names
+	 */
+	public MappedNames(int numBuffers, Charset charset) {
+		this.starts = new long[numBuffers];
+		this.buffers = new ByteBuffer[numBuffers];
+		this.charset = charset;
+	}
+
+	/** Set one of the buffers covering the file.  Buffers must be set in ascending order of their start
+	 * (each buffer can be set by a different thread, as long as all are set before names are resolved).
+	 *
+	 * @param index The index of the buffer
+	 * @param start The file position of the first byte of the buffer
+	 * @param buffer The mapped buffer
+	 */
+	public void setBuffer(int index, long start, ByteBuffer buffer) {
+		starts[index] = start;
+		buffers[index] = buffer;
+	}
+
+	/** Decode the name stored at a given position of the file
+	 *
+	 * @param offset The file position of the first byte of the name
+	 * @param length The number of bytes of the name
+	 * @return The decoded name
+	 */
+	public String getName(long offset, int length) {
+
+		// Find the last buffer starting at or before the name
+		int low = 0, high = starts.length - 1;
+		while(low < high) {
+			int middle = (low + high + 1) >>> 1;
+			if(starts[middle] <= offset)
+				low = middle;
+			else
+				high = middle - 1;
+		}
+
+		byte[] name = new byte[length];
+		buffers[low].get((int) (offset - starts[low]), name, 0, length);
+		return new String(name, charset);
+	}
+}
@@ -1,14 +1,17 @@
 package solver;
 
+import input.InputWatcher;
 import input.JCommanderInput;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.NoSuchElementException;
 
 import output.Output;
-import util.Timer;
+import util.Metrics;
 
 import com.beust.jcommander.JCommander;
+import com.beust.jcommander.ParameterException;
 
 /** Program execution begins here.  This system is meant to serve as a "next release solver," which will help
  * determine which list of requirements should be included in the next release of a system given some threshold
@@ -16,14 +19,14 @@ import com.beust.jcommander.JCommander;
  * 
  * The list of requirements is read from an external file through JCommanderInput ("input.csv" by default, 
  * but this can be changed through command line arguments--see JCommanderInput for details).  Once all of the
- * requirements have been parsed, they are sent to the Optimizer class, which automatically determines the most
- * optimal algorithm to use given the memory space available.  Two algorithms are possible: a greedy algorithm,
- * which works in O(n) time and space where n = number of requirements, and a dynamic algorithm which works 
- * in O(n*k) time and space, where k is the fixed cost.  The dynamic algorithm will tend to generate a more 
- * optimal solution (i.e. a list of requirements that maximizes the amount of profit, while staying within 
- * fixed cost), but tends to use more memory overhead to do so.  The Optimizer will estimate the amount of
- * memory needed, and always choose the dynamic algorithm if there is enough space; otherwise the greedy
- * algorithm is used.
+ * requirements have been parsed, they are reduced by the Preprocessor (which removes requirements that can
+ * never be part of an optimal solution) and then sent to the Optimizer class, whose AlgorithmPlanner
+ * estimates the time and memory of each algorithm from the number of requirements n, the fixed cost k and
+ * the total profit before any memory is allocated.  The planner runs the algorithm requested by the user if
+ * it fits in the memory budget; otherwise the fastest exact algorithm that fits (one of the dynamic
+ * algorithms, which work in about O(n*k) time); otherwise the approximation algorithm with the smallest error
+ * bound that fits; and otherwise the greedy algorithm, which works in O(n) time and space but does not
+ * guarantee the maximum profit.
  * 
  * Once the optimal list of requirements is chosen, the list is sent to the Output class which prints it to
  * an external output file (output.csv by default) and displays it in the console window.
@@ -34,8 +37,9 @@ public class Menu {
 
 	public static void main(String[] args) throws IOException {
 		
-		// Start timer for input
-		Timer.inputStart();
+		// Start recording the cost of the solve, beginning with the input
+		Metrics metrics = new Metrics();
+		metrics.start(Metrics.PARSE);
 		
 		// Instantiate JCommander components for accepting user-input
 		JCommanderInput input = new JCommanderInput();
@@ -50,25 +54,181 @@ public class Menu {
 			return;
 		}
 		
+		// If user has specified server mode, solve the requirement lists sent over HTTP instead of the input file
+		if(input.getServePort() > 0) {
+			SolverServer server = new SolverServer(input.getServePort(), input.getMaxConcurrent(), args);
+			server.start();
+			System.out.println("Serving requirement lists on http://localhost:" + server.getPort() + "/solve");
+			return;
+		}
+		
+		// If user has specified batch mode, solve every job of the manifest instead of the input file
+		if(input.getBatchFile() != null) {
+			new BatchRunner(input.getBatchFile(), input.getMaxConcurrent(), args).run(input.getSummaryFile());
+			return;
+		}
+		
 		// Store list of requirements containing cost and benefit information
 		// NOTE: All requirements in this list have a profit > 0
-		ArrayList<Requirement> requirements = input.getRequirements();
+		RequirementSet requirements = input.getRequirements();
+		metrics.count("inputRequirements", input.getTotalNumRequirements());
+		metrics.count("profitableRequirements", requirements.size());
 		
 		// Store fixed cost, indicating maximum cumulative cost for chosen requirements
 		int fixedCost = input.getFixedCost();
 		
-		// Start timer for optimal requirement selection
-		Timer.selectionStart();
+		// If user has specified sweep mode, solve every budget up to the fixed cost at once
+		if(input.getSweepFile() != null) {
+			metrics.start(Metrics.SOLVE);
+			metrics.setAlgorithm("Budget Sweep");
+			BudgetSweep sweep = new BudgetSweep(requirements, fixedCost, input.getMaxMemory());
+			
+			metrics.start(Metrics.OUTPUT);
+			new Output(requirements, fixedCost, input).outputSweep(sweep);
+			report(input, metrics);
+			return;
+		}
 		
-		// Determine which combination of requirements yield the maximal profit
-		Optimizer optimizer = new Optimizer(requirements, fixedCost, input.getGreedyChoice());
-		ArrayList<Requirement> chosenReqs = optimizer.optimize();
+		// If user has specified watch mode, keep re-optimizing as the input file changes
+		if(input.isWatch()) {
+			watch(input, requirements, fixedCost, metrics);
+			return;
+		}
 		
-		// Start timer for output creation
-		Timer.outputStart();
+		solve(input, requirements, metrics);
+	}
+	
+	/** Select the profit maximizing requirements within the fixed cost entered by the user, and output them
+	 * 
+	 * @param input The JCommanderInput object handling user input
+	 * @param requirements The set of requirements parsed from the input file
+	 * @return The chosen requirements
+	 * @throws IOException if unable to create the output file
+	 */
+	static ArrayList<Requirement> solve(JCommanderInput input, RequirementSet requirements) throws IOException {
+		return solve(input, requirements, new Metrics());
+	}
+	
+	/** Select and output the requirements as solve() does, recording the cost of each phase in the given
+	 * metrics, which are then shown (with -t) and written (with --metrics)
+	 * 
+	 * @param input The JCommanderInput object handling user input
+	 * @param requirements The set of requirements parsed from the input file
+	 * @param metrics The metrics of the solve, possibly holding the parse phase already
+	 * @return The chosen requirements
+	 * @throws IOException if unable to create the output file or the metrics file
+	 */
+	static ArrayList<Requirement> solve(JCommanderInput input, RequirementSet requirements, Metrics metrics) throws IOException {
+		int fixedCost = input.getFixedCost();
+		
+		// Reduce the list of requirements without changing the maximal profit
+		metrics.start(Metrics.PREPROCESS);
+		Preprocessor preprocessor = new Preprocessor(requirements, fixedCost);
+		metrics.count("reducedRequirements", preprocessor.getReducedRequirements().size());
+		metrics.count("fixedRequirements", preprocessor.getFixedRequirements().size());
+		
+		// Determine which combination of the remaining requirements yield the maximal profit
+		Optimizer optimizer = new Optimizer(preprocessor.getReducedRequirements(), fixedCost, input.getGreedyChoice());
+		optimizer.setCostDivisor(preprocessor.getCostDivisor());
+		optimizer.setAlgorithm(input.getAlgorithm());
+		optimizer.setThreads(input.getThreads());
+		optimizer.setEpsilon(input.getEpsilon());
+		optimizer.setMaxMemory(input.getMaxMemory());
+		optimizer.setTableDirectory(input.getTableDirectory());
+		optimizer.setMetrics(metrics);
+		ArrayList<Requirement> chosenReqs = optimizer.optimize();
+		chosenReqs.addAll(preprocessor.getFixedRequirements().toList());
+		metrics.count("chosenRequirements", chosenReqs.size());
 		
 		// Create Output object for displaying results
+		metrics.start(Metrics.OUTPUT);
 		Output o = new Output(requirements, fixedCost, input);
-		o.output(chosenReqs, optimizer.getChosenAlgorithm());
+		o.output(chosenReqs, optimizer.getChosenAlgorithm(), optimizer.getGuarantee(), optimizer.getPlan());
+		report(input, metrics);
+		return chosenReqs;
+	}
+	
+	/** End the last phase of a solve, then show its metrics if timer mode has been selected at startup, and
+	 * write them if a metrics file has been indicated
+	 * 
+	 * @param input The JCommanderInput object handling user input
+	 * @param metrics The metrics of the solve
+	 * @throws IOException if unable to create the metrics file
+	 */
+	private static void report(JCommanderInput input, Metrics metrics) throws IOException {
+		metrics.stop();
+		if(input.getTimerInfo())
+			metrics.print();
+		if(input.getMetricsFile() != null)
+			metrics.write(input.getMetricsFile(), input.getMetricsFormat());
+	}
+	
+	/** Select the requirements, then wait for the input file to change and update the selection, until the
+	 * program is stopped.  The state of the dynamic algorithm is kept by an IncrementalOptimizer between
+	 * changes, so that only the requirements which were added, removed, or edited are recomputed.  If the
+	 * layers it needs to compute do not fit in the memory budget, its state is dropped and the selection is
+	 * planned as a normal solve instead.
+	 * 
+	 * @param input The JCommanderInput object handling user input
+	 * @param requirements The set of requirements parsed from the input file
+	 * @param fixedCost The fixed cost threshold
+	 * @param metrics The metrics of the first selection, holding its parse phase
+	 * @throws IOException if unable to watch the input file or create the output file
+	 */
+	private static void watch(JCommanderInput input, RequirementSet requirements, int fixedCost, Metrics metrics) throws IOException {
+		InputWatcher watcher = new InputWatcher(input.getInputFile());
+		IncrementalOptimizer optimizer = new IncrementalOptimizer(requirements.toList(), fixedCost);
+		
+		while(true) {
+			
+			// Fall back to a planned solve if the layers that are out of date do not fit in memory
+			AlgorithmPlanner planner = new AlgorithmPlanner(requirements.size(), fixedCost, requirements.getTotalProfit(), 1);
+			planner.setMaxMemory(input.getMaxMemory());
+			if(!planner.fitsMemory(optimizer.getMissingMemory())) {
+				System.out.println("The incremental dynamic algorithm does not fit in the memory budget; planning a full solve instead\n");
+				optimizer.clear();
+				solve(input, requirements, metrics);
+			}
+			else {
+				
+				// Announce that selection process has begun
+				System.out.println("Selecting profit maximizing requirements given fixed cost of " + fixedCost + "...\n");
+				metrics.start(Metrics.SOLVE);
+				metrics.setAlgorithm("Incremental Dynamic");
+				ArrayList<Requirement> chosenReqs = optimizer.optimize();
+				metrics.count("chosenRequirements", chosenReqs.size());
+				
+				metrics.start(Metrics.OUTPUT);
+				new Output(requirements, fixedCost, input).output(chosenReqs, "Incremental Dynamic", "Maximum profit");
+				report(input, metrics);
+			}
+			
+			// Wait for the next valid version of the input file, and apply only its differences
+			System.out.println("\nWatching " + input.getInputFile() + " for changes...");
+			while(true) {
+				try {
+					watcher.waitForChange();
+				} catch (InterruptedException e) {
+					return;
+				}
+				
+				// Record each selection in new metrics, from the parse of the changed file on
+				metrics = new Metrics();
+				metrics.start(Metrics.PARSE);
+				try {
+					requirements = input.getRequirements();
+				} catch (ParameterException | NoSuchElementException e) {
+					System.out.println("Could not read the changed input file: " + e.getMessage());
+					continue;
+				}
+				metrics.count("inputRequirements", input.getTotalNumRequirements());
+				metrics.count("profitableRequirements", requirements.size());
+				
+				metrics.start(Metrics.SOLVE);
+				int numChanges = optimizer.synchronize(requirements.toList());
+				System.out.println(numChanges + " requirement(s) added or removed");
+				break;
+			}
+		}
 	}
-}
\ No newline at end of file
+}
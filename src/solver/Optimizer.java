@@ -1,7 +1,10 @@
 package solver;
 
+import java.io.File;
 import java.util.ArrayList;
 
+import util.Metrics;
+
 /** The Optimizer class first determines which algorithm should be used to select the most optimal list
  * of requirements, and then it runs that specified algorithm to select such requirements.
  * 
@@ -9,45 +12,91 @@ import java.util.ArrayList;
  * of requirements, and a dynamic algorithm which works in O(n*k) time and space, where k is the fixed
  * cost.  The dynamic algorithm will tend to generate a more optimal solution (i.e. a list of 
  * requirements that maximizes the amount of profit, while staying within fixed cost), but tends to 
- * use more memory overhead to do so.  The hasEnoughSpace() method will estimate the amount of memory 
- * needed, and always choose the dynamic algorithm if there is enough space; otherwise the greedy 
- * algorithm is used.  This ensures that even if the "better" dynamic algorithm cannot be used due
- * to space constraints, the user is still able to get a valid list of requirements that attempts
- * to maximize profits.
+ * use more memory overhead to do so.  The AlgorithmPlanner estimates the time and memory of every
+ * algorithm before anything is allocated, and chooses the fastest exact algorithm that fits in the memory
+ * budget (e.g. the full table, a bit-packed version (see BitsetDynamicAlgorithm), or a linear memory version
+ * (see LinearDynamicAlgorithm) of the dynamic algorithm).  If no exact algorithm fits, the approximation
+ * algorithm and finally the greedy algorithm are used.  This ensures that even if the "better" dynamic
+ * algorithm cannot be used due to space constraints, the user is still able to get a valid list of
+ * requirements that attempts to maximize profits.
+ * 
+ * The requirements are held in a RequirementSet, so the algorithms copy costs and profits out of
+ * primitive arrays, and Requirement objects are only created for the chosen requirements.
+ * 
+ * The algorithms with int profits (bitset, parallel, profit, linear and disk-backed dynamic) check the total
+ * perceived profit before they run, even when called directly rather than through optimize(), and throw a
+ * ParameterException if their profits could overflow (see AlgorithmPlanner.requireProfitBound()).
  * 
  * @author Michael Camara
  *
  */
 public class Optimizer {
 
-	// The original list of requirements
-	private ArrayList<Requirement> requirements;
+	// The original set of requirements
+	private RequirementSet requirements;
 	
 	// The fixedCost threshold the chosen requirements cannot cumulatively exceed
 	private int fixedCost;
 	
-	// A string representation of the algorithm chosen ("greedy" or "dynamic")
+	// The common divisor of all requirement costs, which the dynamic algorithms divide costs by
+	private int costDivisor = 1;
+	
+	// The fixed cost in units of costDivisor, i.e. the capacity seen by the dynamic algorithms
+	private int capacity;
+	
+	// A string representation of the algorithm chosen (e.g. "Greedy" or "Dynamic")
 	private String chosenAlgorithm;
 	
 	// Indicate if user has chosen to force using greedy algorithm instead of the dynamic
 	private boolean forceGreedy;
+	
+	// The algorithm requested by the user ("auto" lets the Optimizer decide)
+	private String algorithm = "auto";
+	
+	// The number of threads the parallel dynamic and branch-and-bound algorithms may use
+	private int threads = 1;
+	
+	// The maximum relative error allowed for the approximation algorithm (0 requires an exact result)
+	private double epsilon = 0;
+	
+	// The memory budget of the chosen algorithm in bytes (0 uses the free heap of the JVM)
+	private long maxMemory = 0;
+	
+	// The directory of the disk-backed dynamic table (null for the default temporary directory)
+	private File tableDirectory = null;
+	
+	// The reasoning of the AlgorithmPlanner behind the chosen algorithm
+	private ArrayList<String> plan = new ArrayList<String>();
+	
+	// The metrics of the solve, which record the plan, solve and reconstruct phases (null records nothing)
+	private Metrics metrics = null;
 
 	/** Initialize Optimizer using the original list of requirements and specified fixed cost
 	 * 
-	 * @param requirements The original list of requirements
+	 * @param requirements The original list of requirements (not modified)
 	 * @param fixedCost The fixed cost threshold
 	 */
 	public Optimizer(ArrayList<Requirement> requirements, int fixedCost, boolean forceGreedy) {
+		this(new RequirementSet(requirements), fixedCost, forceGreedy);
+	}
+
+	/** Initialize Optimizer using the original set of requirements and specified fixed cost
+	 * 
+	 * @param requirements The original set of requirements (not modified)
+	 * @param fixedCost The fixed cost threshold
+	 */
+	public Optimizer(RequirementSet requirements, int fixedCost, boolean forceGreedy) {
 		this.requirements = requirements;
 		this.fixedCost = fixedCost;
+		this.capacity = fixedCost;
 		this.forceGreedy = forceGreedy;
 	}
 
-	/** This method decides which algorithm should be used with the original list of requirements.
-	 * It attempts to choose the dynamic algorithm first (which should yield the most optimal
-	 * result), but it will switch to the greedy algorithm if not enough space is detected
-	 * (through the hasEnoughSpace() method, which estimates the amount of JVM free space
-	 * before memory allocation).
+	/** This method decides which algorithm should be used with the original list of requirements, and
+	 * runs it.  The decision is made by an AlgorithmPlanner from estimates of the time and memory of each
+	 * algorithm, before any memory is allocated: the requested (or otherwise fastest) exact algorithm that
+	 * fits in the memory budget is used, and if none fits, the approximation algorithm and finally the
+	 * greedy algorithm are used instead.
 	 * 
 	 * @return The chosen combination of requirements generated by one of the algorithms
 	 */
@@ -56,124 +105,210 @@ public class Optimizer {
 		// Announce that selection process has begun
 		System.out.println("Selecting profit maximizing requirements given fixed cost of " + fixedCost + "...\n");
 
-		// Contain list of profit-maximizing requirements
-		ArrayList<Requirement> optimalReqs = new ArrayList<Requirement>();
-		
-		// If user has specified during startup to force the greedy algorithm, use that one
-		if(forceGreedy == true) {
-			optimalReqs = useGreedy();
-			chosenAlgorithm = "Greedy";
+		// Plan which algorithm to use
+		startPhase(Metrics.PLAN);
+		AlgorithmPlanner planner = new AlgorithmPlanner(requirements.size(), capacity, requirements.getTotalProfit(), threads);
+		planner.setMaxMemory(maxMemory);
+		planner.setTableDirectory(tableDirectory);
+		String plannedAlgorithm = planner.plan(forceGreedy ? "greedy" : algorithm, epsilon);
+		plan = planner.getReasoning();
+		chosenAlgorithm = AlgorithmPlanner.getName(plannedAlgorithm);
+		if(metrics != null) {
+			metrics.setAlgorithm(chosenAlgorithm);
+			// Only the algorithms that allocate the full table (in memory or on disk) count its cells, while the
+			// linear algorithm only keeps the left and right rows of its current split
+			if(plannedAlgorithm.equals("dynamic") || plannedAlgorithm.equals("bitset") || plannedAlgorithm.equals("parallel")
+					|| plannedAlgorithm.equals("disk"))
+				metrics.count("tableCells", (long) requirements.size() * (capacity + 1));
+			else if(plannedAlgorithm.equals("linear"))
+				metrics.count("rowCells", 2L * (capacity + 1));
 		}
 		
-		// Otherwise always begin with the dynamic algorithm
-		else {
-			try {
-				optimalReqs = useDynamic();
-				chosenAlgorithm = "Dynamic";
-			}
-			
-			// If out of memory error encountered, automatically switch to greedy algorithm
-			catch(OutOfMemoryError e) {
-				optimalReqs = useGreedy();
-				chosenAlgorithm = "Greedy";
-			}
+		// Run the planned algorithm
+		startPhase(Metrics.SOLVE);
+		switch(plannedAlgorithm) {
+		case "dynamic":
+			return useDynamic();
+		case "bitset":
+			return useBitsetDynamic();
+		case "parallel":
+			return useParallelDynamic();
+		case "profit":
+			return useProfitDynamic();
+		case "linear":
+			return useLinearDynamic();
+		case "disk":
+			return useDiskDynamic();
+		case "branch":
+			return useBranchAndBound();
+		case "core":
+			return useCore();
+		case "pareto":
+			return usePareto();
+		case "approximation":
+			epsilon = planner.getEpsilon();
+			return useApproximation();
+		default:
+			return useGreedy();
 		}
+	}
 
-		return optimalReqs;
+	/** This method using a dynamic algorithm to determine which requirements should be selected
+	 * that maximize profit while staying within the fixed cost threshold.  Expected to run in
+	 * O(n*k) time and space, where n = number of requirements and k = fixed cost.  The table holds
+	 * short, int or long values, whichever is the narrowest type that can hold the total perceived
+	 * profit (see DynamicAlgorithm for details).
+	 * 
+	 * @return The combination of requirements determined to yield to maximum possible profit while
+	 * staying within fixed cost
+	 * @author Original algorithm taken from Hans Kellerer, Ulrich Pferschy, and David Pisinger in
+	 * their book, Knapsack Problems (2004).  Interpreted into Java by Michael Camara.
+	 */
+	public ArrayList<Requirement> useDynamic() {
+		DynamicAlgorithm dynamic = new DynamicAlgorithm(requirements.getCosts(costDivisor), requirements.getProfits(), capacity);
+		return getChosenRequirements(requirements, dynamic.solve());
 	}
 
-	/** This method estimates the amount of space needed to perform the dynamic selection algorithm.
-	 * Due to the arbitrary nature of garbage collection in Java and the inaccuracy of direct
-	 * runtime memory queries, this is meant only as a broad estimate.  However, it should be accurate
-	 * enough to determine the amount of memory needed to create the large data structure for the
-	 * dynamic algorithm, and then determine a ratio of expected memory usage.
+	/** This method uses the same dynamic algorithm as useDynamic(), but only keeps a single row of
+	 * profit values plus one take/skip bit per requirement and cost (see BitsetDynamicAlgorithm for
+	 * details).  This is all the backtrack needs, so the table uses about 32 times less memory than
+	 * the int matrix of useDynamic().  Expected to run in O(n*k) time and O(n*k/8) bytes of space.
 	 * 
-	 * @return false if the ratio of free memory usage after the dynamic algorithm is expected to be
-	 * too small; true if the ratio of free memory usage after the dynamic algorithm appears sufficient
+	 * @return The combination of requirements determined to yield to maximum possible profit while
+	 * staying within fixed cost
 	 */
-	public boolean hasEnoughSpace() {
-	
-		// Allow current instance of JVM to be accessed
-		Runtime runtime = Runtime.getRuntime();
-	
-		// Calculate the expected number of bytes to be used by maxValues matrix
-		double expectedUsedMem = 4.0 * (fixedCost + 1) * (requirements.size() + 1);
-	
-		// Determine the (approximate) max and currently allocated memory of JVM
-		double allocatedMem = runtime.totalMemory();
-		double maxMem = runtime.maxMemory();
-	
-		// Calculate the ratio of expected available memory 
-		double expectedMemRatio = (maxMem - allocatedMem - expectedUsedMem) / maxMem;
+	public ArrayList<Requirement> useBitsetDynamic() {
+		AlgorithmPlanner.requireProfitBound("bitset", requirements.getTotalProfit());
+		BitsetDynamicAlgorithm bitset = new BitsetDynamicAlgorithm(requirements.getCosts(costDivisor), requirements.getProfits(), capacity);
+		return getChosenRequirements(requirements, bitset.solve());
+	}
 
-		// Debugging statement: Display ratio of expected available memory
-//		System.out.println("Available memory ratio: " + expectedMemRatio);
+	/** This method uses the same algorithm as useBitsetDynamic(), but evaluates the cells of each row
+	 * on several threads (see ParallelDynamicAlgorithm for details).  Fixed costs that are too small to
+	 * benefit from parallelism are solved sequentially.  Expected to run in O(n*k/t) time where t is the
+	 * number of threads, and O(n*k/8) bytes of space.
+	 * 
+	 * @return The combination of requirements determined to yield to maximum possible profit while
+	 * staying within fixed cost
+	 */
+	public ArrayList<Requirement> useParallelDynamic() {
+		AlgorithmPlanner.requireProfitBound("parallel", requirements.getTotalProfit());
+		ParallelDynamicAlgorithm parallel = new ParallelDynamicAlgorithm(requirements.getCosts(costDivisor), requirements.getProfits(), capacity, threads);
+		return getChosenRequirements(requirements, parallel.solve());
+	}
 
-		// Indicate insufficient space if available memory ratio is too low
-		if(expectedMemRatio < 0.02) {
-			//			System.out.println("Insufficient memory: Greedy algorithm chosen.\n");			
-			return false;
-		}
-		else {
-			//			System.out.println("Sufficient memory: Dynamic algorithm chosen.\n");
-			return true;
-		}
+	/** This method uses a dynamic algorithm indexed by profit rather than cost: for every total profit it
+	 * keeps the minimum cost needed to reach it (see ProfitDynamicAlgorithm for details).  Expected to run
+	 * in O(n*P) time and O(n*P/8) bytes of space, where P is the total perceived profit of all
+	 * requirements, independently of the fixed cost.  P should be smaller than Integer.MAX_VALUE.
+	 * 
+	 * @return The combination of requirements determined to yield to maximum possible profit while
+	 * staying within fixed cost
+	 */
+	public ArrayList<Requirement> useProfitDynamic() {
+		AlgorithmPlanner.requireProfitBound("profit", requirements.getTotalProfit());
+		ProfitDynamicAlgorithm profit = new ProfitDynamicAlgorithm(requirements.getCosts(costDivisor), requirements.getProfits(), capacity);
+		return getChosenRequirements(requirements, profit.solve());
 	}
 
-	/** This method using a dynamic algorithm to determine which requirements should be selected
-	 * that maximize profit while staying within the fixed cost threshold.  Expected to run in
-	 * O(n*k) time and space, where n = number of requirements and k = fixed cost.
+	/** This method uses a dynamic algorithm that determines the same profit maximizing requirements as
+	 * useDynamic(), but only keeps O(k) profit values in memory instead of the full O(n*k) table.  The
+	 * chosen requirements are rebuilt by recursively splitting the list in half (see LinearDynamicAlgorithm
+	 * for details).  Expected to run in roughly twice the time of useDynamic(), while using O(n + k) space.
 	 * 
 	 * @return The combination of requirements determined to yield to maximum possible profit while
 	 * staying within fixed cost
-	 * @author Original algorithm taken from Hans Kellerer, Ulrich Pferschy, and David Pisinger in
-	 * their book, Knapsack Problems (2004).  Interpreted into Java by Michael Camara.
 	 */
-	public ArrayList<Requirement> useDynamic() {
-	
-		// Quickly check if JVM has enough space to perform this algorithm;
-		// will throw OutOfMemory error if insufficient *before* memory allocation begins next
-		if(hasEnoughSpace() == false)
-			throw new OutOfMemoryError();
-	
-		// Contain list of chosen requirements using Dynamic algorithm		
-		ArrayList<Requirement> chosenReqs = new ArrayList<Requirement>();
-	
-		// Contain the max profits for each requirement and each possible cost constraint
-		// NOTE: all values initialized to zero
-		int [][] maxValues = new int[requirements.size()+1][fixedCost + 1];
-	
-		// Add null first requirement to list (to prevent off-by-1 error in algorithm)
-		requirements.add(0,null);
-	
-		// Use algorithm for dynamic 0-1 knapsack problem to determine maximum possible profit
-		// given constraint of fixedCost
-		for(int i = 1; i < requirements.size(); i++) {
-	
-			Requirement req = requirements.get(i);
-			int cost = req.getCost();
+	public ArrayList<Requirement> useLinearDynamic() {
+		AlgorithmPlanner.requireProfitBound("linear", requirements.getTotalProfit());
+		LinearDynamicAlgorithm linear = new LinearDynamicAlgorithm(requirements.getCosts(costDivisor), requirements.getProfits(), capacity);
+		return getChosenRequirements(requirements, linear.solve());
+	}
+
+	/** This method uses the same algorithm as useBitsetDynamic(), but writes the decision bits of every
+	 * requirement to a temporary file, and reads them back in reverse for the backtrack (see
+	 * DiskDynamicAlgorithm for details).  The size of the table is therefore limited by the disk instead of
+	 * the heap.  Expected to run in O(n*k) time plus the time to write n*k/8 bytes, using O(n + k) memory.
+	 * 
+	 * @return The combination of requirements determined to yield to maximum possible profit while
+	 * staying within fixed cost
+	 */
+	public ArrayList<Requirement> useDiskDynamic() {
+		AlgorithmPlanner.requireProfitBound("disk", requirements.getTotalProfit());
+		DiskDynamicAlgorithm disk = new DiskDynamicAlgorithm(requirements.getCosts(costDivisor), requirements.getProfits(), capacity, tableDirectory);
+		return getChosenRequirements(requirements, disk.solve());
+	}
+
+	/** This method uses a branch-and-bound algorithm to determine the optimal requirements without any
+	 * table indexed by cost (see BranchAndBoundAlgorithm for details).  The requirements are searched in
+	 * the same profit/cost ratio order used by the greedy algorithm, and each branch is pruned using the
+	 * Dantzig upper bound.  Run time is exponential in the worst case but tracks the hardness of the
+	 * instance rather than the fixed cost, and space is O(n) per thread.
+	 * 
+	 * @return The combination of requirements determined to yield to maximum possible profit while
+	 * staying within fixed cost
+	 */
+	public ArrayList<Requirement> useBranchAndBound() {
 	
-			// OR!! for(int j = 0; j < cost - 1 && j < fixedCost; j++) {
-			for(int j = 0; j < cost - 1; j++) {
-				maxValues[i][j] = maxValues[i-1][j];
-			}
-			for(int j = cost; j <= fixedCost; j++) {
-				int prevMax = maxValues[i-1][j];
-				int otherMax = maxValues[i-1][j-cost] + req.getPerceivedProfit();
-				maxValues[i][j] = Math.max(prevMax, otherMax);
-			}
-		}
+		// Search the requirements in descending order of profit/cost ratio, leaving the original list as is
+		RequirementSet sortedReqs = requirements.sortedByRatio();
+		
+		BranchAndBoundAlgorithm branch = new BranchAndBoundAlgorithm(sortedReqs.getCosts(costDivisor), sortedReqs.getProfits(), capacity, threads);
+		return getChosenRequirements(sortedReqs, branch.solve());
+	}
+
+	/** This method uses a core based algorithm (Pisinger's minknap) to determine the optimal requirements,
+	 * only running the dynamic algorithm over a small core of requirements around the greedy break
+	 * requirement, which is expanded until optimality is proven (see CoreAlgorithm for details).  The
+	 * requirements are ordered by the same profit/cost ratio used by the greedy algorithm.  Expected to run
+	 * in O(n log n) time for the sort plus time and space proportional to the number of undominated states
+	 * in the core, which is usually far smaller than O(n*k).
+	 * 
+	 * @return The combination of requirements determined to yield to maximum possible profit while
+	 * staying within fixed cost
+	 */
+	public ArrayList<Requirement> useCore() {
 	
-		// Select the requirements that yield the maximum profit as calculated above
-		for(int i = requirements.size() - 1, k = fixedCost; i > 0; i--) {
-			if(maxValues[i][k] != maxValues[i-1][k]) {
-				Requirement chosenReq = requirements.get(i);
-				chosenReqs.add(chosenReq);
-				k = k - chosenReq.getCost();
-			}
-		}
+		// Order the requirements by profit/cost ratio, leaving the original list as is
+		RequirementSet sortedReqs = requirements.sortedByRatio();
+		
+		CoreAlgorithm core = new CoreAlgorithm(sortedReqs.getCosts(costDivisor), sortedReqs.getProfits(), capacity);
+		return getChosenRequirements(sortedReqs, core.solve());
+	}
+
+	/** This method uses sparse dynamic programming (Nemhauser-Ullmann) to determine the optimal requirements,
+	 * keeping only the list of Pareto-optimal (cost, profit) states instead of a dense row for every cost
+	 * (see ParetoAlgorithm for details).  Expected to run in O(n*s) time and O(n + s) space, where s is the
+	 * number of Pareto-optimal states (at most k + 1, but usually far fewer for large fixed costs or sparse
+	 * costs).
+	 * 
+	 * @return The combination of requirements determined to yield to maximum possible profit while
+	 * staying within fixed cost
+	 */
+	public ArrayList<Requirement> usePareto() {
+		ParetoAlgorithm pareto = new ParetoAlgorithm(requirements.getCosts(costDivisor), requirements.getProfits(), capacity);
+		boolean[] chosen = pareto.solve();
+		if(metrics != null)
+			metrics.count("paretoStates", pareto.getNumStates());
+		return getChosenRequirements(requirements, chosen);
+	}
+
+	/** This method uses a fully polynomial time approximation scheme to determine a combination of
+	 * requirements whose profit is guaranteed to be at least (1 - epsilon) times the maximum possible profit
+	 * (see ApproximationAlgorithm for details).  The profits are scaled down and then solved with the
+	 * dynamic algorithm indexed by profit.  Expected to run in O(n^2/epsilon) time and O(n^2/epsilon) bits of
+	 * space, independently of the fixed cost.
+	 * 
+	 * @return The combination of requirements determined to yield a profit within (1 - epsilon) of the
+	 * maximum possible profit while staying within fixed cost
+	 */
+	public ArrayList<Requirement> useApproximation() {
 	
-		return chosenReqs;
+		// Order the requirements by profit/cost ratio, leaving the original list as is
+		RequirementSet sortedReqs = requirements.sortedByRatio();
+		
+		ApproximationAlgorithm approximation = new ApproximationAlgorithm(sortedReqs.getCosts(costDivisor), sortedReqs.getProfits(), capacity, epsilon);
+		return getChosenRequirements(sortedReqs, approximation.solve());
 	}
 
 	/** This method uses a greedy algorithm to determine which requirements should be selected that
@@ -191,23 +326,132 @@ public class Optimizer {
 		ArrayList<Requirement> chosenReqs = new ArrayList<Requirement>();
 
 		// Sort starting requirements in descending order based on profit/cost ratio
-		requirements.sort(new RequirementComparator());
+		RequirementSet sortedReqs = requirements.sortedByRatio();
 
 		// Add requirements to chosenReqs list from highest profit ratio to lowest;
 		// keep adding until total cost of requirements would exceed fixedCost
-		for(int i = 0, totalCost = 0; i < requirements.size() && totalCost <= fixedCost; i++) {
-			Requirement r = requirements.get(i);
-			int cost = r.getCost();
+		for(int i = 0, totalCost = 0; i < sortedReqs.size() && totalCost <= fixedCost; i++) {
+			int cost = sortedReqs.getCost(i);
 
 			if(cost + totalCost <= fixedCost) {
-				chosenReqs.add(r);
-				totalCost += r.getCost();
+				chosenReqs.add(sortedReqs.getRequirement(i));
+				totalCost += cost;
 			}
 		}
 
 		return chosenReqs;
 	}
 
+	/** Convert the choices made by an array based algorithm back into a list of requirements, creating a
+	 * Requirement object for each chosen requirement only.  As with the backtrack in useDynamic(),
+	 * requirements are listed from the last index to the first.
+	 * 
+	 * @param reqs The set of requirements given to the algorithm
+	 * @param chosen Indicate for each requirement in reqs whether it has been chosen
+	 * @return The list of chosen requirements
+	 */
+	private ArrayList<Requirement> getChosenRequirements(RequirementSet reqs, boolean[] chosen) {
+		startPhase(Metrics.RECONSTRUCT);
+		ArrayList<Requirement> chosenReqs = new ArrayList<Requirement>();
+		for(int i = chosen.length - 1; i >= 0; i--) {
+			if(chosen[i])
+				chosenReqs.add(reqs.getRequirement(i));
+		}
+		return chosenReqs;
+	}
+
+	/** Start a phase of the metrics, if any are recorded
+	 * 
+	 * @param phase The name of the phase (see Metrics)
+	 */
+	private void startPhase(String phase) {
+		if(metrics != null)
+			metrics.start(phase);
+	}
+
+	/** Choose which algorithm should be used by optimize().  "auto" (the default) lets the AlgorithmPlanner
+	 * choose the fastest exact algorithm that fits in memory.
+	 * 
+	 * @param algorithm The name of the algorithm to use (see AlgorithmValidator for possible values)
+	 */
+	public void setAlgorithm(String algorithm) {
+		this.algorithm = algorithm;
+	}
+
+	/** Set a common divisor of the costs of all requirements (see Preprocessor).  The dynamic algorithms
+	 * then work on costs and a fixed cost divided by it, which shrinks their tables by the same factor
+	 * without changing the chosen requirements.
+	 * 
+	 * @param costDivisor A number that divides the cost of every requirement
+	 */
+	public void setCostDivisor(int costDivisor) {
+		this.costDivisor = costDivisor;
+		this.capacity = fixedCost / costDivisor;
+	}
+
+	/** Record the plan, solve and reconstruct phases of optimize(), the chosen algorithm and the size of its
+	 * table or states in the given metrics
+	 * 
+	 * @param metrics The metrics of the solve (null records nothing)
+	 */
+	public void setMetrics(Metrics metrics) {
+		this.metrics = metrics;
+	}
+
+	/** Set the number of threads the parallel dynamic and branch-and-bound algorithms may use
+	 * 
+	 * @param threads The number of threads (1 disables parallelism)
+	 */
+	public void setThreads(int threads) {
+		this.threads = threads;
+	}
+
+	/** Set the memory budget of the algorithms run by optimize() (see AlgorithmPlanner)
+	 * 
+	 * @param maxMemory The memory budget in bytes (0 uses the free heap of the JVM)
+	 */
+	public void setMaxMemory(long maxMemory) {
+		this.maxMemory = maxMemory;
+	}
+
+	/** Set the directory the disk-backed dynamic algorithm writes its table to
+	 * 
+	 * @param tableDirectory The directory (null for the default temporary directory)
+	 */
+	public void setTableDirectory(File tableDirectory) {
+		this.tableDirectory = tableDirectory;
+	}
+
+	/** Set the maximum relative error allowed for the chosen profit.  Any value above 0 makes optimize()
+	 * use the approximation algorithm.
+	 * 
+	 * @param epsilon The maximum relative error, between 0 and 1 (0 requires an exact result)
+	 */
+	public void setEpsilon(double epsilon) {
+		this.epsilon = epsilon;
+	}
+
+	/** Describe how close the profit of the chosen requirements is guaranteed to be to the maximum
+	 * possible profit, given the algorithm ultimately used by Optimizer
+	 * 
+	 * @return A description of the guaranteed bound on the chosen profit
+	 */
+	public String getGuarantee() {
+		if(chosenAlgorithm.equals("Greedy"))
+			return "None (heuristic)";
+		if(chosenAlgorithm.equals("Approximation"))
+			return "At least " + Math.round((1 - epsilon) * 10000) / 100.0 + "% of the maximum profit";
+		return "Maximum profit";
+	}
+
+	/** Access the steps taken by the AlgorithmPlanner to choose the algorithm in optimize()
+	 * 
+	 * @return The reasoning of the plan, one line per step
+	 */
+	public ArrayList<String> getPlan() {
+		return plan;
+	}
+
 	/** Access the name of the algorithm ultimately used by Optimizer
 	 * 
 	 * @return Name of algorithm used by Optimizer
@@ -0,0 +1,166 @@
+package solver;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/** The ParallelDynamicAlgorithm evaluates each row of the dynamic algorithm on several threads.  Within
+ * a single requirement i, every cell j of the row only depends on row i-1, so the range of cost
+ * constraints 0..k can be split into chunks and computed independently on a ForkJoinPool.  The rows are
+ * joined one after another, and (as with BitsetDynamicAlgorithm) only the previous and current row of
+ * profit values are kept, along with one take/skip bit per cell for the backtrack.  Chunks always start
+ * on a multiple of 64, so no two threads ever write to the same long of the decision bits.
+ *
+ * Handing each row to the pool has a fixed overhead, so for small fixed costs (or a single thread) the
+ * sequential BitsetDynamicAlgorithm is used instead.
+ *
+ * @author Michael Camara
+ *
+ */
+public class ParallelDynamicAlgorithm {
+
+	// Fixed costs below this value are solved sequentially, as handoff overhead would outweigh the gain
+	public static final int SEQUENTIAL_THRESHOLD = 1 << 14;
+
+	// The number of cells (cost constraints) computed by a single task; must be a multiple of 64
+	private static final int CHUNK_SIZE = 1 << 12;
+
+	private int[] costs;		// The cost of each requirement
+	private int[] profits;		// The perceived profit of each requirement
+	private int fixedCost;		// The fixedCost threshold the chosen requirements cannot cumulatively exceed
+	private int threads;		// The number of threads used to evaluate each row
+
+	private int[] prevValues;	// The max profits using the requirements before the current one
+	private int[] maxValues;	// The max profits using the requirements up to the current one
+	private long[] taken;		// The decision bits of the current requirement
+	private int cost;			// The cost of the current requirement
+	private int profit;			// The perceived profit of the current requirement
+
+	/** Initialize the algorithm using the cost and perceived profit of each requirement
+	 *
+	 * @param costs The cost of each requirement
+	 * @param profits The perceived profit of each requirement
+	 * @param fixedCost The fixed cost threshold
+	 * @param threads The number of threads used to evaluate each row
+	 */
+	public ParallelDynamicAlgorithm(int[] costs, int[] profits, int fixedCost, int threads) {
+		this.costs = costs;
+		this.profits = profits;
+		this.fixedCost = fixedCost;
+		this.threads = threads;
+	}
+
+	/** Estimate the number of bytes used by this algorithm: the decision bits plus two rows of profits
+	 *
+	 * @param numReqs The number of requirements
+	 * @param fixedCost The fixed cost threshold
+	 * @return The expected number of bytes used by the algorithm
+	 */
+	public static double expectedMemory(int numReqs, int fixedCost) {
+		return BitsetDynamicAlgorithm.expectedMemory(numReqs, fixedCost) + 4.0 * (fixedCost + 1);
+	}
+
+	/** Determine which requirements yield the maximum profit while staying within the fixed cost.
+	 *
+	 * @return An array indicating for each requirement whether it has been chosen
+	 */
+	public boolean[] solve() {
+
+		// Small tables are faster to compute on a single thread
+		if(threads <= 1 || fixedCost < SEQUENTIAL_THRESHOLD)
+			return new BitsetDynamicAlgorithm(costs, profits, fixedCost).solve();
+
+		int numReqs = costs.length;
+		int wordsPerRow = (fixedCost >> 6) + 1;
+
+		prevValues = new int[fixedCost + 1];
+		maxValues = new int[fixedCost + 1];
+		long[][] decisions = new long[numReqs][wordsPerRow];
+
+		ForkJoinPool pool = new ForkJoinPool(threads);
+		try {
+			for(int i = 0; i < numReqs; i++) {
+				cost = costs[i];
+				profit = profits[i];
+				taken = decisions[i];
+
+				// Evaluate every cell of this row in parallel, then swap rows for the next requirement
+				pool.invoke(new RowTask(0, fixedCost + 1));
+
+				int[] swap = prevValues;
+				prevValues = maxValues;
+				maxValues = swap;
+			}
+		}
+		finally {
+			pool.shutdown();
+		}
+
+		// Select the requirements that yield the maximum profit as calculated above
+		boolean[] chosen = new boolean[numReqs];
+		for(int i = numReqs - 1, k = fixedCost; i >= 0; i--) {
+			if((decisions[i][k >> 6] & (1L << k)) != 0) {
+				chosen[i] = true;
+				k = k - costs[i];
+			}
+			decisions[i] = null;
+		}
+
+		prevValues = null;
+		maxValues = null;
+		taken = null;
+
+		return chosen;
+	}
+
+	/** Compute the cells [from, to) of the current row from the previous row
+	 *
+	 * @param from The first cost constraint to compute (inclusive)
+	 * @param to The last cost constraint to compute (exclusive)
+	 */
+	private void computeCells(int from, int to) {
+		int j = from;
+
+		// Cost constraints below the cost of this requirement cannot include it
+		for(; j < to && j < cost; j++) {
+			maxValues[j] = prevValues[j];
+		}
+
+		for(; j < to; j++) {
+			int prevMax = prevValues[j];
+			int otherMax = prevValues[j - cost] + profit;
+			if(otherMax > prevMax) {
+				maxValues[j] = otherMax;
+				taken[j >> 6] |= 1L << j;
+			}
+			else {
+				maxValues[j] = prevMax;
+			}
+		}
+	}
+
+	/** A task computing a range of cells of the current row, splitting itself in half (on a multiple
+	 * of 64) until the range is no larger than CHUNK_SIZE.
+	 */
+	private class RowTask extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private int from;	// The first cost constraint to compute (inclusive)
+		private int to;		// The last cost constraint to compute (exclusive)
+
+		RowTask(int from, int to) {
+			this.from = from;
+			this.to = to;
+		}
+
+		protected void compute() {
+			if(to - from <= CHUNK_SIZE) {
+				computeCells(from, to);
+			}
+			else {
+				int mid = ((from + to) >>> 1) & ~63;
+				invokeAll(new RowTask(from, mid), new RowTask(mid, to));
+			}
+		}
+	}
+}
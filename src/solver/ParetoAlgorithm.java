@@ -0,0 +1,138 @@
+package solver;
+
+/** The ParetoAlgorithm solves the 0-1 knapsack problem with sparse dynamic programming (Nemhauser and
+ * Ullmann).  Instead of a dense row holding the best profit for every cost 0..k, it only keeps the list of
+ * Pareto-optimal states: (cost, profit) pairs of partial solutions such that no other partial solution has
+ * both a lower or equal cost and a higher or equal profit.  Sorted by cost, these states also have strictly
+ * increasing profits.
+ *
+ * Each requirement is merged in by shifting a copy of the list by its cost and profit, and merging both
+ * sorted lists in linear time while dropping dominated states and states over the fixed cost.  The time
+ * and memory therefore grow with the number of useful states rather than with the fixed cost; in the
+ * worst case there are k + 1 of them, matching the dense dynamic algorithm.
+ *
+ * To rebuild the chosen requirements, each state refers to the requirement it took last, linked to the
+ * state it was extended from, so that states share their common history.
+ *
+ * @author Michael Camara
+ *
+ */
+public class ParetoAlgorithm {
+
+	private int[] costs;		// The cost of each requirement
+	private int[] profits;		// The perceived profit of each requirement
+	private int fixedCost;		// The fixedCost threshold the chosen requirements cannot cumulatively exceed
+
+	private int numStates;		// The number of Pareto-optimal states found so far
+
+	/** Initialize the algorithm using the cost and perceived profit of each requirement
+	 *
+	 * @param costs The cost of each requirement
+	 * @param profits The perceived profit of each requirement
+	 * @param fixedCost The fixed cost threshold
+	 */
+	public ParetoAlgorithm(int[] costs, int[] profits, int fixedCost) {
+		this.costs = costs;
+		this.profits = profits;
+		this.fixedCost = fixedCost;
+	}
+
+	/** Determine which requirements yield the maximum profit while staying within the fixed cost.
+	 *
+	 * @return An array indicating for each requirement whether it has been chosen
+	 */
+	public boolean[] solve() {
+		int numReqs = costs.length;
+
+		// Start with the empty solution as the only state
+		long[] stateCosts = {0};
+		long[] stateProfits = {0};
+		Choice[] stateChoices = {null};
+		numStates = 1;
+
+		for(int r = 0; r < numReqs; r++) {
+			int cost = costs[r];
+			int profit = profits[r];
+			if(cost > fixedCost || profit <= 0)
+				continue;
+
+			long[] newCosts = new long[2 * numStates];
+			long[] newProfits = new long[2 * numStates];
+			Choice[] newChoices = new Choice[2 * numStates];
+			int newSize = 0;
+
+			int i = 0, j = 0;
+			while(i < numStates || j < numStates) {
+				long stateCost, stateProfit;
+				Choice choice;
+
+				// Take the state with the lowest cost next from either the old or the extended list
+				if(j == numStates || (i < numStates && stateCosts[i] <= stateCosts[j] + cost)) {
+					stateCost = stateCosts[i];
+					stateProfit = stateProfits[i];
+					choice = stateChoices[i];
+					i++;
+				}
+				else {
+					stateCost = stateCosts[j] + cost;
+					stateProfit = stateProfits[j] + profit;
+					choice = new Choice(r, stateChoices[j]);
+					j++;
+
+					// The extended list is sorted by cost, so none of its remaining states fit either
+					if(stateCost > fixedCost) {
+						j = numStates;
+						continue;
+					}
+				}
+
+				// Only keep the state if it has a higher profit than every cheaper state
+				if(newSize > 0 && stateProfit <= newProfits[newSize - 1])
+					continue;
+
+				// A state with equal cost but higher profit replaces the previous one
+				if(newSize > 0 && stateCost == newCosts[newSize - 1])
+					newSize--;
+
+				newCosts[newSize] = stateCost;
+				newProfits[newSize] = stateProfit;
+				newChoices[newSize] = choice;
+				newSize++;
+			}
+
+			stateCosts = newCosts;
+			stateProfits = newProfits;
+			stateChoices = newChoices;
+			numStates = newSize;
+		}
+
+		// The last state has the highest profit; follow its choices back to the empty solution
+		boolean[] chosen = new boolean[numReqs];
+		for(Choice c = stateChoices[numStates - 1]; c != null; c = c.previous)
+			chosen[c.requirement] = true;
+
+		return chosen;
+	}
+
+	/** Return the number of Pareto-optimal states left after the last requirement, which is a measure of
+	 * how much work the algorithm had to do
+	 *
+	 * @return the number of Pareto-optimal states
+	 */
+	public int getNumStates() {
+		return numStates;
+	}
+
+	/** A requirement taken by a state, linked to the choices of the state it was extended from
+	 */
+	private static class Choice {
+
+		private final int requirement;		// The requirement taken
+		private final Choice previous;		// The choices made before this one
+
+		Choice(int requirement, Choice previous) {
+			this.requirement = requirement;
+			this.previous = previous;
+		}
+	}
+}
@@ -0,0 +1,131 @@
+package solver;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/** The Preprocessor reduces the list of requirements before it is given to the Optimizer, without changing
+ * which profit can be reached.  Shrinking the number of requirements n and the fixed cost k is the cheapest
+ * speedup for every algorithm that runs in O(n*k).  Three reductions are applied:
+ *
+ * 1. Requirements with a cost of 0 (and a positive profit) are always part of an optimal solution, so they
+ *    are chosen immediately and removed from the list.
+ * 2. At most floor(k/c) requirements of cost c can be chosen together, so within each group of requirements
+ *    sharing the same cost, only the floor(k/c) most profitable ones are kept.  Any solution using one of
+ *    the others could swap it for an unused, more profitable requirement of the same cost.  Requirements
+ *    that cost more than k on their own are removed the same way.
+ * 3. The greatest common divisor of the remaining costs is found, so that the Optimizer can divide all
+ *    costs and the fixed cost by it (see Optimizer.setCostDivisor()).
+ *
+ * The remaining requirements keep their original order.  Requirements are sorted by a long key packing
+ * the cost and the profit, so that no boxed indices are needed for large sets of requirements.
+ *
+ * @author Michael Camara
+ *
+ */
+public class Preprocessor {
+
+	private RequirementSet reducedReqs;		// The requirements left for the Optimizer to decide
+	private RequirementSet fixedReqs;		// The requirements chosen during preprocessing
+	private int costDivisor;				// The greatest common divisor of the costs of reducedReqs
+
+	/** Reduce the given list of requirements for the given fixed cost
+	 *
+	 * @param requirements The original list of requirements (not modified)
+	 * @param fixedCost The fixed cost threshold
+	 */
+	public Preprocessor(ArrayList<Requirement> requirements, int fixedCost) {
+		this(new RequirementSet(requirements), fixedCost);
+	}
+
+	/** Reduce the given set of requirements for the given fixed cost
+	 *
+	 * @param requirements The original set of requirements (not modified)
+	 * @param fixedCost The fixed cost threshold
+	 */
+	public Preprocessor(RequirementSet requirements, int fixedCost) {
+		int numReqs = requirements.size();
+
+		// Order the requirements by cost, and by descending profit within each cost
+		long[] keys = new long[numReqs];
+		for(int i = 0; i < numReqs; i++)
+			keys[i] = ((long) requirements.getCost(i) << 32) | ((long) Integer.MAX_VALUE - requirements.getPerceivedProfit(i));
+		int[] order = RequirementSet.sortedOrder(keys);
+
+		// Keep only the most profitable floor(fixedCost/cost) requirements of each cost
+		boolean[] keep = new boolean[numReqs];
+		int numFixed = 0;
+		int[] fixed = new int[numReqs];
+		for(int i = 0; i < numReqs; ) {
+			int cost = requirements.getCost(order[i]);
+			int limit = cost == 0 ? 0 : fixedCost / cost;
+			int kept = 0;
+			for(; i < numReqs && requirements.getCost(order[i]) == cost; i++) {
+				int profit = requirements.getPerceivedProfit(order[i]);
+
+				// Requirements which cost nothing are chosen right away if they generate a profit
+				if(cost == 0) {
+					if(profit > 0)
+						fixed[numFixed++] = order[i];
+				}
+				else if(kept < limit && profit > 0) {
+					keep[order[i]] = true;
+					kept++;
+				}
+			}
+		}
+		fixedReqs = requirements.subset(Arrays.copyOf(fixed, numFixed));
+
+		// Collect the remaining requirements in their original order, along with the gcd of their costs
+		int numReduced = 0;
+		int[] reduced = new int[numReqs];
+		costDivisor = 0;
+		for(int i = 0; i < numReqs; i++) {
+			if(keep[i]) {
+				reduced[numReduced++] = i;
+				costDivisor = gcd(costDivisor, requirements.getCost(i));
+			}
+		}
+		reducedReqs = requirements.subset(Arrays.copyOf(reduced, numReduced));
+		if(costDivisor == 0)
+			costDivisor = 1;
+	}
+
+	/** Compute the greatest common divisor of two non-negative numbers
+	 *
+	 * @param a The first number
+	 * @param b The second number
+	 * @return The greatest common divisor of a and b (where gcd(0, b) = b)
+	 */
+	private static int gcd(int a, int b) {
+		while(b != 0) {
+			int t = a % b;
+			a = b;
+			b = t;
+		}
+		return a;
+	}
+
+	/** Return the requirements left for the Optimizer to decide
+	 *
+	 * @return the reduced set of requirements, in their original order
+	 */
+	public RequirementSet getReducedRequirements() {
+		return reducedReqs;
+	}
+
+	/** Return the requirements that are part of every optimal solution and were chosen during preprocessing
+	 *
+	 * @return the requirements chosen during preprocessing
+	 */
+	public RequirementSet getFixedRequirements() {
+		return fixedReqs;
+	}
+
+	/** Return the greatest common divisor of the costs of the reduced requirements
+	 *
+	 * @return the divisor to pass to Optimizer.setCostDivisor()
+	 */
+	public int getCostDivisor() {
+		return costDivisor;
+	}
+}
@@ -0,0 +1,127 @@
+package solver;
+
+import java.util.Arrays;
+
+/** The ProfitDynamicAlgorithm solves the 0-1 knapsack problem with a table indexed by profit instead of
+ * cost.  For every total profit q between 0 and the sum of all perceived profits, it keeps the minimum
+ * cost needed to reach exactly that profit; the answer is the largest profit whose minimum cost stays
+ * within the fixed cost.  This takes O(n*P) time, where P is the total perceived profit, and so does not
+ * depend on the fixed cost at all.  It is the better choice whenever the fixed cost is large (e.g. entered
+ * in cents) while the profits of individual requirements stay small.
+ *
+ * As with BitsetDynamicAlgorithm, only one row of minimum costs is kept, along with one bit per
+ * requirement and profit recording whether the requirement lowered the minimum cost of that profit.
+ * If an upper bound on the optimal profit is known, the table can be limited to that bound.
+ *
+ * @author Michael Camara
+ *
+ */
+public class ProfitDynamicAlgorithm {
+
+	// Marks a profit total that cannot be reached within the fixed cost
+	private static final int UNREACHABLE = Integer.MAX_VALUE;
+
+	private int[] costs;		// The cost of each requirement
+	private int[] profits;		// The perceived profit of each requirement
+	private int fixedCost;		// The fixedCost threshold the chosen requirements cannot cumulatively exceed
+	private int maxProfit;		// An upper bound on the optimal profit, limiting the size of the table
+
+	/** Initialize the algorithm using the cost and perceived profit of each requirement
+	 *
+	 * @param costs The cost of each requirement
+	 * @param profits The perceived profit of each requirement (each non-negative, with a sum that fits
+	 * in an int)
+	 * @param fixedCost The fixed cost threshold
+	 */
+	public ProfitDynamicAlgorithm(int[] costs, int[] profits, int fixedCost) {
+		this(costs, profits, fixedCost, Integer.MAX_VALUE - 1);
+	}
+
+	/** Initialize the algorithm using the cost and perceived profit of each requirement, along with an
+	 * upper bound on the optimal profit
+	 *
+	 * @param costs The cost of each requirement
+	 * @param profits The perceived profit of each requirement (each non-negative)
+	 * @param fixedCost The fixed cost threshold
+	 * @param maxProfit An upper bound on the profit that can be reached within the fixed cost
+	 */
+	public ProfitDynamicAlgorithm(int[] costs, int[] profits, int fixedCost, int maxProfit) {
+		this.costs = costs;
+		this.profits = profits;
+		this.fixedCost = fixedCost;
+		this.maxProfit = maxProfit;
+	}
+
+	/** Estimate the number of bytes used by this algorithm: the row of minimum costs and the decision bits
+	 *
+	 * @param numReqs The number of requirements
+	 * @param totalProfit The sum of all perceived profits
+	 * @return The expected number of bytes used by the algorithm
+	 */
+	public static double expectedMemory(int numReqs, long totalProfit) {
+		double wordsPerRow = (totalProfit >> 6) + 1;
+		return 4.0 * (totalProfit + 1) + 8.0 * wordsPerRow * numReqs;
+	}
+
+	/** Determine which requirements yield the maximum profit while staying within the fixed cost.
+	 *
+	 * @return An array indicating for each requirement whether it has been chosen
+	 */
+	public boolean[] solve() {
+		int numReqs = costs.length;
+
+		// No profit above the upper bound can be reached, so the table stops there
+		long sumProfits = 0;
+		for(int profit : profits)
+			sumProfits += profit;
+		int totalProfit = (int) Math.min(sumProfits, maxProfit);
+
+		// The minimum cost to reach each total profit, using the requirements seen so far
+		int[] minCosts = new int[totalProfit + 1];
+		Arrays.fill(minCosts, UNREACHABLE);
+		minCosts[0] = 0;
+
+		// Bit q of decisions[i] is set if requirement i lowers the minimum cost of profit q
+		long[][] decisions = new long[numReqs][(totalProfit >> 6) + 1];
+
+		// Profits above the sum of the requirements seen so far cannot be reached yet
+		int reachable = 0;
+
+		for(int i = 0; i < numReqs; i++) {
+			int cost = costs[i];
+			int profit = profits[i];
+			long[] taken = decisions[i];
+			reachable = (int) Math.min((long) reachable + profit, totalProfit);
+
+			// Iterate from high to low profits so that each requirement is counted at most once
+			for(int q = reachable; q >= profit; q--) {
+				int prevCost = minCosts[q - profit];
+				if(prevCost == UNREACHABLE)
+					continue;
+
+				long otherCost = (long) prevCost + cost;
+				if(otherCost < minCosts[q] && otherCost <= fixedCost) {
+					minCosts[q] = (int) otherCost;
+					taken[q >> 6] |= 1L << q;
+				}
+			}
+		}
+
+		// The optimal profit is the largest one that can be reached within the fixed cost
+		int q = totalProfit;
+		while(minCosts[q] == UNREACHABLE)
+			q--;
+
+		// Select the requirements that reach this profit at the minimum cost
+		boolean[] chosen = new boolean[numReqs];
+		for(int i = numReqs - 1; i >= 0; i--) {
+			if((decisions[i][q >> 6] & (1L << q)) != 0) {
+				chosen[i] = true;
+				q = q - profits[i];
+			}
+			decisions[i] = null;
+		}
+
+		return chosen;
+	}
+}
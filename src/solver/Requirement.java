@@ -33,22 +33,32 @@ public class Requirement {
 		// Derive the absolute profit
 		actualProfit = benefit - cost;
 
+		// Generate a weighted perceived profit based on the first character of the name
+		perceivedProfit = perceivedProfit(name.charAt(0), actualProfit);
+	}
+
+	/** Derive the perceived profit of a requirement from the first character of its name and its actual
+	 * profit (see the constructor for the weighting scale).  This allows input parsers to decide whether a
+	 * requirement generates a profit before creating it.
+	 * 
+	 * @param symbol The first character of the name of the requirement
+	 * @param actualProfit The actual profit of the requirement (benefit - cost)
+	 * @return the weighted, perceived profit of the requirement
+	 */
+	public static int perceivedProfit(char symbol, int actualProfit) {
+
 		// Generate a weighted perceived profit if first character of name is one of the following:
-		switch(name.charAt(0)) {
+		switch(symbol) {
 		case '!':
-			perceivedProfit = (int) (actualProfit * 1.5);
-			break;
+			return (int) (actualProfit * 1.5);
 		case '@':
-			perceivedProfit = (int) (actualProfit * 1.25);
-			break;
+			return (int) (actualProfit * 1.25);
 		case '#':
-			perceivedProfit = (int) (actualProfit * 0.75);
-			break;
+			return (int) (actualProfit * 0.75);
 
 			// If no symbol is detected, then no weighting is applied
 		default:
-			perceivedProfit = actualProfit;
-			break;
+			return actualProfit;
 		}
 	}
 
@@ -2,9 +2,9 @@ package solver;
 
 import java.util.Comparator;
 
-/** This comparator is used by the greedy algorithm in Optimizer to sort a list
- * of Requirement objects in descending order based on the ratio of perceived profit
- * to cost.
+/** This comparator sorts a list of Requirement objects in descending order based on
+ * the ratio of perceived profit to cost.  The greedy and approximate algorithms in
+ * Optimizer sort a RequirementSet in the same order (see RequirementSet.sortedByRatio()).
  * 
  * @author Michael Camara
  *
@@ -0,0 +1,340 @@
+package solver;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/** The RequirementSet stores a list of requirements as parallel arrays ("struct of arrays") instead of a
+ * list of Requirement objects: one int array each for the costs, benefits and perceived profits, and one
+ * array for the names.  This saves the object header and pointer of every requirement, and lets the
+ * algorithms copy costs and profits out of contiguous arrays rather than chasing a pointer per
+ * requirement.  Requirement objects are only created on demand (see getRequirement()), i.e. for the
+ * requirements that are actually chosen and output.
+ *
+ * Requirements are appended through add(), and the arrays grow as needed, in the same way as an ArrayList.
+ *
+ * A set can also be created with lazy names (see RequirementSet(int, MappedNames)): instead of a String,
+ * each requirement then records the position and length of its name in the memory-mapped input file, and
+ * the name is only decoded when requested through getName() or getRequirement().  The solvers never use
+ * the names, so only the names of the requirements that are output are ever decoded.
+ *
+ * @author Michael Camara
+ *
+ */
+public class RequirementSet {
+
+	private String[] names;				// The name of each requirement (null with lazy names)
+	private long[] nameOffsets;			// The file position of the name of each requirement (lazy names only)
+	private int[] nameLengths;			// The number of bytes of the name of each requirement (lazy names only)
+	private MappedNames mappedNames;	// Decodes the lazy names from the mapped file (null without lazy names)
+	private int[] costs;				// The cost of each requirement
+	private int[] benefits;				// The benefit of each requirement
+	private int[] perceivedProfits;		// The perceived profit of each requirement
+	private int size;					// The number of requirements in the set
+
+	/** Create an empty set of requirements
+	 */
+	public RequirementSet() {
+		this(16);
+	}
+
+	/** Create an empty set of requirements with room for a given number of requirements
+	 *
+	 * @param capacity The number of requirements the set can hold before growing
+	 */
+	public RequirementSet(int capacity) {
+		this(capacity, null);
+	}
+
+	/** Create an empty set of requirements whose names are resolved lazily from a mapped file
+	 *
+	 * @param capacity The number of requirements the set can hold before growing
+	 * @param mappedNames The mapped file holding the names (null to store the names as Strings)
+	 */
+	public RequirementSet(int capacity, MappedNames mappedNames) {
+		capacity = Math.max(capacity, 1);
+		this.mappedNames = mappedNames;
+		if(mappedNames == null)
+			names = new String[capacity];
+		else {
+			nameOffsets = new long[capacity];
+			nameLengths = new int[capacity];
+		}
+		costs = new int[capacity];
+		benefits = new int[capacity];
+		perceivedProfits = new int[capacity];
+	}
+
+	/** Create a set holding the same requirements as a list of Requirement objects, in the same order
+	 *
+	 * @param requirements The list of requirements (not modified)
+	 */
+	public RequirementSet(ArrayList<Requirement> requirements) {
+		this(requirements.size());
+		for(Requirement r : requirements)
+			add(r.getName(), r.getCost(), r.getBenefit());
+	}
+
+	/** Append a requirement.  Its perceived profit is derived from its name as in the Requirement class.
+	 *
+	 * @param name The name of the requirement
+	 * @param cost The cost of the requirement
+	 * @param benefit The benefit of the requirement
+	 */
+	public void add(String name, int cost, int benefit) {
+		if(mappedNames != null)
+			throw new IllegalStateException("Requirements of a set with lazy names should be added by their name's position");
+
+		ensureCapacity(size + 1);
+		names[size] = name;
+		costs[size] = cost;
+		benefits[size] = benefit;
+		perceivedProfits[size] = Requirement.perceivedProfit(name.charAt(0), benefit - cost);
+		size++;
+	}
+
+	/** Append a requirement whose name is stored in the mapped file of this set.  Its perceived profit is
+	 * derived from the first character of its name, which is given so that the name is not decoded.
+	 *
+	 * @param nameOffset The file position of the first byte of the name
+	 * @param nameLength The number of bytes of the name
+	 * @param symbol The first character of the name
+	 * @param cost The cost of the requirement
+	 * @param benefit The benefit of the requirement
+	 */
+	public void add(long nameOffset, int nameLength, char symbol, int cost, int benefit) {
+		if(mappedNames == null)
+			throw new IllegalStateException("Requirements of a set without lazy names should be added by their name");
+
+		// Fail on an empty name, as the Requirement constructor does
+		if(nameLength <= 0)
+			throw new StringIndexOutOfBoundsException("Requirement names should not be empty");
+
+		ensureCapacity(size + 1);
+		nameOffsets[size] = nameOffset;
+		nameLengths[size] = nameLength;
+		costs[size] = cost;
+		benefits[size] = benefit;
+		perceivedProfits[size] = Requirement.perceivedProfit(symbol, benefit - cost);
+		size++;
+	}
+
+	/** Append every requirement of another set, in order.  Both sets should either hold their names as
+	 * Strings, or resolve them from the same mapped file.
+	 *
+	 * @param other The set of requirements to append
+	 */
+	public void addAll(RequirementSet other) {
+		if(other.mappedNames != mappedNames)
+			throw new IllegalArgumentException("Requirement sets should resolve their names in the same way");
+
+		ensureCapacity(size + other.size);
+		if(mappedNames == null)
+			System.arraycopy(other.names, 0, names, size, other.size);
+		else {
+			System.arraycopy(other.nameOffsets, 0, nameOffsets, size, other.size);
+			System.arraycopy(other.nameLengths, 0, nameLengths, size, other.size);
+		}
+		System.arraycopy(other.costs, 0, costs, size, other.size);
+		System.arraycopy(other.benefits, 0, benefits, size, other.size);
+		System.arraycopy(other.perceivedProfits, 0, perceivedProfits, size, other.size);
+		size += other.size;
+	}
+
+	/** Grow the arrays so that they can hold at least the given number of requirements
+	 *
+	 * @param capacity The number of requirements the arrays should hold
+	 */
+	private void ensureCapacity(int capacity) {
+		if(capacity > costs.length) {
+			int newCapacity = (int) Math.min(Math.max(capacity, 2L * costs.length), Integer.MAX_VALUE - 8);
+			if(mappedNames == null)
+				names = Arrays.copyOf(names, newCapacity);
+			else {
+				nameOffsets = Arrays.copyOf(nameOffsets, newCapacity);
+				nameLengths = Arrays.copyOf(nameLengths, newCapacity);
+			}
+			costs = Arrays.copyOf(costs, newCapacity);
+			benefits = Arrays.copyOf(benefits, newCapacity);
+			perceivedProfits = Arrays.copyOf(perceivedProfits, newCapacity);
+		}
+	}
+
+	/** Create a new set holding some of the requirements of this set, in the given order
+	 *
+	 * @param indices The index of each requirement to include
+	 * @return The new set of requirements
+	 */
+	public RequirementSet subset(int[] indices) {
+		RequirementSet subset = new RequirementSet(indices.length, mappedNames);
+		for(int i : indices) {
+			if(mappedNames == null)
+				subset.names[subset.size] = names[i];
+			else {
+				subset.nameOffsets[subset.size] = nameOffsets[i];
+				subset.nameLengths[subset.size] = nameLengths[i];
+			}
+			subset.costs[subset.size] = costs[i];
+			subset.benefits[subset.size] = benefits[i];
+			subset.perceivedProfits[subset.size] = perceivedProfits[i];
+			subset.size++;
+		}
+		return subset;
+	}
+
+	/** Create a new set holding the requirements of this set in descending order of their ratio of
+	 * perceived profit to cost, as sorted by RequirementComparator (requirements with equal ratios keep
+	 * their order)
+	 *
+	 * @return The new, sorted set of requirements
+	 */
+	public RequirementSet sortedByRatio() {
+
+		// Compute each ratio once, with the same divide-by-zero guard as RequirementComparator, and turn
+		// it into a long that sorts in descending order of the ratio
+		long[] keys = new long[size];
+		for(int i = 0; i < size; i++) {
+			double cost = costs[i] == 0 ? 0.01 : costs[i];
+			long bits = Double.doubleToLongBits(perceivedProfits[i] / cost);
+			keys[i] = ~(bits ^ ((bits >> 63) & Long.MAX_VALUE));
+		}
+
+		return subset(sortedOrder(keys));
+	}
+
+	/** Determine the order of a list of keys from smallest to largest, without boxing them.  Equal keys
+	 * keep their order, as with List.sort().
+	 *
+	 * @param keys The key of every index
+	 * @return The indices 0..keys.length-1 in ascending order of their keys
+	 */
+	static int[] sortedOrder(long[] keys) {
+		int[] order = new int[keys.length];
+		for(int i = 0; i < order.length; i++)
+			order[i] = i;
+		sort(order, keys, new int[order.length], 0, order.length);
+		return order;
+	}
+
+	/** Stable merge sort of a range of indices in ascending order of their keys
+	 *
+	 * @param order The indices to sort
+	 * @param keys The key of every index
+	 * @param buffer Temporary space of the same length as order
+	 * @param from The first position of the range (inclusive)
+	 * @param to The last position of the range (exclusive)
+	 */
+	private static void sort(int[] order, long[] keys, int[] buffer, int from, int to) {
+		if(to - from < 2)
+			return;
+
+		int middle = (from + to) >>> 1;
+		sort(order, keys, buffer, from, middle);
+		sort(order, keys, buffer, middle, to);
+
+		// Merge both halves, taking from the first half on ties to keep the sort stable
+		System.arraycopy(order, from, buffer, from, to - from);
+		for(int i = from, j = middle, k = from; k < to; k++) {
+			if(j == to || (i < middle && keys[buffer[i]] <= keys[buffer[j]]))
+				order[k] = buffer[i++];
+			else
+				order[k] = buffer[j++];
+		}
+	}
+
+	/** Copy the cost of every requirement into an array, divided by a common divisor of all costs
+	 *
+	 * @param costDivisor A number that divides the cost of every requirement (1 to keep the costs as is)
+	 * @return The cost of every requirement divided by costDivisor, in order
+	 */
+	public int[] getCosts(int costDivisor) {
+		int[] dividedCosts = new int[size];
+		for(int i = 0; i < size; i++)
+			dividedCosts[i] = costs[i] / costDivisor;
+		return dividedCosts;
+	}
+
+	/** Copy the perceived profit of every requirement into an array
+	 *
+	 * @return The perceived profit of every requirement, in order
+	 */
+	public int[] getProfits() {
+		return Arrays.copyOf(perceivedProfits, size);
+	}
+
+	/** Compute the sum of the perceived profits of all requirements
+	 *
+	 * @return The total perceived profit of all requirements
+	 */
+	public long getTotalProfit() {
+		long totalProfit = 0;
+		for(int i = 0; i < size; i++)
+			totalProfit += perceivedProfits[i];
+		return totalProfit;
+	}
+
+	/** Create a Requirement object for a single requirement of the set, e.g. for output
+	 *
+	 * @param i The index of the requirement
+	 * @return A new Requirement with the name, cost and benefit of requirement i
+	 */
+	public Requirement getRequirement(int i) {
+		return new Requirement(getName(i), costs[i], benefits[i]);
+	}
+
+	/** Create a list of Requirement objects holding every requirement of the set, in order
+	 *
+	 * @return A new list of requirements
+	 */
+	public ArrayList<Requirement> toList() {
+		ArrayList<Requirement> requirements = new ArrayList<Requirement>(size);
+		for(int i = 0; i < size; i++)
+			requirements.add(getRequirement(i));
+		return requirements;
+	}
+
+	/** Return the number of requirements in the set
+	 *
+	 * @return the number of requirements
+	 */
+	public int size() {
+		return size;
+	}
+
+	/** Return the name of a requirement, decoding it from the mapped file if names are resolved lazily
+	 *
+	 * @param i The index of the requirement
+	 * @return the name of requirement i
+	 */
+	public String getName(int i) {
+		if(mappedNames == null)
+			return names[i];
+		return mappedNames.getName(nameOffsets[i], nameLengths[i]);
+	}
+
+	/** Return the cost of a requirement
+	 *
+	 * @param i The index of the requirement
+	 * @return the cost of requirement i
+	 */
+	public int getCost(int i) {
+		return costs[i];
+	}
+
+	/** Return the benefit of a requirement
+	 *
+	 * @param i The index of the requirement
+	 * @return the benefit of requirement i
+	 */
+	public int getBenefit(int i) {
+		return benefits[i];
+	}
+
+	/** Return the perceived profit of a requirement (see Requirement.getPerceivedProfit())
+	 *
+	 * @param i The index of the requirement
+	 * @return the perceived profit of requirement i
+	 */
+	public int getPerceivedProfit(int i) {
+		return perceivedProfits[i];
+	}
+}
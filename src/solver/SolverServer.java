@@ -0,0 +1,242 @@
+package solver;
+
+import input.JCommanderInput;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import com.beust.jcommander.JCommander;
+import com.beust.jcommander.ParameterException;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/** The SolverServer keeps the solver running in a single JVM and solves requirement lists sent over HTTP,
+ * so that frequent requests do not each pay for starting a JVM, loading classes and warming up the JIT.
+ * It only listens on the loopback address.
+ *
+ * Requirement lists are POSTed to /solve in any format accepted by --input (a .csv file with its header
+ * line, a binary requirement file, or JSON in the format of --format json).  The following query
+ * parameters may be given, e.g. "/solve?fixedCost=5000&format=json":
+ *
+ *   fixedCost - the fixed cost threshold (-f)
+ *   algorithm - the selection algorithm (-a)
+ *   epsilon - the accepted relative error of the profit (-e)
+ *   format - the format of the response (--format): csv, json or binary
+ *
+ * Each request is solved exactly as Menu solves an input file: the options the server was started with
+ * are kept, the query parameters replace the matching options, and the response body is the output file
+ * that Output writes for these options.  Invalid parameters or requirement lists are answered with
+ * status 400 and the error message.
+ *
+ * At most maxConcurrent requests are solved at once, on a fixed pool of threads; further requests wait in
+ * the queue of the pool.  Since the algorithms of concurrent requests share the heap, each one is given an
+ * equal share of the memory budget (--max-memory, or the maximum heap).
+ *
+ * @author Michael Camara
+ *
+ */
+public class SolverServer {
+
+	// The options set by the server for every request, which are removed from the options it was started with
+	private static final List<String> SERVER_OPTIONS = Arrays.asList("-i", "--input", "-o", "--output", "-q", "--quiet",
+			"--max-memory", "-w", "--watch", "-s", "--sweep", "-b", "--budgets", "--batch", "--serve", "--max-concurrent", "--metrics");
+
+	// The options each query parameter replaces
+	private static final Map<String, List<String>> QUERY_OPTIONS = new LinkedHashMap<String, List<String>>();
+	static {
+		QUERY_OPTIONS.put("fixedCost", Arrays.asList("-f", "--fixed"));
+		QUERY_OPTIONS.put("algorithm", Arrays.asList("-a", "--algorithm"));
+		QUERY_OPTIONS.put("epsilon", Arrays.asList("-e", "--epsilon"));
+		QUERY_OPTIONS.put("format", Arrays.asList("--format"));
+	}
+
+	private HttpServer server;			// The HTTP server listening on the loopback address
+	private ExecutorService pool;		// The threads solving the requests
+	private String[] args;				// The options the server was started with
+	private long memoryShare;			// The memory budget of each request, in bytes
+
+	/** Create a server with the options given on the command line
+	 *
+	 * @param port The local port to listen on (0 chooses any free port)
+	 * @param maxConcurrent The number of requests solved at once
+	 * @param args The command line arguments, whose options apply to every request
+	 * @throws IOException if the port cannot be opened
+	 */
+	public SolverServer(int port, int maxConcurrent, String[] args) throws IOException {
+		this.args = args;
+
+		// Share the memory budget of the command line (or the whole heap) between the concurrent requests
+		JCommanderInput options = new JCommanderInput();
+		new JCommander(options, args);
+		long budget = options.getMaxMemory() > 0 ? options.getMaxMemory() : Runtime.getRuntime().maxMemory();
+		this.memoryShare = Math.max(1, budget / maxConcurrent);
+
+		pool = Executors.newFixedThreadPool(maxConcurrent);
+		server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+		server.createContext("/solve", exchange -> {
+			try {
+				handle(exchange);
+			} finally {
+				exchange.close();
+			}
+		});
+		server.setExecutor(pool);
+	}
+
+	/** Start accepting requests in the background
+	 */
+	public void start() {
+		server.start();
+	}
+
+	/** Stop accepting requests, and stop the threads once the requests being solved are answered
+	 */
+	public void stop() {
+		server.stop(0);
+		pool.shutdown();
+	}
+
+	/** Return the local port the server listens on
+	 *
+	 * @return the port
+	 */
+	public int getPort() {
+		return server.getAddress().getPort();
+	}
+
+	/** Solve a single request and send back the output file, or the error that prevented solving it
+	 *
+	 * @param exchange The HTTP request and its response
+	 * @throws IOException if the response cannot be sent
+	 */
+	private void handle(HttpExchange exchange) throws IOException {
+		if(!exchange.getRequestURI().getPath().equals("/solve")) {
+			respond(exchange, 404, "Requirement lists should be sent to /solve.");
+			return;
+		}
+		if(!exchange.getRequestMethod().equals("POST")) {
+			exchange.getResponseHeaders().set("Allow", "POST");
+			respond(exchange, 405, "Requirement lists should be sent with POST.");
+			return;
+		}
+
+		File inputFile = File.createTempFile("request", ".input");
+		File outputFile = File.createTempFile("request", ".output");
+		try {
+			Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+			Files.copy(exchange.getRequestBody(), inputFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+
+			// Parse the options of this request, then solve it as Menu would
+			JCommanderInput input = new JCommanderInput();
+			new JCommander(input, getRequestArguments(query, inputFile, outputFile));
+			Menu.solve(input, input.getRequirements());
+
+			exchange.getResponseHeaders().set("Content-Type", getContentType(input.getFormat()));
+			exchange.sendResponseHeaders(200, outputFile.length());
+			try(OutputStream body = exchange.getResponseBody()) {
+				Files.copy(outputFile.toPath(), body);
+			}
+		} catch (ParameterException | NoSuchElementException e) {
+			String message = e.getMessage() == null || e.getMessage().isEmpty() ? "Invalid requirement list." : e.getMessage();
+			respond(exchange, 400, message);
+		} catch (RuntimeException e) {
+			respond(exchange, 500, "Could not solve the requirement list: " + e);
+		} finally {
+			inputFile.delete();
+			outputFile.delete();
+		}
+	}
+
+	/** Build the command line arguments of a request: the options the server was started with, except those
+	 * set by the server or replaced by the query parameters, followed by the options of the request
+	 *
+	 * @param query The query parameters of the request
+	 * @param inputFile The file holding the requirement list of the request
+	 * @param outputFile The file the output should be written to
+	 * @return The arguments to parse with JCommander
+	 */
+	private String[] getRequestArguments(Map<String, String> query, File inputFile, File outputFile) {
+		ArrayList<String> removed = new ArrayList<String>(SERVER_OPTIONS);
+		for(String parameter : query.keySet())
+			removed.addAll(QUERY_OPTIONS.get(parameter));
+
+		ArrayList<String> requestArgs = JCommanderInput.removeOptions(args, removed);
+		requestArgs.addAll(Arrays.asList("-i", inputFile.getPath(), "-o", outputFile.getPath(), "-q", "--max-memory", Long.toString(memoryShare)));
+		for(Map.Entry<String, String> parameter : query.entrySet()) {
+			requestArgs.add(QUERY_OPTIONS.get(parameter.getKey()).get(0));
+			requestArgs.add(parameter.getValue());
+		}
+		return requestArgs.toArray(new String[requestArgs.size()]);
+	}
+
+	/** Decode the query parameters of a request, allowing only the parameters listed in QUERY_OPTIONS
+	 *
+	 * @param rawQuery The encoded query of the request URI (null if there is none)
+	 * @return The decoded parameters
+	 * @throws ParameterException if a parameter is unknown, repeated or has no value
+	 */
+	private static Map<String, String> parseQuery(String rawQuery) throws UnsupportedEncodingException {
+		Map<String, String> query = new LinkedHashMap<String, String>();
+		if(rawQuery == null || rawQuery.isEmpty())
+			return query;
+
+		for(String pair : rawQuery.split("&")) {
+			int equals = pair.indexOf('=');
+			String name = URLDecoder.decode(equals < 0 ? pair : pair.substring(0, equals), "UTF-8");
+			if(!QUERY_OPTIONS.containsKey(name))
+				throw new ParameterException("Query parameter should be one of " + QUERY_OPTIONS.keySet() + " (found \"" + name + "\").");
+			if(equals < 0 || query.containsKey(name))
+				throw new ParameterException("Query parameter " + name + " should be given a single value.");
+			query.put(name, URLDecoder.decode(pair.substring(equals + 1), "UTF-8"));
+		}
+		return query;
+	}
+
+	/** Return the content type of an output format
+	 *
+	 * @param format The name of the format (see FormatValidator)
+	 * @return The MIME type of the format
+	 */
+	private static String getContentType(String format) {
+		switch(format) {
+		case "json":
+			return "application/json; charset=utf-8";
+		case "binary":
+			return "application/octet-stream";
+		default:
+			return "text/csv";
+		}
+	}
+
+	/** Send a plain text response
+	 *
+	 * @param exchange The HTTP request and its response
+	 * @param status The HTTP status code
+	 * @param message The body of the response
+	 * @throws IOException if the response cannot be sent
+	 */
+	private static void respond(HttpExchange exchange, int status, String message) throws IOException {
+		byte[] body = (message + "\n").getBytes(StandardCharsets.UTF_8);
+		exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+		exchange.sendResponseHeaders(status, body.length);
+		try(OutputStream out = exchange.getResponseBody()) {
+			out.write(body);
+		}
+	}
+}
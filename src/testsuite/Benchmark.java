@@ -0,0 +1,389 @@
+package testsuite;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import com.beust.jcommander.JCommander;
+
+import input.JCommanderInput;
+import output.Output;
+import solver.Optimizer;
+import solver.Requirement;
+import solver.RequirementSet;
+import util.InstanceClass;
+
+/** The Benchmark measures the average time of parsing an input file, of every selection algorithm, and
+ * of writing the output file, on random instances of every combination of the given numbers of
+ * requirements, fixed costs and instance classes (see BenchmarkInput for the options).  Unlike
+ * PerformanceTest, which only checks that a single instance finishes within a timeout, the results can
+ * be compared between builds to detect regressions.
+ *
+ * The measurement follows the methodology of JMH in a single JVM: each benchmark is run for a number of
+ * warmup iterations, so that its code is compiled by the JIT, and then for a number of measured
+ * iterations.  Each iteration repeats the benchmark until a minimum time has passed, and yields the
+ * average time of one operation.  The score is the mean of the iterations, with the half-width of its
+ * 99.9% confidence interval as error.  The results are written as JSON in the format of JMH, so that the
+ * tools reading JMH results can compare them.  The console is silenced while the benchmarks run, since
+ * parsing and output print progress messages.
+ *
+ * Run with: java -cp bin:lib/* testsuite.Benchmark [options], or "ant benchmark".
+ *
+ * @author Michael Camara
+ *
+ */
+public class Benchmark {
+
+	// The 99.95% quantiles of Student's t-distribution for 1 to 30 degrees of freedom (two-sided 99.9% interval)
+	private static final double[] T_QUANTILES = {636.619, 31.599, 12.924, 8.610, 6.869, 5.959, 5.408, 5.041, 4.781, 4.587,
+			4.437, 4.318, 4.221, 4.140, 4.073, 4.015, 3.965, 3.922, 3.883, 3.850, 3.819, 3.792, 3.768, 3.745, 3.725, 3.707,
+			3.690, 3.674, 3.659, 3.646};
+
+	// The 99.95% quantile of the normal distribution, which the t-distribution approaches
+	private static final double Z_QUANTILE = 3.291;
+
+	// Keeps the result of every operation reachable, so that the JIT cannot remove the work of a benchmark
+	private static volatile int sink;
+
+	private BenchmarkInput input;			// The options of the benchmarks
+	private PrintStream console;			// The console, which stays available while System.out is silenced
+	private ArrayList<Result> results = new ArrayList<Result>();	// The results of all benchmarks run so far
+
+	public static void main(String[] args) throws IOException {
+
+		// Instantiate JCommander components for accepting user-input
+		BenchmarkInput input = new BenchmarkInput();
+		JCommander jcommand = new JCommander(input, args);
+
+		// If user has specified the "--help" tag, show help message and stop program execution
+		if(input.isHelp() == true) {
+			jcommand.setProgramName("Benchmark");
+			jcommand.usage();
+			return;
+		}
+
+		new Benchmark(input).run();
+	}
+
+	/** Initialize the benchmarks with the options entered by the user
+	 *
+	 * @param input The options of the benchmarks
+	 */
+	public Benchmark(BenchmarkInput input) {
+		this.input = input;
+	}
+
+	/** Run every benchmark on every instance, then write the results
+	 *
+	 * @throws IOException if unable to create the instance files or the results file
+	 */
+	public void run() throws IOException {
+		List<String> benchmarks = input.getBenchmarks();
+		console = System.out;
+		System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+		try {
+			for(InstanceClass instanceClass : input.getInstanceClasses()) {
+				for(int numReqs : input.getSizes()) {
+					ArrayList<Requirement> reqs = instanceClass.createRequirements(numReqs, input.getRange(), input.getSeed());
+					RequirementSet set = new RequirementSet(reqs);
+
+					if(benchmarks.contains("parse"))
+						benchmarkParse(reqs, instanceClass);
+
+					for(int fixedCost : input.getFixedCosts()) {
+						Map<String, String> params = getParams(numReqs, fixedCost, instanceClass);
+						for(String benchmark : benchmarks) {
+							if(!benchmark.equals("parse") && !benchmark.startsWith("output-"))
+								measure(benchmark, params, () -> select(set, fixedCost, benchmark));
+						}
+						benchmarkOutput(set, fixedCost, params, benchmarks);
+					}
+				}
+			}
+		} finally {
+			System.setOut(console);
+		}
+
+		writeResults(input.getOutputFile());
+		printResults();
+	}
+
+	/** Benchmark the parsing of an input file holding the given requirements
+	 *
+	 * @param reqs The requirements of the instance
+	 * @param instanceClass The class of the instance
+	 * @throws IOException if unable to create the input file
+	 */
+	private void benchmarkParse(ArrayList<Requirement> reqs, InstanceClass instanceClass) throws IOException {
+		File inputFile = File.createTempFile("benchmark", ".csv");
+		try {
+			BufferedWriter writer = new BufferedWriter(new FileWriter(inputFile));
+			writer.write("Requirement,Cost,Benefit");
+			for(Requirement r : reqs)
+				writer.write(System.lineSeparator() + r);
+			writer.close();
+
+			JCommanderInput parseInput = new JCommanderInput();
+			new JCommander(parseInput, new String[] {"-i", inputFile.getPath(), "-f", "1"});
+
+			Map<String, String> params = getParams(reqs.size(), -1, instanceClass);
+			measure("parse", params, () -> parseInput.getRequirements());
+		} finally {
+			inputFile.delete();
+		}
+	}
+
+	/** Benchmark the writing of the output file in each requested format, for the requirements chosen by the
+	 * bitset dynamic algorithm
+	 *
+	 * @param set The requirements of the instance
+	 * @param fixedCost The fixed cost of the instance
+	 * @param params The parameters of the instance
+	 * @param benchmarks The names of the benchmarks to run
+	 * @throws IOException if unable to create the output file
+	 */
+	private void benchmarkOutput(RequirementSet set, int fixedCost, Map<String, String> params, List<String> benchmarks) throws IOException {
+		ArrayList<Requirement> chosenReqs = null;
+		File outputFile = File.createTempFile("benchmark", ".out");
+		try {
+			for(String format : new String[] {"csv", "json", "binary"}) {
+				if(!benchmarks.contains("output-" + format))
+					continue;
+				if(chosenReqs == null)
+					chosenReqs = new Optimizer(set, fixedCost, false).useBitsetDynamic();
+
+				JCommanderInput outputInput = new JCommanderInput();
+				new JCommander(outputInput, new String[] {"-q", "--format", format, "-o", outputFile.getPath(), "-f", Integer.toString(fixedCost)});
+				Output output = new Output(set, fixedCost, outputInput);
+				ArrayList<Requirement> chosen = chosenReqs;
+				measure("output-" + format, params, () -> {
+					try {
+						output.output(chosen, "Bitset Dynamic", "Maximum profit");
+					} catch (IOException e) {
+						throw new IllegalStateException(e);
+					}
+					return chosen;
+				});
+			}
+		} finally {
+			outputFile.delete();
+		}
+	}
+
+	/** Select the requirements of an instance with the given algorithm
+	 *
+	 * @param set The requirements of the instance
+	 * @param fixedCost The fixed cost of the instance
+	 * @param algorithm The name of the algorithm, as in AlgorithmValidator, or "approximation"
+	 * @return The chosen requirements
+	 */
+	private static ArrayList<Requirement> select(RequirementSet set, int fixedCost, String algorithm) {
+		Optimizer optimizer = new Optimizer(set, fixedCost, false);
+		optimizer.setThreads(Runtime.getRuntime().availableProcessors());
+		switch(algorithm) {
+		case "dynamic":
+			return optimizer.useDynamic();
+		case "bitset":
+			return optimizer.useBitsetDynamic();
+		case "parallel":
+			return optimizer.useParallelDynamic();
+		case "profit":
+			return optimizer.useProfitDynamic();
+		case "linear":
+			return optimizer.useLinearDynamic();
+		case "disk":
+			return optimizer.useDiskDynamic();
+		case "branch":
+			return optimizer.useBranchAndBound();
+		case "core":
+			return optimizer.useCore();
+		case "pareto":
+			return optimizer.usePareto();
+		case "approximation":
+			optimizer.setEpsilon(0.05);
+			return optimizer.useApproximation();
+		case "greedy":
+			return optimizer.useGreedy();
+		default:
+			throw new IllegalArgumentException("Unknown benchmark \"" + algorithm + "\"");
+		}
+	}
+
+	/** Run the warmup and measured iterations of a benchmark, and record its result.  Benchmarks that run
+	 * out of memory or fail are reported on the console and skipped.
+	 *
+	 * @param benchmark The name of the benchmark
+	 * @param params The parameters of the instance
+	 * @param operation A single operation of the benchmark, returning its result
+	 */
+	private void measure(String benchmark, Map<String, String> params, Supplier<Object> operation) {
+		console.print(benchmark + " " + params + ": ");
+		long iterationNanos = input.getIterationMillis() * 1000000L;
+		double[] scores = new double[input.getIterations()];
+
+		try {
+			System.gc();
+			for(int i = 0; i < input.getWarmupIterations(); i++)
+				iterate(operation, iterationNanos);
+			for(int i = 0; i < scores.length; i++)
+				scores[i] = iterate(operation, iterationNanos);
+		} catch (OutOfMemoryError e) {
+			console.println("skipped, out of memory");
+			return;
+		} catch (RuntimeException e) {
+			console.println("skipped, " + e);
+			return;
+		}
+
+		Result result = new Result(benchmark, params, scores);
+		results.add(result);
+		console.println(String.format("%.3f +- %.3f ms/op", result.score, result.error));
+	}
+
+	/** Repeat an operation until the given time has passed
+	 *
+	 * @param operation The operation
+	 * @param iterationNanos The minimum time of the iteration in nanoseconds
+	 * @return The average time of one operation in milliseconds
+	 */
+	private static double iterate(Supplier<Object> operation, long iterationNanos) {
+		long start = System.nanoTime(), elapsed;
+		int count = 0;
+		do {
+			sink += System.identityHashCode(operation.get());
+			count++;
+			elapsed = System.nanoTime() - start;
+		} while(elapsed < iterationNanos);
+		return elapsed / 1e6 / count;
+	}
+
+	/** Return the parameters of an instance, in the order they are shown
+	 *
+	 * @param numReqs The number of requirements
+	 * @param fixedCost The fixed cost (negative if the benchmark does not depend on it)
+	 * @param instanceClass The class of the instance
+	 * @return The parameters by name
+	 */
+	private static Map<String, String> getParams(int numReqs, int fixedCost, InstanceClass instanceClass) {
+		Map<String, String> params = new LinkedHashMap<String, String>();
+		params.put("n", Integer.toString(numReqs));
+		if(fixedCost >= 0)
+			params.put("fixedCost", Integer.toString(fixedCost));
+		params.put("instanceClass", instanceClass.getName());
+		return params;
+	}
+
+	/** Write the results as a JSON array in the format of JMH
+	 *
+	 * @param outputFile The file to create
+	 * @throws IOException if unable to create the file
+	 */
+	private void writeResults(File outputFile) throws IOException {
+		String newline = System.lineSeparator();
+		BufferedWriter writer = new BufferedWriter(new FileWriter(outputFile));
+		try {
+			writer.write("[");
+			for(int r = 0; r < results.size(); r++) {
+				Result result = results.get(r);
+				writer.write((r == 0 ? "" : ",") + newline + "    {" + newline);
+				writer.write("        \"benchmark\" : \"testsuite.Benchmark." + result.benchmark + "\"," + newline);
+				writer.write("        \"mode\" : \"avgt\"," + newline);
+				writer.write("        \"threads\" : 1," + newline);
+				writer.write("        \"forks\" : 0," + newline);
+				writer.write("        \"jvm\" : \"" + System.getProperty("java.home").replace("\\", "\\\\") + "\"," + newline);
+				writer.write("        \"jdkVersion\" : \"" + System.getProperty("java.version") + "\"," + newline);
+				writer.write("        \"warmupIterations\" : " + input.getWarmupIterations() + "," + newline);
+				writer.write("        \"warmupTime\" : \"" + input.getIterationMillis() + " ms\"," + newline);
+				writer.write("        \"measurementIterations\" : " + input.getIterations() + "," + newline);
+				writer.write("        \"measurementTime\" : \"" + input.getIterationMillis() + " ms\"," + newline);
+
+				writer.write("        \"params\" : {");
+				int p = 0;
+				for(Map.Entry<String, String> param : result.params.entrySet())
+					writer.write((p++ == 0 ? "" : ",") + newline + "            \"" + param.getKey() + "\" : \"" + param.getValue() + "\"");
+				writer.write(newline + "        }," + newline);
+
+				writer.write("        \"primaryMetric\" : {" + newline);
+				writer.write("            \"score\" : " + jsonNumber(result.score) + "," + newline);
+				writer.write("            \"scoreError\" : " + jsonNumber(result.error) + "," + newline);
+				writer.write("            \"scoreConfidence\" : [" + jsonNumber(result.score - result.error) + ", "
+						+ jsonNumber(result.score + result.error) + "]," + newline);
+				writer.write("            \"scoreUnit\" : \"ms/op\"," + newline);
+				writer.write("            \"rawData\" : [[");
+				for(int i = 0; i < result.scores.length; i++)
+					writer.write((i == 0 ? "" : ", ") + jsonNumber(result.scores[i]));
+				writer.write("]]" + newline + "        }," + newline);
+				writer.write("        \"secondaryMetrics\" : {}" + newline + "    }");
+			}
+			writer.write(newline + "]" + newline);
+		} finally {
+			writer.close();
+		}
+	}
+
+	/** Print a table of the results on the console, as JMH does at the end of a run
+	 */
+	private void printResults() {
+		System.out.println();
+		System.out.println(String.format("%-16s %8s %10s %14s %6s %4s %12s   %10s  %s", "Benchmark", "(n)", "(fixedCost)", "(instanceClass)",
+				"Mode", "Cnt", "Score", "Error", "Units"));
+		for(Result result : results) {
+			String fixedCost = result.params.containsKey("fixedCost") ? result.params.get("fixedCost") : "N/A";
+			System.out.println(String.format("%-16s %8s %10s %14s %6s %4d %12.3f +- %10.3f  %s", result.benchmark, result.params.get("n"),
+					fixedCost, result.params.get("instanceClass"), "avgt", result.scores.length, result.score, result.error, "ms/op"));
+		}
+		System.out.println("\nResults written to " + input.getOutputFile());
+	}
+
+	/** Format a number for JSON, which has no representation of infinite or undefined numbers
+	 */
+	private static String jsonNumber(double value) {
+		return Double.isFinite(value) ? Double.toString(value) : "\"NaN\"";
+	}
+
+	/** The scores of the measured iterations of one benchmark on one instance, with their mean and error
+	 */
+	private static class Result {
+		private final String benchmark;				// The name of the benchmark
+		private final Map<String, String> params;	// The parameters of the instance
+		private final double[] scores;				// The average time of one operation in each iteration
+		private final double score;					// The mean of the scores
+		private final double error;					// The half-width of the 99.9% confidence interval of the mean
+
+		Result(String benchmark, Map<String, String> params, double[] scores) {
+			this.benchmark = benchmark;
+			this.params = params;
+			this.scores = scores;
+
+			double sum = 0;
+			for(double s : scores)
+				sum += s;
+			this.score = sum / scores.length;
+
+			// The error is undefined with a single iteration, as in JMH
+			double squares = 0;
+			for(double s : scores)
+				squares += (s - score) * (s - score);
+			int degrees = scores.length - 1;
+			this.error = degrees < 1 ? Double.NaN : tQuantile(degrees) * Math.sqrt(squares / degrees / scores.length);
+		}
+
+		/** Return the 99.95% quantile of Student's t-distribution, using the Cornish-Fisher expansion
+		 * beyond the table
+		 */
+		private static double tQuantile(int degrees) {
+			if(degrees <= T_QUANTILES.length)
+				return T_QUANTILES[degrees - 1];
+			double z = Z_QUANTILE;
+			return z + (z * z * z + z) / (4.0 * degrees);
+		}
+	}
+}
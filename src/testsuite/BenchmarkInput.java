@@ -0,0 +1,163 @@
+package testsuite;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.beust.jcommander.Parameter;
+import com.beust.jcommander.ParameterException;
+
+import input.PositiveIntegerValidator;
+import util.InstanceClass;
+
+/** This class utilizes JCommander to handle command line input
+ * specifically for the Benchmark class.
+ *
+ * @author Michael Camara
+ *
+ */
+public class BenchmarkInput {
+
+	// Specify the names of the benchmarks to run
+	@Parameter(names = {"-b", "--benchmarks"}, description = "Comma separated list of benchmarks to run: parse, output-csv, "
+			+ "output-json, output-binary, or the name of an algorithm of Menu -a (dynamic, bitset, parallel, profit, linear, disk, "
+			+ "branch, core, pareto, approximation, greedy).  Defaults to all but branch, whose time on correlated instances is unbounded")
+	private List<String> benchmarks = new ArrayList<String>();
+
+	// Specify the numbers of requirements of the instances
+	@Parameter(names = {"-n", "--size"}, description = "Comma separated list of numbers of requirements of the instances")
+	private List<Integer> sizes = new ArrayList<Integer>(Arrays.asList(1000, 10000));
+
+	// Specify the fixed costs of the instances
+	@Parameter(names = {"-f", "--fixed"}, description = "Comma separated list of fixed costs of the instances")
+	private List<Integer> fixedCosts = new ArrayList<Integer>(Arrays.asList(1000, 10000));
+
+	// Specify the classes of the instances
+	@Parameter(names = {"-c", "--class"}, description = "Comma separated list of instance classes (see InstanceClass): "
+			+ "uncorrelated, weak, strong, inverse, subset, or spanner")
+	private List<String> classes = new ArrayList<String>(Arrays.asList("uncorrelated", "strong"));
+
+	// Specify the range of the costs and profits of the requirements
+	@Parameter(names = {"-r", "--range"}, description = "Range of the costs and profits of the requirements",
+			validateWith = PositiveIntegerValidator.class)
+	private int range = 100;
+
+	// Specify the seed of the instances, so that every build is measured on the same instances
+	@Parameter(names = {"--seed"}, description = "Seed of the random instances")
+	private long seed = 42;
+
+	// Specify the number of warmup iterations, which are not measured
+	@Parameter(names = {"-w", "--warmup"}, description = "Number of warmup iterations of each benchmark",
+			validateWith = PositiveIntegerValidator.class)
+	private int warmupIterations = 3;
+
+	// Specify the number of measured iterations
+	@Parameter(names = {"-i", "--iterations"}, description = "Number of measured iterations of each benchmark",
+			validateWith = PositiveIntegerValidator.class)
+	private int iterations = 5;
+
+	// Specify the time of each iteration
+	@Parameter(names = {"-t", "--time"}, description = "Minimum time of each iteration in milliseconds.  Each iteration "
+			+ "repeats the benchmark until this time has passed", validateWith = PositiveIntegerValidator.class)
+	private int iterationMillis = 500;
+
+	// Allow the user to specify the file the results are written to
+	@Parameter(names = {"-o", "--output"}, description = "Enter the desired file name for the results, written as JSON in the "
+			+ "format of JMH.  E.g. \"benchmark.json\"")
+	private File outputFile = new File("benchmark.json");
+
+	// Allow user to show help menu with parameter usage information
+	@Parameter(names = {"-h", "--help"}, description = "Shows parameter usage information", help = true)
+	private boolean help = false;
+
+	/**
+	 * @return the names of the benchmarks to run
+	 */
+	public List<String> getBenchmarks() {
+		if(benchmarks.isEmpty()) {
+			return Arrays.asList("parse", "dynamic", "bitset", "parallel", "profit", "linear", "disk", "core", "pareto",
+					"approximation", "greedy", "output-csv", "output-json", "output-binary");
+		}
+		return benchmarks;
+	}
+
+	/**
+	 * @return the numbers of requirements
+	 */
+	public List<Integer> getSizes() {
+		return sizes;
+	}
+
+	/**
+	 * @return the fixed costs
+	 */
+	public List<Integer> getFixedCosts() {
+		return fixedCosts;
+	}
+
+	/**
+	 * @return the instance classes, each ensured to be a known class
+	 */
+	public List<InstanceClass> getInstanceClasses() {
+		List<InstanceClass> instanceClasses = new ArrayList<InstanceClass>();
+		for(String name : classes) {
+			InstanceClass instanceClass = InstanceClass.fromName(name);
+			if(instanceClass == null)
+				throw new ParameterException("Instance classes should be uncorrelated, weak, strong, inverse, subset or spanner (found \"" + name + "\").");
+			instanceClasses.add(instanceClass);
+		}
+		return instanceClasses;
+	}
+
+	/**
+	 * @return the range of the costs and profits
+	 */
+	public int getRange() {
+		if(range == 0 || range > InstanceClass.MAX_RANGE)
+			throw new ParameterException("Parameter --range should be between 1 and " + InstanceClass.MAX_RANGE + " (found \"" + range + "\").");
+		return range;
+	}
+
+	/**
+	 * @return the seed of the instances
+	 */
+	public long getSeed() {
+		return seed;
+	}
+
+	/**
+	 * @return the number of warmup iterations
+	 */
+	public int getWarmupIterations() {
+		return warmupIterations;
+	}
+
+	/**
+	 * @return the number of measured iterations
+	 */
+	public int getIterations() {
+		return iterations;
+	}
+
+	/**
+	 * @return the minimum time of each iteration in milliseconds
+	 */
+	public int getIterationMillis() {
+		return iterationMillis;
+	}
+
+	/**
+	 * @return the file the results are written to
+	 */
+	public File getOutputFile() {
+		return outputFile;
+	}
+
+	/**
+	 * @return true if help is selected, false otherwise
+	 */
+	public boolean isHelp() {
+		return help;
+	}
+}
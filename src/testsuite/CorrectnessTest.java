@@ -1,19 +1,56 @@
 package testsuite;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
+import java.util.function.Function;
 
 import org.junit.Before;
 import org.junit.Test;
 
+import com.beust.jcommander.JCommander;
+import com.beust.jcommander.ParameterException;
+
+import input.BinaryRequirementFile;
+import input.JCommanderInput;
+import input.MappedRequirementParser;
+import input.MemorySizeValidator;
+import output.Output;
+import solver.AlgorithmPlanner;
+import solver.BatchRunner;
+import solver.BudgetSweep;
+import solver.DynamicAlgorithm;
+import solver.IncrementalOptimizer;
 import solver.Optimizer;
+import solver.ParallelDynamicAlgorithm;
+import solver.Preprocessor;
 import solver.Requirement;
+import solver.RequirementComparator;
+import solver.RequirementSet;
+import solver.SolverServer;
+import util.InstanceClass;
+import util.Metrics;
+import util.RequirementGenerator;
 
 /** The CorrectnessTest includes two core test cases: one for the greedy algorithm used by Optimizer, and one for the
  * dynamic algorithm.  It is designed to assess the correctness of each algorithm, meaning whether or not
@@ -147,6 +184,802 @@ public class CorrectnessTest {
 		assertEquals("Total cost from dynamic algorithm does not match expected cost", expectedCost, actualCost);
 	}
 
+	@Test
+	/** Test whether every exact algorithm yields the "correct" result when the fixed cost is below the total
+	 * cost of the requirements, so that not every requirement fits.  Each random list includes requirements
+	 * without any cost, which are ranked by an arbitrary ratio and can fall between the others.  The maximum
+	 * profit of each list is found by brute force over every combination of requirements.
+	 * 
+	 * Fails if: profit from any exact algorithm does not match profit from brute force algorithm; cost from
+	 * any exact algorithm exceeds the fixed cost.
+	 */
+	public void testExactAlgorithmsCorrectness() {
+
+		// The exact algorithms, each selecting the most optimal requirements for an optimizer
+		Map<String,Function<Optimizer,ArrayList<Requirement>>> algorithms = new LinkedHashMap<String,Function<Optimizer,ArrayList<Requirement>>>();
+		algorithms.put("dynamic", Optimizer::useDynamic);
+		algorithms.put("bitset", Optimizer::useBitsetDynamic);
+		algorithms.put("parallel", Optimizer::useParallelDynamic);
+		algorithms.put("profit", Optimizer::useProfitDynamic);
+		algorithms.put("linear", Optimizer::useLinearDynamic);
+		algorithms.put("disk", Optimizer::useDiskDynamic);
+		algorithms.put("branch", Optimizer::useBranchAndBound);
+		algorithms.put("core", Optimizer::useCore);
+		algorithms.put("pareto", Optimizer::usePareto);
+
+		// Start with a list where the core algorithm used to prune the optimal solution (cost, perceived profit)
+		List<ArrayList<Requirement>> lists = new ArrayList<ArrayList<Requirement>>();
+		List<Integer> budgets = new ArrayList<Integer>();
+		int[][] values = {{2, 420}, {3, 518}, {1, 1}, {0, 2}, {1, 2}, {1, 4}, {4, 163}, {1, 5}, {3, 2}, {5, 3}, {0, 304}};
+		ArrayList<Requirement> reqs = new ArrayList<Requirement>();
+		for(int i = 0; i < values.length; i++)
+			reqs.add(new Requirement("R" + i, values[i][0], values[i][0] + values[i][1]));
+		lists.add(reqs);
+		budgets.add(4);
+
+		// Add random lists with about one in four requirements without any cost, and a fixed cost below the total
+		Random rand = new Random();
+		for(int n = 0; n < 40; n++) {
+			reqs = new ArrayList<Requirement>();
+			int totalCost = 0;
+			for(int i = 0; i < 12; i++) {
+				int cost = rand.nextInt(4) == 0 ? 0 : rand.nextInt(maxReqCost) + 1;
+				reqs.add(new Requirement("R" + i, cost, cost + rand.nextInt(maxReqBen) + 1));
+				totalCost += cost;
+			}
+			lists.add(reqs);
+			budgets.add(rand.nextInt(totalCost + 1) * 2 / 3);
+		}
+
+		for(int n = 0; n < lists.size(); n++) {
+			int budget = budgets.get(n);
+			int expectedListProfit = useBruteForce(lists.get(n), budget);
+			Optimizer listOptimizer = new Optimizer(lists.get(n), budget, false);
+
+			for(Map.Entry<String,Function<Optimizer,ArrayList<Requirement>>> algorithm : algorithms.entrySet()) {
+
+				// Tally the total profit and cost for the requirements chosen by this algorithm
+				int actualProfit = 0, actualCost = 0;
+				for(Requirement r : algorithm.getValue().apply(listOptimizer)) {
+					actualProfit += r.getPerceivedProfit();
+					actualCost += r.getCost();
+				}
+
+				String context = " (" + algorithm.getKey() + " algorithm, fixed cost " + budget + ", requirements " + lists.get(n) + ")";
+				assertEquals("Profit does not match expected profit" + context, expectedListProfit, actualProfit);
+				assertTrue("Total cost exceeds fixed cost" + context, actualCost <= budget);
+			}
+		}
+	}
+
+	@Test
+	/** Test whether the parallel dynamic algorithm yields the same result as the sequential bitset dynamic
+	 * algorithm.  The brute force comparison cannot be used here, since the fixed cost needs to be large
+	 * enough (see ParallelDynamicAlgorithm.SEQUENTIAL_THRESHOLD) for the rows to actually be split across
+	 * threads, so a larger random list of requirements is used instead.
+	 * 
+	 * Fails if: profit from parallel dynamic algorithm does not match profit from bitset dynamic algorithm;
+	 * cost from parallel dynamic algorithm exceeds the fixed cost.
+	 */
+	public void testParallelDynamicCorrectness() {
+
+		// Create a larger list of requirements whose total cost exceeds a fixed cost above the threshold
+		int largeFixedCost = ParallelDynamicAlgorithm.SEQUENTIAL_THRESHOLD + 1000;
+		ArrayList<Requirement> largeReqs = new ArrayList<Requirement>();
+		Random rand = new Random();
+		for(int i = 0; i < 500; i++) {
+			largeReqs.add(new Requirement("R" + i, rand.nextInt(100 * maxReqCost), rand.nextInt(100 * maxReqBen) + 100 * maxReqCost));
+		}
+
+		Optimizer largeOptimizer = new Optimizer(largeReqs, largeFixedCost, false);
+		largeOptimizer.setThreads(4);
+
+		// Tally the total profit and cost of the requirements chosen by both algorithms
+		int expectedLargeProfit = 0;
+		for(Requirement r : largeOptimizer.useBitsetDynamic())
+			expectedLargeProfit += r.getPerceivedProfit();
+
+		int actualProfit = 0, actualCost = 0;
+		for(Requirement r : largeOptimizer.useParallelDynamic()) {
+			actualProfit += r.getPerceivedProfit();
+			actualCost += r.getCost();
+		}
+
+		assertEquals("Profit from parallel dynamic algorithm does not match expected profit", expectedLargeProfit, actualProfit);
+		assertTrue("Total cost from parallel dynamic algorithm exceeds fixed cost", actualCost <= largeFixedCost);
+	}
+
+	@Test
+	/** Test whether the dynamic algorithm chooses the narrowest width of its table, and stays correct
+	 * when the perceived profits add up past Integer.MAX_VALUE.  The Pareto algorithm keeps long profits,
+	 * so it is used as the expected result for such large profits.
+	 *
+	 * Fails if: the width does not match the total profit; profit from dynamic algorithm does not match
+	 * profit from Pareto algorithm; the planner chooses an algorithm with int profits for large profits.
+	 */
+	public void testDynamicWidthCorrectness() {
+
+		assertEquals("Small profits should use a short table", 2, DynamicAlgorithm.valueBytes(Short.MAX_VALUE));
+		assertEquals("Medium profits should use an int table", 4, DynamicAlgorithm.valueBytes(Short.MAX_VALUE + 1));
+		assertEquals("Large profits should use a long table", 8, DynamicAlgorithm.valueBytes(Integer.MAX_VALUE + 1L));
+
+		// Create requirements whose perceived profits add up past Integer.MAX_VALUE
+		ArrayList<Requirement> largeReqs = new ArrayList<Requirement>();
+		Random rand = new Random();
+		long totalProfit = 0;
+		for(int i = 0; i < 12; i++) {
+			Requirement r = new Requirement("R" + i, rand.nextInt(maxReqCost) + 1, 1000000000 + rand.nextInt(1000000000));
+			largeReqs.add(r);
+			totalProfit += r.getPerceivedProfit();
+		}
+		assertTrue("Perceived profits do not exceed Integer.MAX_VALUE", totalProfit > Integer.MAX_VALUE);
+
+		Optimizer largeOptimizer = new Optimizer(largeReqs, fixedCost, false);
+		long expectedLargeProfit = 0;
+		for(Requirement r : largeOptimizer.usePareto())
+			expectedLargeProfit += r.getPerceivedProfit();
+
+		long actualProfit = 0;
+		int actualCost = 0;
+		for(Requirement r : largeOptimizer.useDynamic()) {
+			actualProfit += r.getPerceivedProfit();
+			actualCost += r.getCost();
+		}
+
+		assertEquals("Profit from long dynamic algorithm does not match expected profit", expectedLargeProfit, actualProfit);
+		assertTrue("Total cost from long dynamic algorithm exceeds fixed cost", actualCost <= fixedCost);
+
+		// Algorithms with int profits should not be planned for such profits, even if requested
+		AlgorithmPlanner planner = new AlgorithmPlanner(12, fixedCost, totalProfit, 1);
+		assertEquals("Planned algorithm for large profits does not match", "dynamic", planner.plan("bitset", 0));
+	}
+
+	@Test
+	/** Test whether the paths that run an algorithm without a plan stay correct when the perceived profits
+	 * add up past Integer.MAX_VALUE: the incremental algorithm of watch mode keeps long profits, while the
+	 * sweep and the algorithms with int profits refuse such requirements instead of overflowing.
+	 *
+	 * Fails if: profit from incremental algorithm does not match the total profit of all requirements, before
+	 * or after an update; the sweep or the bitset dynamic algorithm accepts such requirements.
+	 */
+	public void testLargeProfitCorrectness() {
+
+		// Create requirements that all fit, and whose perceived profits add up past Integer.MAX_VALUE
+		ArrayList<Requirement> largeReqs = new ArrayList<Requirement>();
+		for(int i = 0; i < 3; i++)
+			largeReqs.add(new Requirement("R" + i, 1, 1500000000));
+
+		IncrementalOptimizer incremental = new IncrementalOptimizer(largeReqs, 3);
+		long actualProfit = 0;
+		for(Requirement r : incremental.optimize())
+			actualProfit += r.getPerceivedProfit();
+		assertEquals("Profit from incremental algorithm does not match expected profit", 4499999997L, actualProfit);
+
+		incremental.update(largeReqs.get(0), new Requirement("R0", 1, 2000000000));
+		actualProfit = 0;
+		for(Requirement r : incremental.optimize())
+			actualProfit += r.getPerceivedProfit();
+		assertEquals("Profit from incremental algorithm after update does not match expected profit", 4999999997L, actualProfit);
+
+		try {
+			new BudgetSweep(largeReqs, 3);
+			fail("Sweep accepted profits past Integer.MAX_VALUE");
+		} catch (ParameterException e) {
+			assertTrue("Sweep refused large profits for another reason", e.getMessage().contains("cannot hold a total perceived profit"));
+		}
+
+		try {
+			new Optimizer(largeReqs, 3, false).useBitsetDynamic();
+			fail("Bitset dynamic algorithm accepted profits past Integer.MAX_VALUE");
+		} catch (ParameterException e) {
+			assertTrue("Bitset dynamic algorithm refused large profits for another reason", e.getMessage().contains("cannot hold a total perceived profit"));
+		}
+	}
+
+	@Test
+	/** Test whether the approximation algorithm yields a result within its guaranteed error bound.  Unlike
+	 * the exact algorithms, it only needs to reach (1 - epsilon) times the profit chosen by the brute force
+	 * algorithm.
+	 * 
+	 * Fails if: profit from approximation algorithm is below (1 - epsilon) times the profit from brute force
+	 * algorithm; cost from approximation algorithm exceeds the fixed cost.
+	 */
+	public void testApproximationCorrectness() {
+
+		// Use the approximation algorithm to select requirements within 10% of the maximum profit
+		double epsilon = 0.1;
+		optimizer.setEpsilon(epsilon);
+		ArrayList<Requirement> actualChosenReqs = optimizer.useApproximation();
+
+		// Tally the total actual profit and cost for these chosen requirements
+		int actualProfit = 0, actualCost = 0;
+		for(Requirement r : actualChosenReqs) {
+			actualProfit += r.getPerceivedProfit();
+			actualCost += r.getCost();
+		}
+
+		assertTrue("Profit from approximation algorithm is below guaranteed bound", actualProfit >= (1 - epsilon) * expectedProfit);
+		assertTrue("Total cost from approximation algorithm exceeds fixed cost", actualCost <= fixedCost);
+	}
+
+	@Test
+	/** Test whether reducing the requirements through the Preprocessor still lets the dynamic algorithm
+	 * yield the "correct" result, using the same brute force comparison as testDynamicCorrectness().  The
+	 * requirements chosen during preprocessing are added to those chosen by the dynamic algorithm.
+	 * 
+	 * Fails if: profit after preprocessing does not match profit from brute force algorithm; cost after
+	 * preprocessing does not match cost from brute force algorithm.
+	 */
+	public void testPreprocessedDynamicCorrectness() {
+
+		// Reduce the requirements, then use the dynamic algorithm on the remaining ones
+		Preprocessor preprocessor = new Preprocessor(originalReqs, fixedCost);
+		Optimizer reducedOptimizer = new Optimizer(preprocessor.getReducedRequirements(), fixedCost, false);
+		reducedOptimizer.setCostDivisor(preprocessor.getCostDivisor());
+
+		ArrayList<Requirement> actualChosenReqs = reducedOptimizer.useDynamic();
+		actualChosenReqs.addAll(preprocessor.getFixedRequirements().toList());
+
+		// Tally the total actual profit and cost for these chosen requirements
+		int actualProfit = 0, actualCost = 0;
+		for(Requirement r : actualChosenReqs) {
+			actualProfit += r.getPerceivedProfit();
+			actualCost += r.getCost();
+		}
+
+		assertEquals("Profit after preprocessing does not match expected profit", expectedProfit, actualProfit);
+		assertEquals("Total cost after preprocessing does not match expected cost", expectedCost, actualCost);
+	}
+
+	@Test
+	/** Test whether a budget sweep yields the "correct" result for several budgets at once.  For the fixed
+	 * cost, the result is compared with the brute force algorithm; for a smaller budget, it is compared with
+	 * a separate run of the dynamic algorithm using that budget.
+	 * 
+	 * Fails if: profit of the sweep does not match the expected profit of any budget; the rebuilt
+	 * requirements of any budget do not match its profit or exceed it.
+	 */
+	public void testBudgetSweepCorrectness() {
+
+		BudgetSweep sweep = new BudgetSweep(originalReqs, fixedCost);
+		int smallBudget = expectedCost / 2;
+
+		// Find the maximum profit for the smaller budget using a separate run of the dynamic algorithm
+		int expectedSmallProfit = 0;
+		for(Requirement r : new Optimizer(new ArrayList<Requirement>(originalReqs), smallBudget, false).useDynamic()) {
+			if(r != null)
+				expectedSmallProfit += r.getPerceivedProfit();
+		}
+
+		assertEquals("Profit of sweep does not match expected profit", expectedProfit, sweep.getMaxProfit(fixedCost));
+		assertEquals("Profit of sweep does not match expected profit for smaller budget", expectedSmallProfit, sweep.getMaxProfit(smallBudget));
+
+		// Tally the total profit and cost of the requirements rebuilt for the smaller budget
+		int actualProfit = 0, actualCost = 0;
+		for(Requirement r : sweep.getChosenRequirements(smallBudget)) {
+			actualProfit += r.getPerceivedProfit();
+			actualCost += r.getCost();
+		}
+
+		assertEquals("Profit of requirements rebuilt by sweep does not match expected profit", expectedSmallProfit, actualProfit);
+		assertTrue("Total cost of requirements rebuilt by sweep exceeds budget", actualCost <= smallBudget);
+	}
+
+	@Test
+	/** Test whether the incremental optimizer keeps yielding the "correct" result while requirements are
+	 * removed, added, and updated.  After each change, the profit is compared with a separate run of the
+	 * dynamic algorithm on the changed list of requirements.  A budget of half the expected cost is used,
+	 * so that not every requirement fits.
+	 * 
+	 * Fails if: profit from the incremental optimizer does not match profit from the dynamic algorithm
+	 * after any change; cost of the chosen requirements exceeds the budget.
+	 */
+	public void testIncrementalCorrectness() {
+
+		int smallBudget = expectedCost / 2;
+		ArrayList<Requirement> currentReqs = new ArrayList<Requirement>(originalReqs);
+		IncrementalOptimizer incremental = new IncrementalOptimizer(currentReqs, smallBudget);
+		assertIncrementalProfit(incremental, currentReqs, smallBudget);
+
+		// Remove the first requirement, which invalidates every layer
+		incremental.remove(currentReqs.get(0));
+		currentReqs.remove(0);
+		assertIncrementalProfit(incremental, currentReqs, smallBudget);
+
+		// Add a new requirement
+		Requirement added = new Requirement("Added", maxReqCost / 2, maxReqBen);
+		incremental.add(added);
+		currentReqs.add(added);
+		assertIncrementalProfit(incremental, currentReqs, smallBudget);
+
+		// Update a requirement in the middle of the list
+		Requirement updated = new Requirement("Updated", 1, maxReqBen);
+		incremental.update(currentReqs.get(currentReqs.size() / 2), updated);
+		currentReqs.set(currentReqs.size() / 2, updated);
+		assertIncrementalProfit(incremental, currentReqs, smallBudget);
+
+		// Synchronize with the original list, which undoes all of the above
+		incremental.synchronize(originalReqs);
+		assertIncrementalProfit(incremental, originalReqs, smallBudget);
+	}
+
+	/** Assert that the incremental optimizer yields the same profit as the dynamic algorithm for a list of
+	 * requirements, within the given budget
+	 * 
+	 * @param incremental The incremental optimizer holding the same requirements as reqs
+	 * @param reqs The list of requirements
+	 * @param budget The fixed cost threshold of the incremental optimizer
+	 */
+	private void assertIncrementalProfit(IncrementalOptimizer incremental, ArrayList<Requirement> reqs, int budget) {
+
+		// Find the maximum profit using a separate run of the dynamic algorithm
+		int expectedIncrementalProfit = 0;
+		for(Requirement r : new Optimizer(new ArrayList<Requirement>(reqs), budget, false).useDynamic()) {
+			if(r != null)
+				expectedIncrementalProfit += r.getPerceivedProfit();
+		}
+
+		// Tally the total profit and cost of the requirements chosen by the incremental optimizer
+		int actualProfit = 0, actualCost = 0;
+		for(Requirement r : incremental.optimize()) {
+			actualProfit += r.getPerceivedProfit();
+			actualCost += r.getCost();
+		}
+
+		assertEquals("Profit from incremental optimizer does not match expected profit", expectedIncrementalProfit, actualProfit);
+		assertTrue("Total cost from incremental optimizer exceeds budget", actualCost <= budget);
+	}
+
+	@Test
+	/** Test whether the memory-mapped parser reads back the same requirements that were written to an
+	 * input file, both on a single thread and on several threads, and with names decoded while parsing or
+	 * resolved lazily.  A header, a requirement that does not generate a profit, Windows line endings and
+	 * trailing blank lines are included, all of which the parser should handle like the original parsing.
+	 * 
+	 * Fails if: the parsed requirements differ from the written profit generating requirements; the total
+	 * number of parsed requirements does not include the non-profit generating requirement.
+	 */
+	public void testParserCorrectness() throws IOException {
+
+		// Write the original requirements, plus one that does not generate a profit
+		File inputFile = File.createTempFile("requirements", ".csv");
+		inputFile.deleteOnExit();
+		FileWriter writer = new FileWriter(inputFile);
+		writer.write("Requirement,Cost,Benefit\r\n");
+		for(Requirement r : originalReqs)
+			writer.write(r + "\r\n");
+		writer.write("NoProfit," + maxReqCost + ",0\r\n\r\n");
+		writer.close();
+
+		MappedRequirementParser parser = new MappedRequirementParser(inputFile);
+		ArrayList<Requirement> parsedReqs = parser.parse().toList();
+
+		assertEquals("Requirements from parser do not match written requirements", originalReqs.toString(), parsedReqs.toString());
+		assertEquals("Total number of requirements from parser does not match", originalReqs.size() + 1, parser.getTotalNumRequirements());
+
+		// Parsing on several threads should give the same requirements in the same order
+		MappedRequirementParser parallelParser = new MappedRequirementParser(inputFile, 4);
+		assertEquals("Requirements from parallel parser do not match written requirements", originalReqs.toString(), parallelParser.parse().toList().toString());
+		assertEquals("Total number of requirements from parallel parser does not match", originalReqs.size() + 1, parallelParser.getTotalNumRequirements());
+
+		// Names resolved lazily from the mapped file should match the decoded names
+		MappedRequirementParser lazyParser = new MappedRequirementParser(inputFile, 4);
+		lazyParser.setLazyNames(true);
+		assertEquals("Requirements with lazy names do not match written requirements", originalReqs.toString(), lazyParser.parse().toList().toString());
+	}
+
+	@Test
+	/** Test whether a binary requirement file reads back the same requirements that were written to it,
+	 * including a requirement that does not generate a profit (with names decoded while loading or resolved
+	 * lazily), and whether it is recognized by its magic number.  Files too large to be loaded should not be
+	 * written at all.
+	 * 
+	 * Fails if: the file is not recognized as binary; the loaded requirements differ from the written
+	 * profit generating requirements; the total number of loaded requirements does not include the
+	 * non-profit generating requirement; the generator writes a file of 200 million requirements.
+	 */
+	public void testBinaryFileCorrectness() throws IOException {
+
+		ArrayList<Requirement> writtenReqs = new ArrayList<Requirement>(originalReqs);
+		writtenReqs.add(new Requirement("NoProfit", maxReqCost, 0));
+
+		File binaryFile = File.createTempFile("requirements", ".bin");
+		binaryFile.deleteOnExit();
+		BinaryRequirementFile.write(new RequirementSet(writtenReqs), binaryFile);
+
+		BinaryRequirementFile loader = new BinaryRequirementFile();
+		assertTrue("Binary requirement file is not recognized by its magic number", BinaryRequirementFile.isBinary(binaryFile));
+		assertEquals("Requirements from binary file do not match written requirements", originalReqs.toString(), loader.load(binaryFile).toList().toString());
+		assertEquals("Total number of requirements from binary file does not match", writtenReqs.size(), loader.getTotalNumRequirements());
+
+		// Names resolved lazily from the mapped file should match the decoded names
+		loader.setLazyNames(true);
+		assertEquals("Requirements with lazy names from binary file do not match written requirements", originalReqs.toString(), loader.load(binaryFile).toList().toString());
+
+		// Files too large to be loaded again should be refused before anything is written
+		File largeFile = File.createTempFile("requirements", ".bin");
+		largeFile.deleteOnExit();
+		try {
+			new RequirementGenerator(200000000, null, 100, 100, 5).writeBinary(largeFile, 1);
+			fail("Generator wrote a binary file too large to be loaded");
+		} catch (IOException e) {
+			assertEquals("Generator wrote part of a binary file too large to be loaded", 0, largeFile.length());
+		}
+	}
+
+	@Test
+	/** Test whether the chosen requirements written by Output in the binary and JSON formats hold the same
+	 * requirements as the selection, with quiet mode on.
+	 * 
+	 * Fails if: the requirements loaded from the binary output file differ from the chosen requirements; the
+	 * JSON output file does not hold the total perceived profit or a chosen requirement.
+	 */
+	public void testOutputFormats() throws IOException {
+
+		ArrayList<Requirement> chosenReqs = optimizer.useDynamic();
+		int totalPerceivedProfit = 0;
+		for(Requirement r : chosenReqs)
+			totalPerceivedProfit += r.getPerceivedProfit();
+
+		// Write the selection in the binary format, and read it back
+		File binaryFile = File.createTempFile("chosen", ".bin");
+		binaryFile.deleteOnExit();
+		new Output(new RequirementSet(originalReqs), fixedCost, parseArguments("-q", "--format", "binary", "-o", binaryFile.getPath()))
+				.output(chosenReqs, "Dynamic", "Maximum profit");
+		assertEquals("Requirements from binary output do not match chosen requirements", chosenReqs.toString(),
+				new BinaryRequirementFile().load(binaryFile).toList().toString());
+
+		// Write the selection as JSON
+		File jsonFile = File.createTempFile("chosen", ".json");
+		jsonFile.deleteOnExit();
+		new Output(new RequirementSet(originalReqs), fixedCost, parseArguments("-q", "--format", "json", "-o", jsonFile.getPath()))
+				.output(chosenReqs, "Dynamic", "Maximum profit");
+		String json = new String(Files.readAllBytes(jsonFile.toPath()), StandardCharsets.UTF_8);
+		assertTrue("JSON output does not hold the total perceived profit", json.contains("\"totalPerceivedProfit\": " + totalPerceivedProfit + ","));
+		assertTrue("JSON output does not hold a chosen requirement", chosenReqs.isEmpty() || json.contains("{\"name\": \"" + chosenReqs.get(0).getName()
+				+ "\", \"cost\": " + chosenReqs.get(0).getCost() + ", \"benefit\": " + chosenReqs.get(0).getBenefit() + "}"));
+	}
+
+	@Test
+	/** Test whether Output reports the totals of the chosen requirements when their profits add up past
+	 * Integer.MAX_VALUE, both in the quiet summary and in the JSON output file.
+	 * 
+	 * Fails if: the quiet summary or the JSON output file does not hold the exact total perceived profit, or
+	 * the JSON output file does not hold the exact total benefit.
+	 */
+	public void testOutputTotalsCorrectness() throws IOException {
+
+		// Choose requirements whose profits add up past Integer.MAX_VALUE
+		ArrayList<Requirement> largeReqs = new ArrayList<Requirement>();
+		for(int i = 0; i < 3; i++)
+			largeReqs.add(new Requirement("R" + i, 1, 1500000000));
+
+		// Write the selection as JSON, keeping the quiet summary printed to the console
+		File jsonFile = File.createTempFile("chosen", ".json");
+		jsonFile.deleteOnExit();
+		PrintStream console = System.out;
+		ByteArrayOutputStream summary = new ByteArrayOutputStream();
+		System.setOut(new PrintStream(summary, true));
+		try {
+			new Output(new RequirementSet(largeReqs), 3, parseArguments("-q", "--format", "json", "-o", jsonFile.getPath()))
+					.output(largeReqs, "Dynamic", "Maximum profit");
+		}
+		finally {
+			System.setOut(console);
+		}
+
+		String json = new String(Files.readAllBytes(jsonFile.toPath()), StandardCharsets.UTF_8);
+		assertTrue("Quiet summary does not hold the total perceived profit", summary.toString().contains("total perceived profit = $4499999997"));
+		assertTrue("JSON output does not hold the total benefit", json.contains("\"totalBenefit\": 4500000000,"));
+		assertTrue("JSON output does not hold the total perceived profit", json.contains("\"totalPerceivedProfit\": 4499999997,"));
+	}
+
+	@Test
+	/** Test whether the SolverServer yields the "correct" result for a requirement list sent as .csv, and
+	 * whether the JSON it returns can be sent back as a requirement list, using the same brute force
+	 * comparison as testDynamicCorrectness().
+	 *
+	 * Fails if: profit of the requirements returned by the server does not match profit from brute force
+	 * algorithm; an invalid request is not answered with status 400.
+	 */
+	public void testServerCorrectness() throws IOException {
+
+		SolverServer server = new SolverServer(0, 2, new String[] {"-f", Integer.toString(fixedCost)});
+		server.start();
+		try {
+			String url = "http://localhost:" + server.getPort() + "/solve";
+
+			// Send the requirements as a .csv file, with a header line
+			StringBuilder csv = new StringBuilder("Requirement,Cost,Benefit");
+			for(Requirement r : originalReqs)
+				csv.append("\n").append(r);
+			HttpURLConnection connection = post(url + "?algorithm=dynamic", csv.toString());
+			assertEquals("Server did not solve the .csv requirement list", 200, connection.getResponseCode());
+
+			int actualProfit = 0;
+			String[] lines = new String(connection.getInputStream().readAllBytes(), StandardCharsets.UTF_8).split("\\R");
+			for(int i = 1; i < lines.length; i++) {
+				String[] values = lines[i].split(",");
+				actualProfit += new Requirement(values[0], Integer.parseInt(values[1]), Integer.parseInt(values[2])).getPerceivedProfit();
+			}
+			assertEquals("Profit from server does not match expected profit", expectedProfit, actualProfit);
+
+			// Ask for JSON, and send the chosen requirements back, which should all be chosen again
+			connection = post(url + "?format=json", csv.toString());
+			String json = new String(connection.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+			connection = post(url + "?format=json", json);
+			assertEquals("Server did not solve the JSON requirement list", 200, connection.getResponseCode());
+			assertTrue("Profit from server does not match expected profit for JSON input", new String(connection.getInputStream().readAllBytes(),
+					StandardCharsets.UTF_8).contains("\"totalPerceivedProfit\": " + expectedProfit + ","));
+
+			// Invalid options should be reported to the client
+			assertEquals("Invalid fixed cost was not rejected", 400, post(url + "?fixedCost=-1", csv.toString()).getResponseCode());
+		} finally {
+			server.stop();
+		}
+	}
+
+	@Test
+	/** Test whether the BatchRunner yields the "correct" result for every job of a manifest, using the same
+	 * brute force comparison as testDynamicCorrectness().  Two jobs share the same input file, one of them
+	 * with the default fixed cost, and a job with a missing input file should fail on its own.
+	 *
+	 * Fails if: profit of a job in the summary does not match profit from brute force algorithm; a job's
+	 * output file does not hold its chosen requirements; the failing job is not reported in the summary.
+	 */
+	public void testBatchCorrectness() throws IOException {
+
+		File inputFile = File.createTempFile("requirements", ".csv");
+		File firstOutput = File.createTempFile("chosen", ".csv");
+		File secondOutput = File.createTempFile("chosen", ".csv");
+		File manifest = File.createTempFile("manifest", ".csv");
+		File summary = File.createTempFile("summary", ".csv");
+		for(File file : new File[] {inputFile, firstOutput, secondOutput, manifest, summary})
+			file.deleteOnExit();
+
+		FileWriter writer = new FileWriter(inputFile);
+		writer.write("Requirement,Cost,Benefit");
+		for(Requirement r : originalReqs)
+			writer.write("\n" + r);
+		writer.close();
+
+		writer = new FileWriter(manifest);
+		writer.write("InputFile,FixedCost,OutputFile\n");
+		writer.write(inputFile + ",," + firstOutput + "\n");
+		writer.write(inputFile + "," + fixedCost + "," + secondOutput + "\n");
+		writer.write(inputFile + ".missing,10," + inputFile + ".out\n");
+		writer.close();
+
+		new BatchRunner(manifest, 2, new String[] {"-f", Integer.toString(fixedCost), "-a", "dynamic"}).run(summary);
+
+		List<String> lines = Files.readAllLines(summary.toPath());
+		assertEquals("Summary does not hold every job", 4, lines.size());
+		for(int job = 1; job <= 2; job++) {
+			String[] values = lines.get(job).split(",");
+			assertEquals("Batch job " + job + " did not succeed", "ok", values[4]);
+			assertEquals("Profit from batch job " + job + " does not match expected profit", expectedProfit, Integer.parseInt(values[7]));
+			assertEquals("Output file of batch job " + job + " does not hold the chosen requirements", Integer.parseInt(values[5]) + 1,
+					Files.readAllLines((job == 1 ? firstOutput : secondOutput).toPath()).size());
+		}
+		assertTrue("Missing input file was not reported", lines.get(3).split(",")[4].startsWith("failed"));
+	}
+
+	/** Send a request body to the SolverServer
+	 *
+	 * @param url The URL of the request, including its query parameters
+	 * @param body The requirement list
+	 * @return The connection holding the response
+	 */
+	private HttpURLConnection post(String url, String body) throws IOException {
+		HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+		connection.setRequestMethod("POST");
+		connection.setDoOutput(true);
+		try(OutputStream out = connection.getOutputStream()) {
+			out.write(body.getBytes(StandardCharsets.UTF_8));
+		}
+		return connection;
+	}
+
+	/** Create a JCommanderInput from command line arguments, with the fixed cost of this test
+	 * 
+	 * @param args The command line arguments besides the fixed cost
+	 * @return The JCommanderInput holding the arguments
+	 */
+	private JCommanderInput parseArguments(String... args) {
+		String[] allArgs = Arrays.copyOf(args, args.length + 2);
+		allArgs[args.length] = "-f";
+		allArgs[args.length + 1] = Integer.toString(fixedCost);
+
+		JCommanderInput input = new JCommanderInput();
+		new JCommander(input, allArgs);
+		return input;
+	}
+
+	@Test
+	/** Test whether the AlgorithmPlanner degrades from the fastest exact algorithm through the smaller exact
+	 * algorithms and the approximation algorithm to the greedy algorithm as the memory budget shrinks, for
+	 * an instance of 100 requirements with a fixed cost of 10000 (a full table of about 4 MB).
+	 * 
+	 * Fails if: the planned algorithm for a memory budget is not the expected one; an approximation is
+	 * planned without an error bound.
+	 */
+	public void testPlannerCorrectness() {
+
+		AlgorithmPlanner planner = new AlgorithmPlanner(100, 10000, 1000000, 1);
+		String[][] expectedPlans = {
+				{"10m", "auto", "dynamic"},
+				{"1m", "auto", "bitset"},
+				{"1m", "dynamic", "bitset"},
+				{"150k", "auto", "linear"},
+				{"10k", "auto", "approximation"},
+				{"100", "auto", "greedy"},
+				{"10m", "greedy", "greedy"},
+				{"10m", "pareto", "pareto"}};
+
+		for(String[] expectedPlan : expectedPlans) {
+			planner.setMaxMemory(MemorySizeValidator.parse(expectedPlan[0]));
+			assertEquals("Planned algorithm for " + expectedPlan[1] + " within " + expectedPlan[0] + " does not match",
+					expectedPlan[2], planner.plan(expectedPlan[1], 0));
+		}
+
+		// An approximation should only be planned with an error bound
+		planner.setMaxMemory(MemorySizeValidator.parse("10k"));
+		planner.plan("auto", 0);
+		assertTrue("Approximation planned without an error bound", planner.getEpsilon() > 0);
+
+		// A requested error bound should be kept if it fits
+		planner.setMaxMemory(MemorySizeValidator.parse("10m"));
+		assertEquals("Requested approximation was not planned", "approximation", planner.plan("auto", 0.1));
+		assertEquals("Requested error bound was not kept", 0.1, planner.getEpsilon(), 0);
+	}
+
+	@Test
+	/** Test whether a RequirementSet sorts its requirements by ratio of perceived profit to cost in the
+	 * same order as RequirementComparator, including requirements without cost and with negative or equal
+	 * ratios, and whether converting between a list and a set keeps every requirement.
+	 * 
+	 * Fails if: the sorted set differs from the list sorted by RequirementComparator; the set does not
+	 * convert back to the original list.
+	 */
+	public void testRequirementSetCorrectness() {
+
+		ArrayList<Requirement> reqs = new ArrayList<Requirement>(originalReqs);
+		reqs.add(new Requirement("NoCost", 0, 10));
+		reqs.add(new Requirement("!Weighted", 10, 30));
+		reqs.add(new Requirement("#Loss", 30, 10));
+		reqs.add(new Requirement("Same1", 10, 30));
+		reqs.add(new Requirement("Same2", 20, 60));
+		RequirementSet set = new RequirementSet(reqs);
+
+		assertEquals("Requirement set does not convert back to the same list", reqs.toString(), set.toList().toString());
+
+		// List.sort() is stable, so requirements with equal ratios should keep their order in both
+		ArrayList<Requirement> sortedReqs = new ArrayList<Requirement>(reqs);
+		sortedReqs.sort(new RequirementComparator());
+		assertEquals("Sorted requirement set does not match RequirementComparator", sortedReqs.toString(), set.sortedByRatio().toList().toString());
+	}
+
+	@Test
+	/** Test whether the random instance classes used by the benchmarks are reproducible and related as
+	 * described in InstanceClass, so that benchmark results of different builds are measured on the same
+	 * instances.
+	 *
+	 * Fails if: the same seed yields different requirements; a cost or profit falls outside its range; a
+	 * strongly correlated profit is not the cost plus R/10 (or the reverse for inverse strongly correlated);
+	 * a subset sum profit differs from the cost; a spanner instance holds more than two profit/cost ratios.
+	 */
+	public void testInstanceClassCorrectness() {
+		int range = 100;
+		for(InstanceClass instanceClass : InstanceClass.values()) {
+			ArrayList<Requirement> reqs = instanceClass.createRequirements(500, range, 7);
+			assertEquals("Instance class " + instanceClass.getName() + " is not reproducible", reqs.toString(),
+					instanceClass.createRequirements(500, range, 7).toString());
+			assertEquals("Instance class name does not map back", instanceClass, InstanceClass.fromName(instanceClass.getName()));
+
+			HashSet<Double> ratios = new HashSet<Double>();
+			for(Requirement r : reqs) {
+				int profit = r.getPerceivedProfit();
+				assertTrue("Cost and profit should be positive", r.getCost() >= 1 && profit >= 1);
+				ratios.add((double) profit / r.getCost());
+				if(instanceClass == InstanceClass.STRONGLY_CORRELATED)
+					assertEquals("Strongly correlated profit should be the cost plus R/10", r.getCost() + range / 10, profit);
+				else if(instanceClass == InstanceClass.INVERSE_STRONGLY_CORRELATED)
+					assertEquals("Inverse strongly correlated cost should be the profit plus R/10", profit + range / 10, r.getCost());
+				else if(instanceClass == InstanceClass.SUBSET_SUM)
+					assertEquals("Subset sum profit should equal the cost", r.getCost(), profit);
+				else if(instanceClass == InstanceClass.WEAKLY_CORRELATED)
+					assertTrue("Weakly correlated profit should be within R/10 of the cost", Math.abs(profit - r.getCost()) <= range / 10);
+				if(instanceClass != InstanceClass.SPANNER && instanceClass != InstanceClass.INVERSE_STRONGLY_CORRELATED)
+					assertTrue("Cost out of range", r.getCost() <= range);
+			}
+			if(instanceClass == InstanceClass.SPANNER)
+				assertTrue("Spanner requirements should be multiples of two spanner requirements", ratios.size() <= 2);
+		}
+	}
+
+	@Test
+	/** Test whether the RequirementGenerator writes the same requirements as InstanceClass for the same
+	 * seed, in both formats and whatever the number of threads, over several chunks.
+	 *
+	 * Fails if: the parsed .csv or binary file differs from InstanceClass.createRequirements(); two uniform
+	 * files generated with the same seed on different numbers of threads differ.
+	 */
+	public void testGeneratorCorrectness() throws IOException {
+		int numReqs = 2 * InstanceClass.CHUNK_SIZE + 123;
+		File csvFile = File.createTempFile("generated", ".csv");
+		File binaryFile = File.createTempFile("generated", ".bin");
+		File otherFile = File.createTempFile("generated", ".csv");
+		try {
+			for(InstanceClass instanceClass : new InstanceClass[] {InstanceClass.WEAKLY_CORRELATED, InstanceClass.SPANNER}) {
+				String expected = instanceClass.createRequirements(numReqs, 1000, 11).toString();
+				RequirementGenerator generator = new RequirementGenerator(numReqs, instanceClass, 1000, 0, 11);
+
+				generator.writeCsv(csvFile, 3);
+				JCommanderInput input = new JCommanderInput();
+				new JCommander(input, new String[] {"-i", csvFile.getPath(), "-f", "1", "-q"});
+				assertEquals("Generated .csv file does not match the instance class", expected, input.getRequirements().toList().toString());
+
+				generator.writeBinary(binaryFile, 2);
+				assertEquals("Generated binary file does not match the instance class", expected,
+						new BinaryRequirementFile().load(binaryFile).toList().toString());
+			}
+
+			new RequirementGenerator(numReqs, null, 100, 100, 5).writeCsv(csvFile, 1);
+			new RequirementGenerator(numReqs, null, 100, 100, 5).writeCsv(otherFile, 4);
+			assertTrue("Uniform files with the same seed differ", Arrays.equals(Files.readAllBytes(csvFile.toPath()), Files.readAllBytes(otherFile.toPath())));
+		} finally {
+			csvFile.delete();
+			binaryFile.delete();
+			otherFile.delete();
+		}
+	}
+
+	@Test
+	/** Test whether the Metrics record the phases of optimize() and export them, and whether separate
+	 * Metrics objects stay independent of each other.
+	 *
+	 * Fails if: the plan, solve or reconstruct phase is missing or has no time; the chosen algorithm or the
+	 * table size is not recorded, or is recorded for the linear algorithm; the JSON or Prometheus export misses
+	 * a phase, its heap used, or a count.
+	 */
+	public void testMetricsCorrectness() {
+		Metrics metrics = new Metrics();
+		Metrics other = new Metrics();
+		other.start(Metrics.PARSE);
+
+		optimizer.setAlgorithm("dynamic");
+		optimizer.setMetrics(metrics);
+		optimizer.optimize();
+		metrics.stop();
+		other.stop();
+
+		assertEquals("Phases of optimize() not recorded in order", Arrays.asList(Metrics.PLAN, Metrics.SOLVE, Metrics.RECONSTRUCT), metrics.getPhases());
+		for(String phase : metrics.getPhases())
+			assertTrue("Phase " + phase + " has no time", metrics.getNanos(phase) > 0);
+		assertEquals("Chosen algorithm not recorded", optimizer.getChosenAlgorithm(), metrics.getAlgorithm());
+		assertEquals("Table size not recorded", (long) numReqs * (fixedCost + 1), metrics.getCount("tableCells"));
+		assertEquals("Metrics of another solve were changed", Arrays.asList(Metrics.PARSE), other.getPhases());
+
+		// The linear algorithm never allocates the full table, so only its rows are counted
+		Metrics linearMetrics = new Metrics();
+		optimizer.setAlgorithm("linear");
+		optimizer.setMetrics(linearMetrics);
+		optimizer.optimize();
+		linearMetrics.stop();
+		assertEquals("Table size recorded for the linear algorithm", -1, linearMetrics.getCount("tableCells"));
+		assertEquals("Row size of the linear algorithm not recorded", 2L * (fixedCost + 1), linearMetrics.getCount("rowCells"));
+
+		String json = metrics.toJson();
+		assertTrue("JSON metrics miss the solve phase", json.contains("{\"phase\": \"solve\", \"nanos\": " + metrics.getNanos(Metrics.SOLVE) + ","));
+		assertTrue("JSON metrics miss the heap used at the end of the solve phase", json.contains("\"heapUsedBytes\": " + metrics.getHeapUsedBytes(Metrics.SOLVE) + "}"));
+		assertTrue("JSON metrics miss the table size", json.contains("\"tableCells\": " + metrics.getCount("tableCells")));
+
+		String prometheus = metrics.toPrometheus();
+		assertTrue("Prometheus metrics miss the algorithm", prometheus.contains("knapsack_solve_info{algorithm=\"Dynamic\"} 1\n"));
+		assertTrue("Prometheus metrics miss the solve phase", prometheus.contains("knapsack_phase_seconds{phase=\"solve\"} " + metrics.getNanos(Metrics.SOLVE) / 1e9 + "\n"));
+		assertTrue("Prometheus metrics miss the table size", prometheus.contains("knapsack_table_cells " + metrics.getCount("tableCells") + "\n"));
+	}
+
 	@Test
 	/** Test whether the greedy algorithm yields the "correct" result.  Here, "correct" indicates that
 	 * the algorithm has chosen requirements that give the maximum profit possible out of all possible
@@ -232,6 +1065,7 @@ public class CorrectnessTest {
 
 				//  Update the chosen requirements list if profit is highest within fixedCost threshold
 				if(totalCost <= fixedCost && totalProfit > maxProfit) {
+					maxProfit = totalProfit;
 					expectedChosenReqs = combinationList;
 				}
 			}	  
@@ -240,6 +1074,30 @@ public class CorrectnessTest {
 		return expectedChosenReqs;
 	}
 
+	/** Determine the maximum profit of any combination of requirements that stays within a given fixed cost,
+	 * by iterating through every combination as the bits of a number.  Unlike the powerset above, this does not
+	 * keep the combinations, so it is used for the many small lists of testExactAlgorithmsCorrectness().
+	 * 
+	 * @param reqs The list of requirements on which the algorithm is applied (at most 30 requirements)
+	 * @param budget The fixed cost the chosen requirements cannot cumulatively exceed
+	 * @return The maximum profit of any combination within the fixed cost
+	 */
+	private int useBruteForce(ArrayList<Requirement> reqs, int budget) {
+		int maxProfit = 0;
+		for(int combination = 0; combination < (1 << reqs.size()); combination++) {
+			int totalCost = 0, totalProfit = 0;
+			for(int i = 0; i < reqs.size(); i++) {
+				if((combination & (1 << i)) != 0) {
+					totalCost += reqs.get(i).getCost();
+					totalProfit += reqs.get(i).getPerceivedProfit();
+				}
+			}
+			if(totalCost <= budget && totalProfit > maxProfit)
+				maxProfit = totalProfit;
+		}
+		return maxProfit;
+	}
+
 	/** First call of the recursive powerset generating method created by stackoverflow.com user "alfasin."
 	 * 
 	 * @param src The original list of requirements
@@ -0,0 +1,171 @@
+package util;
+
+import java.util.ArrayList;
+import java.util.SplittableRandom;
+
+import solver.Requirement;
+
+/** The classes of random knapsack instances commonly used to compare knapsack algorithms (see Kellerer,
+ * Pferschy and Pisinger, Knapsack Problems, 2004, and Pisinger, Where are the hard knapsack problems?,
+ * 2005).  Each class relates the perceived profit of a requirement to its cost, for a range R:
+ *
+ *   uncorrelated - the cost and profit are drawn independently between 1 and R;
+ *   weakly correlated - the cost is drawn between 1 and R, and the profit within R/10 of it (at least 1);
+ *   strongly correlated - the cost is drawn between 1 and R, and the profit is the cost plus R/10;
+ *   inverse strongly correlated - the profit is drawn between 1 and R, and the cost is the profit plus R/10;
+ *   subset sum - the cost is drawn between 1 and R, and the profit equals it;
+ *   spanner - a spanner set of 2 strongly correlated requirements is drawn and scaled down by 2/10, then each
+ *     requirement is a spanner requirement multiplied by a factor between 1 and 10.
+ *
+ * The more correlated the profits and costs, the less the profit/cost ratio tells requirements apart, so
+ * the harder the instances are for the branch-and-bound and core algorithms.  Spanner instances hold only
+ * multiples of a few requirements, which are hard for every algorithm.  Since the perceived profit of a
+ * requirement is its benefit minus its cost, the benefit is the cost plus the drawn profit.
+ *
+ * Instances are drawn in chunks of CHUNK_SIZE requirements, each with its own generator split from the
+ * generator of the seed (see splitChunks()), so that the chunks can be drawn in parallel and the same seed
+ * always yields the same requirements, whatever the number of threads.
+ *
+ * @author Michael Camara
+ *
+ */
+public enum InstanceClass {
+
+	UNCORRELATED("uncorrelated"),
+	WEAKLY_CORRELATED("weak"),
+	STRONGLY_CORRELATED("strong"),
+	INVERSE_STRONGLY_CORRELATED("inverse"),
+	SUBSET_SUM("subset"),
+	SPANNER("spanner");
+
+	// The number of requirements drawn with each generator split from the seed
+	public static final int CHUNK_SIZE = 1 << 16;
+
+	// The largest range R for which the benefits of every class fit in an int
+	public static final int MAX_RANGE = Integer.MAX_VALUE / 5;
+
+	// The number of requirements of the spanner set, and the largest factor they are multiplied by
+	private static final int SPANNER_SIZE = 2;
+	private static final int SPANNER_MULTIPLIER = 10;
+
+	private final String name;		// The name of the class on the command line
+
+	InstanceClass(String name) {
+		this.name = name;
+	}
+
+	/** Draw the spanner set of a spanner instance, before the generators of the chunks are split
+	 *
+	 * @param rand The generator of the seed
+	 * @param range The range R of the costs and profits
+	 * @return The cost and profit of each spanner requirement, or null if this is not the spanner class
+	 */
+	public int[][] createSpanners(SplittableRandom rand, int range) {
+		if(this != SPANNER)
+			return null;
+
+		int[][] spanners = new int[SPANNER_SIZE][];
+		for(int k = 0; k < SPANNER_SIZE; k++) {
+			int[] values = STRONGLY_CORRELATED.draw(rand, range, null);
+			int cost = values[0], profit = values[1] - values[0];
+			spanners[k] = new int[] {(2 * cost + SPANNER_MULTIPLIER - 1) / SPANNER_MULTIPLIER,
+					(2 * profit + SPANNER_MULTIPLIER - 1) / SPANNER_MULTIPLIER};
+		}
+		return spanners;
+	}
+
+	/** Split a generator for every chunk of an instance, in order
+	 *
+	 * @param rand The generator of the seed
+	 * @param numReqs The number of requirements of the instance
+	 * @return The generator of each chunk
+	 */
+	public static SplittableRandom[] splitChunks(SplittableRandom rand, int numReqs) {
+		SplittableRandom[] chunks = new SplittableRandom[(int) (((long) numReqs + CHUNK_SIZE - 1) / CHUNK_SIZE)];
+		for(int c = 0; c < chunks.length; c++)
+			chunks[c] = rand.split();
+		return chunks;
+	}
+
+	/** Draw the cost and benefit of a single requirement of this class
+	 *
+	 * @param rand The generator of the chunk of the requirement
+	 * @param range The range R of the costs and profits
+	 * @param spanners The spanner set (see createSpanners()), or null if this is not the spanner class
+	 * @return The cost and the benefit of the requirement
+	 */
+	public int[] draw(SplittableRandom rand, int range, int[][] spanners) {
+		int cost, profit;
+		switch(this) {
+		case UNCORRELATED:
+			cost = 1 + rand.nextInt(range);
+			profit = 1 + rand.nextInt(range);
+			break;
+		case WEAKLY_CORRELATED:
+			cost = 1 + rand.nextInt(range);
+			int spread = Math.max(1, range / 10);
+			profit = Math.max(1, cost - spread + rand.nextInt(2 * spread + 1));
+			break;
+		case STRONGLY_CORRELATED:
+			cost = 1 + rand.nextInt(range);
+			profit = cost + Math.max(1, range / 10);
+			break;
+		case INVERSE_STRONGLY_CORRELATED:
+			profit = 1 + rand.nextInt(range);
+			cost = profit + Math.max(1, range / 10);
+			break;
+		case SPANNER:
+			int[] spanner = spanners[rand.nextInt(spanners.length)];
+			int factor = 1 + rand.nextInt(SPANNER_MULTIPLIER);
+			cost = factor * spanner[0];
+			profit = factor * spanner[1];
+			break;
+		default:
+			cost = 1 + rand.nextInt(range);
+			profit = cost;
+		}
+		return new int[] {cost, cost + profit};
+	}
+
+	/** Create a list of random requirements of this class, named "R0" to "R(n-1)".  The list is the same as
+	 * the one written by the RequirementGenerator for the same class, range and seed.
+	 *
+	 * @param numReqs The number of requirements
+	 * @param range The range R of the costs and profits
+	 * @param seed The seed of the random number generator, so that the same list can be created again
+	 * @return The list of requirements
+	 */
+	public ArrayList<Requirement> createRequirements(int numReqs, int range, long seed) {
+		SplittableRandom rand = new SplittableRandom(seed);
+		int[][] spanners = createSpanners(rand, range);
+		SplittableRandom[] chunks = splitChunks(rand, numReqs);
+
+		ArrayList<Requirement> requirements = new ArrayList<Requirement>(numReqs);
+		for(int i = 0; i < numReqs; i++) {
+			int[] values = draw(chunks[i / CHUNK_SIZE], range, spanners);
+			requirements.add(new Requirement("R" + i, values[0], values[1]));
+		}
+		return requirements;
+	}
+
+	/** Return the name of this class on the command line
+	 *
+	 * @return the name of this class
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/** Find the class with the given name
+	 *
+	 * @param name The name of the class on the command line
+	 * @return The class, or null if no class has that name
+	 */
+	public static InstanceClass fromName(String name) {
+		for(InstanceClass instanceClass : values()) {
+			if(instanceClass.name.equals(name))
+				return instanceClass;
+		}
+		return null;
+	}
+}
@@ -0,0 +1,315 @@
+package util;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import output.Output;
+
+/** Metrics records what a single solve costs, replacing the static Timer so that concurrent solves (in
+ * server or batch mode) each keep their own measurements.  A solve goes through consecutive phases (parse,
+ * preprocess, plan, solve, reconstruct and output): starting a phase ends the previous one, and for each
+ * phase the following are recorded:
+ *
+ *   the elapsed time in nanoseconds;
+ *   the bytes allocated by the thread of the solve (not by the worker threads of the parallel algorithms,
+ *     and -1 if the JVM cannot measure it);
+ *   the heap used by the JVM when the phase ends, summed over the heap pools.  This is neither a peak
+ *     within the phase nor the memory of the solve alone: it includes garbage that has not been collected
+ *     yet and, in server or batch mode, the memory of other concurrent solves.
+ *
+ * Counts of rows and states (e.g. the requirements left by the Preprocessor, or the cells of the dynamic
+ * table) and the chosen algorithm are recorded as well.  The metrics are shown on the console with -t, and
+ * written with --metrics as JSON or in the text format of Prometheus (e.g. for the textfile collector of
+ * the node exporter).  A Metrics object is used by the thread of a single solve only.
+ *
+ * @author Michael Camara
+ *
+ */
+public class Metrics {
+
+	// The phases of a solve, in order
+	public static final String PARSE = "parse";
+	public static final String PREPROCESS = "preprocess";
+	public static final String PLAN = "plan";
+	public static final String SOLVE = "solve";
+	public static final String RECONSTRUCT = "reconstruct";
+	public static final String OUTPUT = "output";
+
+	// The prefix of the names of every metric in the Prometheus format
+	private static final String PREFIX = "knapsack_";
+
+	private Map<String, Phase> phases = new LinkedHashMap<String, Phase>();	// The phases started so far, in order
+	private Map<String, Long> counts = new LinkedHashMap<String, Long>();		// The counts recorded so far, in order
+	private String algorithm = "";		// The name of the algorithm chosen by the Optimizer
+
+	private Phase current;				// The running phase (null if none)
+	private long currentStart;			// The value of System.nanoTime() when the running phase started
+	private long currentAllocated;		// The bytes allocated by the thread when the running phase started
+
+	/** End the running phase, if any, and start the given one.  The measurements of a phase started more
+	 * than once are added up (and its heap used is the highest one at any of its ends).
+	 *
+	 * @param phase The name of the phase (e.g. PARSE)
+	 */
+	public void start(String phase) {
+		stop();
+		current = phases.get(phase);
+		if(current == null) {
+			current = new Phase(phase);
+			phases.put(phase, current);
+		}
+		currentAllocated = allocatedBytes();
+		currentStart = System.nanoTime();
+	}
+
+	/** End the running phase, if any
+	 */
+	public void stop() {
+		if(current == null)
+			return;
+		long end = System.nanoTime();
+		current.nanos += end - currentStart;
+
+		long allocated = allocatedBytes();
+		if(allocated >= 0 && currentAllocated >= 0 && current.allocatedBytes >= 0)
+			current.allocatedBytes += allocated - currentAllocated;
+		else
+			current.allocatedBytes = -1;
+
+		current.heapUsedBytes = Math.max(current.heapUsedBytes, heapUsage());
+		current = null;
+	}
+
+	/** Record a count of rows or states, replacing any previous count of the same name
+	 *
+	 * @param name The name of the count in camel case (e.g. "reducedRequirements")
+	 * @param value The count
+	 */
+	public void count(String name, long value) {
+		counts.put(name, value);
+	}
+
+	/** Record the algorithm chosen for the solve
+	 *
+	 * @param algorithm The name of the algorithm (e.g. "Bitset Dynamic")
+	 */
+	public void setAlgorithm(String algorithm) {
+		this.algorithm = algorithm;
+	}
+
+	/**
+	 * @return the name of the chosen algorithm, or an empty String if none was recorded
+	 */
+	public String getAlgorithm() {
+		return algorithm;
+	}
+
+	/**
+	 * @return the names of the phases started so far, in order
+	 */
+	public List<String> getPhases() {
+		return new ArrayList<String>(phases.keySet());
+	}
+
+	/**
+	 * @param phase The name of the phase
+	 * @return the time spent in the phase in nanoseconds (0 if it was never started)
+	 */
+	public long getNanos(String phase) {
+		return phases.containsKey(phase) ? phases.get(phase).nanos : 0;
+	}
+
+	/**
+	 * @param phase The name of the phase
+	 * @return the bytes allocated during the phase (0 if it was never started, -1 if unknown)
+	 */
+	public long getAllocatedBytes(String phase) {
+		return phases.containsKey(phase) ? phases.get(phase).allocatedBytes : 0;
+	}
+
+	/**
+	 * @param phase The name of the phase
+	 * @return the heap used by the JVM at the end of the phase in bytes (0 if it was never started)
+	 */
+	public long getHeapUsedBytes(String phase) {
+		return phases.containsKey(phase) ? phases.get(phase).heapUsedBytes : 0;
+	}
+
+	/**
+	 * @param name The name of the count
+	 * @return the count, or -1 if it was never recorded
+	 */
+	public long getCount(String name) {
+		return counts.containsKey(name) ? counts.get(name) : -1;
+	}
+
+	/**
+	 * @return the time spent in all phases in nanoseconds
+	 */
+	public long getTotalNanos() {
+		long total = 0;
+		for(Phase phase : phases.values())
+			total += phase.nanos;
+		return total;
+	}
+
+	/** Output all performance data collected up until this point on the console
+	 */
+	public void print() {
+		System.out.println();
+		for(Phase phase : phases.values()) {
+			String name = Character.toUpperCase(phase.name.charAt(0)) + phase.name.substring(1);
+			String memory = (phase.allocatedBytes >= 0 ? megabytes(phase.allocatedBytes) + " MB allocated, " : "")
+					+ megabytes(phase.heapUsedBytes) + " MB heap used at end";
+			System.out.println(name + " Time = " + phase.nanos / 1e9 + " seconds (" + memory + ")");
+		}
+		System.out.println("TOTAL Program Time = " + getTotalNanos() / 1e9 + " seconds");
+
+		if(!algorithm.isEmpty())
+			System.out.println("\nAlgorithm = " + algorithm);
+		for(Map.Entry<String, Long> count : counts.entrySet())
+			System.out.println(count.getKey() + " = " + count.getValue());
+	}
+
+	/** Write the metrics to a file
+	 *
+	 * @param file The file to create
+	 * @param format The format of the file ("json" or "prometheus", see MetricsFormatValidator)
+	 * @throws IOException if unable to create the file
+	 */
+	public void write(File file, String format) throws IOException {
+		BufferedWriter writer = new BufferedWriter(new FileWriter(file));
+		try {
+			writer.write(format.equals("prometheus") ? toPrometheus() : toJson());
+		} finally {
+			writer.close();
+		}
+	}
+
+	/** Format the metrics as a JSON object: the algorithm, the total time, each phase with its time,
+	 * allocated bytes and heap used at its end, and the counts
+	 *
+	 * @return The JSON object
+	 */
+	public String toJson() {
+		String newline = System.lineSeparator();
+		StringBuilder json = new StringBuilder("{" + newline);
+		json.append("  \"algorithm\": ").append(Output.jsonString(algorithm)).append(",").append(newline);
+		json.append("  \"totalNanos\": ").append(getTotalNanos()).append(",").append(newline);
+
+		json.append("  \"phases\": [");
+		int p = 0;
+		for(Phase phase : phases.values()) {
+			json.append(p++ == 0 ? "" : ",").append(newline);
+			json.append("    {\"phase\": ").append(Output.jsonString(phase.name)).append(", \"nanos\": ").append(phase.nanos)
+				.append(", \"allocatedBytes\": ").append(phase.allocatedBytes).append(", \"heapUsedBytes\": ")
+				.append(phase.heapUsedBytes).append("}");
+		}
+		json.append(p == 0 ? "" : newline + "  ").append("],").append(newline);
+
+		json.append("  \"counts\": {");
+		int c = 0;
+		for(Map.Entry<String, Long> count : counts.entrySet()) {
+			json.append(c++ == 0 ? "" : ",").append(newline);
+			json.append("    ").append(Output.jsonString(count.getKey())).append(": ").append(count.getValue());
+		}
+		json.append(c == 0 ? "" : newline + "  ").append("}").append(newline);
+		return json.append("}").append(newline).toString();
+	}
+
+	/** Format the metrics in the text exposition format of Prometheus.  Times are in seconds, as is the
+	 * convention of Prometheus, each phase is a label of the phase metrics, and the chosen algorithm is the
+	 * label of an info metric.
+	 *
+	 * @return The metrics in the Prometheus text format
+	 */
+	public String toPrometheus() {
+		StringBuilder text = new StringBuilder();
+		text.append("# HELP ").append(PREFIX).append("solve_info The algorithm chosen for the solve\n");
+		text.append("# TYPE ").append(PREFIX).append("solve_info gauge\n");
+		text.append(PREFIX).append("solve_info{algorithm=").append(labelValue(algorithm)).append("} 1\n");
+
+		text.append("# HELP ").append(PREFIX).append("phase_seconds The time spent in each phase of the solve\n");
+		text.append("# TYPE ").append(PREFIX).append("phase_seconds gauge\n");
+		for(Phase phase : phases.values())
+			text.append(PREFIX).append("phase_seconds{phase=").append(labelValue(phase.name)).append("} ").append(phase.nanos / 1e9).append("\n");
+
+		text.append("# HELP ").append(PREFIX).append("phase_allocated_bytes The bytes allocated by the solving thread in each phase\n");
+		text.append("# TYPE ").append(PREFIX).append("phase_allocated_bytes gauge\n");
+		for(Phase phase : phases.values()) {
+			if(phase.allocatedBytes >= 0)
+				text.append(PREFIX).append("phase_allocated_bytes{phase=").append(labelValue(phase.name)).append("} ").append(phase.allocatedBytes).append("\n");
+		}
+
+		text.append("# HELP ").append(PREFIX).append("phase_heap_used_bytes The heap used by the JVM at the end of each phase\n");
+		text.append("# TYPE ").append(PREFIX).append("phase_heap_used_bytes gauge\n");
+		for(Phase phase : phases.values())
+			text.append(PREFIX).append("phase_heap_used_bytes{phase=").append(labelValue(phase.name)).append("} ").append(phase.heapUsedBytes).append("\n");
+
+		for(Map.Entry<String, Long> count : counts.entrySet()) {
+			String name = PREFIX + count.getKey().replaceAll("([a-z0-9])([A-Z])", "$1_$2").toLowerCase();
+			text.append("# TYPE ").append(name).append(" gauge\n");
+			text.append(name).append(" ").append(count.getValue()).append("\n");
+		}
+		return text.toString();
+	}
+
+	/** Return the bytes allocated so far by the current thread, or -1 if the JVM cannot measure them
+	 */
+	private static long allocatedBytes() {
+		ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+		if(threads instanceof com.sun.management.ThreadMXBean) {
+			com.sun.management.ThreadMXBean allocation = (com.sun.management.ThreadMXBean) threads;
+			if(allocation.isThreadAllocatedMemorySupported() && allocation.isThreadAllocatedMemoryEnabled())
+				return allocation.getThreadAllocatedBytes(Thread.currentThread().getId());
+		}
+		return -1;
+	}
+
+	/** Return the bytes currently used in the memory pools of the heap (e.g. the eden, survivor and old
+	 * generation spaces)
+	 */
+	private static long heapUsage() {
+		long used = 0;
+		for(MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+			if(pool.getType() == MemoryType.HEAP && pool.isValid())
+				used += pool.getUsage().getUsed();
+		}
+		return used;
+	}
+
+	/** Format a number of bytes in megabytes with one decimal
+	 */
+	private static String megabytes(long bytes) {
+		return String.format("%.1f", bytes / (1024.0 * 1024.0));
+	}
+
+	/** Quote a String as the value of a Prometheus label, escaping quotes, backslashes and new lines
+	 */
+	private static String labelValue(String s) {
+		return "\"" + s.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n") + "\"";
+	}
+
+	/** The measurements of a single phase
+	 */
+	private static class Phase {
+		private final String name;		// The name of the phase
+		private long nanos;				// The time spent in the phase
+		private long allocatedBytes;	// The bytes allocated by the thread of the solve (-1 if unknown)
+		private long heapUsedBytes;		// The highest heap used at the end of the phase
+
+		Phase(String name) {
+			this.name = name;
+		}
+	}
+}
@@ -0,0 +1,45 @@
+package util;
+
+import input.BinaryRequirementFile;
+import input.MappedRequirementParser;
+
+import java.io.IOException;
+
+import solver.RequirementSet;
+
+import com.beust.jcommander.JCommander;
+
+/** This class converts a .csv list of requirements into the binary format of BinaryRequirementFile, which
+ * can then be given to Menu through the same --input option and is loaded without any text parsing.
+ * Every valid requirement is converted, including those that do not generate a profit.
+ * 
+ * @author Michael Camara
+ *
+ */
+public class RequirementConverter {
+
+	public static void main(String[] args) throws IOException {
+		
+		// Instantiate JCommander components for accepting user-input
+		RequirementConverterInput input = new RequirementConverterInput();
+
+		// Retrieve and interpret command line arguments
+		JCommander jcommand = new JCommander(input, args);
+		
+		// If user has specified the "--help" tag, show help message and stop program execution
+		if(input.isHelp() == true) {
+			jcommand.setProgramName("RequirementConverter");
+			jcommand.usage();
+			return;
+		}
+		
+		// Parse every valid requirement of the .csv file, regardless of profit
+		MappedRequirementParser parser = new MappedRequirementParser(input.getInputFile());
+		parser.setKeepAll(true);
+		RequirementSet requirements = parser.parse();
+		
+		// Write the requirements in the binary format
+		BinaryRequirementFile.write(requirements, input.getOutputFile());
+		System.out.println("Converted " + requirements.size() + " requirements to " + input.getOutputFile());
+	}
+}
@@ -0,0 +1,47 @@
+package util;
+
+import java.io.File;
+
+import com.beust.jcommander.Parameter;
+
+/** This class utilizes JCommander to handle command line input
+ * specifically for the RequirementConverter class.
+ * 
+ * @author Michael Camara
+ *
+ */
+public class RequirementConverterInput {
+	
+	// Allow the user to specify the .csv file containing the list of requirements to convert
+	@Parameter(names = {"-i", "--input"}, description = "Enter the .csv file containing the list of requirements to convert.  E.g. \"input.csv\"")
+	private File inputFile = new File("input.csv");
+	
+	// Allow the user to specify the binary file that will be created
+	@Parameter(names = {"-o", "--output"}, description = "Enter the desired file name for the binary list of requirements.  E.g. \"input.bin\"")
+	private File outputFile = new File("input.bin");
+	
+	// Allow user to show help menu with parameter usage information
+	@Parameter(names = {"-h", "--help"}, description = "Shows parameter usage information", help = true)
+	private boolean help = false;
+
+	/**
+	 * @return the inputFile
+	 */
+	public File getInputFile() {
+		return inputFile;
+	}
+
+	/**
+	 * @return the outputFile
+	 */
+	public File getOutputFile() {
+		return outputFile;
+	}
+
+	/**
+	 * @return true if help is selected, false otherwise
+	 */
+	public boolean isHelp() {
+		return help;
+	}
+}
@@ -1,64 +1,333 @@
 package util;
 
 import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
-import java.util.Random;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import com.beust.jcommander.JCommander;
+import com.beust.jcommander.ParameterException;
+
+import input.BinaryRequirementFile;
 
 /** This class generates a random list of requirements then creates a valid input file that
- * can be used during program execution. 
- * 
+ * can be used during program execution.
+ *
+ * The requirements are either uniform (independent costs and benefits below the given maximums, as
+ * generated originally) or drawn from one of the harder classes of InstanceClass.  They are drawn in
+ * chunks of InstanceClass.CHUNK_SIZE requirements on several threads, each chunk with its own generator
+ * split from the seed, so the same seed always generates the same file regardless of the number of
+ * threads, and the same requirements as InstanceClass.createRequirements().  A .csv file is written chunk
+ * by chunk in order, each chunk formatted into a single buffer; a binary file (see BinaryRequirementFile)
+ * has columns of known positions, so every chunk writes its part of each column directly.
+ *
  * @author Michael Camara
  *
  */
 public class RequirementGenerator {
 
+	private final int numReqs;					// The number of requirements to generate
+	private final InstanceClass instanceClass;	// The class of the requirements (null for uniform)
+	private final int maxCost;					// The max cost (uniform), or the range of the costs and profits
+	private final int maxBenefit;				// The max benefit (uniform only)
+	private final long seed;					// The seed of the random values
+	private int[][] spanners;					// The spanner set of a spanner instance (null otherwise)
+
 	public static void main(String[] args) throws IOException {
-		
+
 		// Instantiate JCommander components for accepting user-input
 		RequirementGeneratorInput input = new RequirementGeneratorInput();
 
 		// Retrieve and interpret command line arguments
 		JCommander jcommand = new JCommander(input, args);
-		
+
 		// If user has specified the "--help" tag, show help message and stop program execution
 		if(input.isHelp() == true) {
 			jcommand.setProgramName("RequirementGenerator");
 			jcommand.usage();
 			return;
 		}
-		
-		// Create corresponding File and FileWriter for output
-		File file = input.getGeneratedFile();
-		FileWriter writer = new FileWriter(file, false);
-		
-		// Create a simple, 1 line header for the file
-		String header = "Requirement,Cost,Benefit";
-		writer.write(header);
-		
+
 		// Record parameters entered by user
-		int numReqs = input.getSize();
-		int maxCost = input.getCost();
-		int maxBenefit = input.getBenefit();
-		
-		// Use a random number generator for values
-		Random rand = new Random();
-		
-		System.out.println("Start");
-		
-		// Create numReqs number of requirements with random positive costs and benefits
-		for(int i = 0, benefit = 0, cost = 0; i < numReqs; i++) {	
-			String name = "R" + i;
-			benefit = rand.nextInt(maxBenefit);
-			cost = rand.nextInt(maxCost);
-			
-			String requirement = System.lineSeparator() + name + "," + cost + "," + benefit;
-			writer.write(requirement);
+		InstanceClass instanceClass = input.getInstanceClass();
+		RequirementGenerator generator = new RequirementGenerator(input.getSize(), instanceClass, input.getCost(),
+				input.getBenefit(), input.getSeed());
+
+		System.out.println("Generating " + input.getSize() + " " + (instanceClass == null ? "uniform" : instanceClass.getName())
+				+ " requirements with seed " + input.getSeed() + "...");
+		long start = System.nanoTime();
+
+		if(input.isBinary())
+			generator.writeBinary(input.getGeneratedFile(), input.getThreads());
+		else
+			generator.writeCsv(input.getGeneratedFile(), input.getThreads());
+
+		System.out.println("Finish (" + (System.nanoTime() - start) / 1000000 + " ms)");
+	}
+
+	/** Prepare the generation of a list of requirements
+	 *
+	 * @param numReqs The number of requirements
+	 * @param instanceClass The class of the requirements, or null for uniform requirements
+	 * @param maxCost The max cost of uniform requirements (exclusive), or the range R of the costs and profits of a class
+	 * @param maxBenefit The max benefit of uniform requirements (exclusive)
+	 * @param seed The seed of the random values
+	 * @throws ParameterException if the size or ranges are out of bounds
+	 */
+	public RequirementGenerator(int numReqs, InstanceClass instanceClass, int maxCost, int maxBenefit, long seed) {
+		if(numReqs < 0)
+			throw new ParameterException("Parameter --size should be non-negative (found \"" + numReqs + "\").");
+		if(instanceClass == null && (maxCost < 1 || maxBenefit < 1))
+			throw new ParameterException("Parameters --cost and --benefit should be positive (found \"" + maxCost + "\" and \"" + maxBenefit + "\").");
+		if(instanceClass != null && (maxCost < 1 || maxCost > InstanceClass.MAX_RANGE))
+			throw new ParameterException("Parameter --cost should be between 1 and " + InstanceClass.MAX_RANGE + " (found \"" + maxCost + "\").");
+
+		this.numReqs = numReqs;
+		this.instanceClass = instanceClass;
+		this.maxCost = maxCost;
+		this.maxBenefit = maxBenefit;
+		this.seed = seed;
+	}
+
+	/** Write the requirements to a .csv file, with the same header and layout as the original generator
+	 *
+	 * @param file The file to create
+	 * @param threads The number of threads drawing and formatting the chunks
+	 * @throws IOException if unable to write the file
+	 */
+	public void writeCsv(File file, int threads) throws IOException {
+		SplittableRandom[] chunks = splitChunks();
+		byte[] separator = System.lineSeparator().getBytes(StandardCharsets.UTF_8);
+
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		try(FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+
+			// Create a simple, 1 line header for the file
+			write(channel, ByteBuffer.wrap("Requirement,Cost,Benefit".getBytes(StandardCharsets.UTF_8)));
+
+			// Write the chunks in order, keeping only a few formatted chunks in memory at once
+			ArrayDeque<Future<ByteBuffer>> pending = new ArrayDeque<Future<ByteBuffer>>();
+			for(int c = 0; c < chunks.length; c++) {
+				SplittableRandom rand = chunks[c];
+				int first = c * InstanceClass.CHUNK_SIZE;
+				pending.add(pool.submit(() -> formatChunk(rand, first, separator)));
+				if(pending.size() >= 2 * threads)
+					write(channel, await(pending.poll()));
+			}
+			while(!pending.isEmpty())
+				write(channel, await(pending.poll()));
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+	/** Write the requirements to a binary requirement file (see BinaryRequirementFile)
+	 *
+	 * @param file The file to create
+	 * @param threads The number of threads drawing and writing the chunks
+	 * @throws IOException if unable to write the file, or if it would be too large to be loaded again
+	 */
+	public void writeBinary(File file, int threads) throws IOException {
+		long numNameBytes = nameOffset(numReqs);
+		BinaryRequirementFile.checkFileSize(numReqs, numNameBytes);
+		SplittableRandom[] chunks = splitChunks();
+
+		// The position of each column (see BinaryRequirementFile)
+		long costsPosition = BinaryRequirementFile.HEADER_SIZE;
+		long benefitsPosition = costsPosition + 4L * numReqs;
+		long offsetsPosition = benefitsPosition + 4L * numReqs;
+		long namesPosition = offsetsPosition + 4L * (numReqs + 1);
+
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		try(FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+
+			// Write the header, and the final name offset, which no chunk holds
+			ByteBuffer header = ByteBuffer.allocate(BinaryRequirementFile.HEADER_SIZE);
+			header.putInt(BinaryRequirementFile.MAGIC).putInt(BinaryRequirementFile.VERSION).putInt(numReqs).putInt((int) numNameBytes);
+			write(channel, header.flip(), 0);
+			ByteBuffer lastOffset = ByteBuffer.allocate(4);
+			lastOffset.putInt((int) numNameBytes);
+			write(channel, lastOffset.flip(), offsetsPosition + 4L * numReqs);
+
+			// Each chunk writes its costs, benefits, name offsets and names at their positions in the columns
+			List<Callable<Void>> tasks = new ArrayList<Callable<Void>>();
+			for(int c = 0; c < chunks.length; c++) {
+				SplittableRandom rand = chunks[c];
+				int first = c * InstanceClass.CHUNK_SIZE;
+				tasks.add(() -> {
+					int[][] values = drawChunk(rand, first);
+					int count = values[0].length;
+					ByteBuffer costs = ByteBuffer.allocate(4 * count);
+					ByteBuffer benefits = ByteBuffer.allocate(4 * count);
+					ByteBuffer offsets = ByteBuffer.allocate(4 * count);
+					long firstOffset = nameOffset(first);
+					ByteBuffer names = ByteBuffer.allocate((int) (nameOffset(first + count) - firstOffset));
+
+					byte[] digits = new byte[10];
+					for(int i = 0; i < count; i++) {
+						costs.putInt(values[0][i]);
+						benefits.putInt(values[1][i]);
+						offsets.putInt((int) (firstOffset + names.position()));
+						names.put((byte) 'R');
+						int end = putInt(digits, 0, first + i);
+						names.put(digits, 0, end);
+					}
+
+					write(channel, costs.flip(), costsPosition + 4L * first);
+					write(channel, benefits.flip(), benefitsPosition + 4L * first);
+					write(channel, offsets.flip(), offsetsPosition + 4L * first);
+					write(channel, names.flip(), namesPosition + firstOffset);
+					return null;
+				});
+			}
+
+			try {
+				for(Future<Void> future : pool.invokeAll(tasks))
+					await(future);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IOException("Generation of the requirements was interrupted", e);
+			}
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+	/** Split the generator of every chunk from the seed, drawing the spanner set of a spanner instance first
+	 *
+	 * @return The generator of each chunk
+	 */
+	private SplittableRandom[] splitChunks() {
+		SplittableRandom rand = new SplittableRandom(seed);
+		if(instanceClass != null)
+			spanners = instanceClass.createSpanners(rand, maxCost);
+		return InstanceClass.splitChunks(rand, numReqs);
+	}
+
+	/** Draw the costs and benefits of the requirements of a chunk
+	 *
+	 * @param rand The generator of the chunk
+	 * @param first The index of the first requirement of the chunk
+	 * @return The costs and the benefits of the requirements
+	 */
+	private int[][] drawChunk(SplittableRandom rand, int first) {
+		int count = Math.min(InstanceClass.CHUNK_SIZE, numReqs - first);
+		int[] costs = new int[count], benefits = new int[count];
+		for(int i = 0; i < count; i++) {
+			if(instanceClass == null) {
+				costs[i] = rand.nextInt(maxCost);
+				benefits[i] = rand.nextInt(maxBenefit);
+			} else {
+				int[] values = instanceClass.draw(rand, maxCost, spanners);
+				costs[i] = values[0];
+				benefits[i] = values[1];
+			}
+		}
+		return new int[][] {costs, benefits};
+	}
+
+	/** Draw the requirements of a chunk and format them as lines of a .csv file
+	 *
+	 * @param rand The generator of the chunk
+	 * @param first The index of the first requirement of the chunk
+	 * @param separator The line separator, which starts every line
+	 * @return The formatted lines
+	 */
+	private ByteBuffer formatChunk(SplittableRandom rand, int first, byte[] separator) {
+		int[][] values = drawChunk(rand, first);
+		int count = values[0].length;
+
+		// Each line holds a separator, "R", three numbers of at most 11 characters and two commas
+		byte[] lines = new byte[count * (separator.length + 36)];
+		int position = 0;
+		for(int i = 0; i < count; i++) {
+			System.arraycopy(separator, 0, lines, position, separator.length);
+			position += separator.length;
+			lines[position++] = 'R';
+			position = putInt(lines, position, first + i);
+			lines[position++] = ',';
+			position = putInt(lines, position, values[0][i]);
+			lines[position++] = ',';
+			position = putInt(lines, position, values[1][i]);
+		}
+		return ByteBuffer.wrap(lines, 0, position);
+	}
+
+	/** Write the decimal digits of a value into a buffer
+	 *
+	 * @param buffer The buffer
+	 * @param position The position of the first character
+	 * @param value The value, which cannot be Integer.MIN_VALUE
+	 * @return The position after the last character
+	 */
+	private static int putInt(byte[] buffer, int position, int value) {
+		if(value < 0) {
+			buffer[position++] = '-';
+			value = -value;
+		}
+		int end = position + 1;
+		for(int rest = value / 10; rest > 0; rest /= 10)
+			end++;
+		for(int i = end - 1; i >= position; i--) {
+			buffer[i] = (byte) ('0' + value % 10);
+			value /= 10;
+		}
+		return end;
+	}
+
+	/** Return the number of bytes of the names "R0" to "R(i-1)", i.e. the name offset of requirement i
+	 *
+	 * @param i The index of the requirement
+	 * @return The offset of its name in the name blob of a binary file
+	 */
+	private static long nameOffset(long i) {
+		long bytes = i;
+		for(long low = 0, high = 10, digits = 1; low < i; low = high, high *= 10, digits++)
+			bytes += digits * (Math.min(high, i) - low);
+		return bytes;
+	}
+
+	/** Write a whole buffer at the current position of a channel
+	 */
+	private static void write(FileChannel channel, ByteBuffer buffer) throws IOException {
+		while(buffer.hasRemaining())
+			channel.write(buffer);
+	}
+
+	/** Write a whole buffer at the given position of a channel, which other threads may write to at once
+	 */
+	private static void write(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+		while(buffer.hasRemaining())
+			position += channel.write(buffer, position);
+	}
+
+	/** Wait for the result of a chunk, rethrowing its failure
+	 */
+	private static <T> T await(Future<T> future) throws IOException {
+		try {
+			return future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Generation of the requirements was interrupted", e);
+		} catch (ExecutionException e) {
+			if(e.getCause() instanceof IOException)
+				throw (IOException) e.getCause();
+			if(e.getCause() instanceof RuntimeException)
+				throw (RuntimeException) e.getCause();
+			throw new IllegalStateException(e.getCause());
 		}
-				
-		writer.close();
-		System.out.println("Finish");
 	}
-}
\ No newline at end of file
+}
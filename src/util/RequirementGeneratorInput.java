@@ -1,33 +1,58 @@
 package util;
 
 import java.io.File;
+import java.util.SplittableRandom;
 
 import com.beust.jcommander.Parameter;
+import com.beust.jcommander.ParameterException;
+
+import input.PositiveIntegerValidator;
 
 /** This class utilizes JCommander to handle command line input
  * specifically for the RequirementGenerator class.
- * 
+ *
  * @author Michael Camara
  *
  */
 public class RequirementGeneratorInput {
-	
+
 	// Allow the user to specify an output file containing a randomly generated list of requirements
 	@Parameter(names = {"-f", "--file"}, description = "Enter the desired file name for the generated requirements.  E.g. \"input.csv\"")
 	private File generatedFile = new File("input.csv");
-	
+
 	// Specify the size of the created file (i.e. the number of requirements)
 	@Parameter(names = {"-s", "--size"}, description = "Size of the generated list of requirements")
 	private int size = 10000;
-	
+
 	// Specify the max value for a single benefit (randomly chosen between 0 and that number)
-	@Parameter(names = {"-b", "--benefit"}, description = "Max value of a single benefit")
+	@Parameter(names = {"-b", "--benefit"}, description = "Max value of a single benefit (uniform class only)")
 	private int benefit = 100;
-	
+
 	// Specify the max value for a single cost (randomly chosen between 0 and that number)
-	@Parameter(names = {"-c", "--cost"}, description = "Max value of a single cost")
+	@Parameter(names = {"-c", "--cost"}, description = "Max value of a single cost.  For the other classes, the range R of "
+			+ "the costs and profits")
 	private int cost = 100;
-	
+
+	// Specify the class of the instance, i.e. how the benefits relate to the costs
+	@Parameter(names = {"--class"}, description = "Class of the generated instance: uniform (independent costs and benefits "
+			+ "below --cost and --benefit), or one of the classes of InstanceClass: uncorrelated, weak, strong, inverse, "
+			+ "subset, or spanner")
+	private String instanceClass = "uniform";
+
+	// Specify the seed of the random values, so that the same list can be generated again
+	@Parameter(names = {"--seed"}, description = "Seed of the random values.  The same seed, size, class and ranges always "
+			+ "generate the same list.  Defaults to a random seed, which is printed")
+	private Long seed = null;
+
+	// Specify the format of the created file
+	@Parameter(names = {"--format"}, description = "Format of the generated file: csv, or binary (see RequirementConverter)")
+	private String format = "csv";
+
+	// Allow user to choose how many threads generate the requirements
+	@Parameter(names = {"--threads"}, description = "Number of threads generating the requirements.  0 uses all available "
+			+ "processors", validateWith = PositiveIntegerValidator.class)
+	private int threads = 0;
+
 	// Allow user to show help menu with parameter usage information
 	@Parameter(names = {"-h", "--help"}, description = "Shows parameter usage information", help = true)
 	private boolean help = false;
@@ -60,12 +85,51 @@ public class RequirementGeneratorInput {
 		return cost;
 	}
 
+	/**
+	 * @return the instance class, or null for the uniform class
+	 */
+	public InstanceClass getInstanceClass() {
+		if(instanceClass.equals("uniform"))
+			return null;
+		InstanceClass chosenClass = InstanceClass.fromName(instanceClass);
+		if(chosenClass == null)
+			throw new ParameterException("Parameter --class should be uniform, uncorrelated, weak, strong, inverse, subset or spanner (found \"" + instanceClass + "\").");
+		return chosenClass;
+	}
+
+	/**
+	 * @return the seed, drawn at random if the user did not enter one
+	 */
+	public long getSeed() {
+		if(seed == null)
+			seed = new SplittableRandom().nextLong();
+		return seed;
+	}
+
+	/**
+	 * @return true if the file should be written in the binary format, false for .csv
+	 */
+	public boolean isBinary() {
+		if(!format.equals("csv") && !format.equals("binary"))
+			throw new ParameterException("Parameter --format should be csv or binary (found \"" + format + "\").");
+		return format.equals("binary");
+	}
+
+	/**
+	 * @return the number of threads (all available processors if the user entered 0)
+	 */
+	public int getThreads() {
+		if(threads == 0)
+			return Runtime.getRuntime().availableProcessors();
+		return threads;
+	}
+
 	/**
 	 * @return true if help is selected, false otherwise
 	 */
 	public boolean isHelp() {
 		return help;
 	}
-	
-	
-}
\ No newline at end of file
+
+
+}